@@ -6,6 +6,9 @@ import com.finapp.backend.domain.service.utils.ResetLinkBuilder;
 import com.finapp.backend.dto.auth.*;
 import com.finapp.backend.exception.ApiErrorCode;
 import com.finapp.backend.exception.ApiException;
+import com.finapp.backend.security.AuthenticatedUser;
+import com.finapp.backend.security.BearerTokenResolver;
+import com.finapp.backend.security.VerifiedJwt;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,7 +17,6 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -32,6 +34,7 @@ public class AuthController {
     private final EmailService emailService;
     private final UserService userService;
     private final ResetLinkBuilder resetLinkBuilder;
+    private final BearerTokenResolver bearerTokenResolver;
 
     @PostMapping("/register")
     @Operation(
@@ -85,12 +88,7 @@ public class AuthController {
             }
     )
     public ResponseEntity<Void> logout(HttpServletRequest request) {
-        String authorizationHeader = request.getHeader("Authorization");
-
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer "))
-            throw new ApiException(ApiErrorCode.INVALID_ACCESS_TOKEN);
-
-        String accessToken = authorizationHeader.substring(7);
+        String accessToken = currentAccessToken(request);
         sessionService.revokeCurrentSession(accessToken);
         return ResponseEntity.noContent().build();
     }
@@ -107,16 +105,12 @@ public class AuthController {
     )
     public ResponseEntity<Void> logoutById(
             @PathVariable UUID sessionId,
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             HttpServletRequest httpRequest
     ) {
-        String authorizationHeader = httpRequest.getHeader("Authorization");
-
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer "))
-            throw new ApiException(ApiErrorCode.INVALID_ACCESS_TOKEN);
-        String currentAccessToken = authorizationHeader.substring(7);
+        String currentAccessToken = currentAccessToken(httpRequest);
 
-        sessionService.revokeSpecificSession(sessionId, userDetails.getUsername(), currentAccessToken);
+        sessionService.revokeSpecificSession(sessionId, user, currentAccessToken);
         return ResponseEntity.noContent().build();
     }
 
@@ -129,13 +123,10 @@ public class AuthController {
                     @ApiResponse(responseCode = "400", description = "Bad Request - Invalid or missing Authorization header"),
             }
     )
-    public ResponseEntity<Void> logoutAllSessions(@AuthenticationPrincipal UserDetails userDetails, HttpServletRequest httpRequest) {
-        String authorizationHeader = httpRequest.getHeader("Authorization");
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer "))
-            throw new ApiException(ApiErrorCode.INVALID_ACCESS_TOKEN);
-        String currentAccessToken = authorizationHeader.substring(7);
+    public ResponseEntity<Void> logoutAllSessions(@AuthenticationPrincipal AuthenticatedUser user, HttpServletRequest httpRequest) {
+        String currentAccessToken = currentAccessToken(httpRequest);
 
-        sessionService.logoutAllSessions(userDetails.getUsername(), currentAccessToken);
+        sessionService.logoutAllSessions(user, currentAccessToken);
         return ResponseEntity.noContent().build();
     }
 
@@ -148,13 +139,10 @@ public class AuthController {
                     @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token")
             }
     )
-    public ResponseEntity<List<SessionInfo>> getActiveSessions(@AuthenticationPrincipal UserDetails userDetails, HttpServletRequest httpRequest) {
-        String authorizationHeader = httpRequest.getHeader("Authorization");
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer "))
-            throw new ApiException(ApiErrorCode.INVALID_ACCESS_TOKEN);
-        String currentAccessToken = authorizationHeader.substring(7);
+    public ResponseEntity<List<SessionInfo>> getActiveSessions(@AuthenticationPrincipal AuthenticatedUser user, HttpServletRequest httpRequest) {
+        String currentAccessToken = currentAccessToken(httpRequest);
 
-        List<SessionInfo> activeSessions = sessionService.getActiveSessions(userDetails.getUsername(), currentAccessToken);
+        List<SessionInfo> activeSessions = sessionService.getActiveSessions(user, currentAccessToken);
         return ResponseEntity.ok(activeSessions);
     }
 
@@ -173,4 +161,11 @@ public class AuthController {
         userService.updatePasswordByEmail(token.getEmail(), request.getNewPassword());
         passwordResetService.markTokenAsUsed(token);
     }
+
+    // the token was already verified by the authentication filter, this only reads the cached result
+    private String currentAccessToken(HttpServletRequest request) {
+        return bearerTokenResolver.resolve(request)
+                .map(VerifiedJwt::token)
+                .orElseThrow(() -> new ApiException(ApiErrorCode.INVALID_ACCESS_TOKEN));
+    }
 }
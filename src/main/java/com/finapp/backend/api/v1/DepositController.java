@@ -1,11 +1,21 @@
 package com.finapp.backend.api.v1;
 
+import com.finapp.backend.dto.deposit.BalancePoint;
 import com.finapp.backend.dto.deposit.CreateDepositRequest;
+import com.finapp.backend.dto.deposit.DepositBatchRequest;
+import com.finapp.backend.dto.deposit.DepositBatchResult;
+import com.finapp.backend.dto.deposit.DepositExportFormat;
+import com.finapp.backend.dto.deposit.DepositImportResponse;
+import com.finapp.backend.dto.deposit.CursorPage;
 import com.finapp.backend.dto.deposit.DepositResponse;
 import com.finapp.backend.dto.deposit.DepositSummaryResponse;
 import com.finapp.backend.dto.deposit.UpdateDepositRequest;
 import com.finapp.backend.domain.model.enums.TransactionType;
+import com.finapp.backend.domain.service.BalanceHistoryService;
+import com.finapp.backend.domain.service.DepositExportService;
+import com.finapp.backend.domain.service.DepositImportService;
 import com.finapp.backend.domain.service.DepositService;
+import com.finapp.backend.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,11 +24,17 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,6 +45,9 @@ import java.util.UUID;
 public class DepositController {
 
     private final DepositService depositService;
+    private final DepositExportService depositExportService;
+    private final DepositImportService depositImportService;
+    private final BalanceHistoryService balanceHistoryService;
 
     @PostMapping
     @Operation(
@@ -44,13 +63,31 @@ public class DepositController {
             }
     )
     public ResponseEntity<?> createDeposit(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody CreateDepositRequest request
     ) {
-        depositService.createDeposit(userDetails.getUsername(), request);
+        depositService.createDeposit(user, request);
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Apply a batch of deposit operations",
+            description = "Creates, updates and deletes up to 500 deposits in one transaction. Each operation is validated with the single-item rules and gets its own result; failed operations are skipped without affecting the others.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK - Batch processed, see the per-operation results"),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - Empty batch, too many operations or missing action"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden - User account is deactivated")
+            }
+    )
+    public ResponseEntity<List<DepositBatchResult>> applyBatch(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Valid @RequestBody DepositBatchRequest request
+    ) {
+        return ResponseEntity.ok(depositService.applyBatch(user, request));
+    }
+
     @GetMapping
     @Operation(
             summary = "List user deposits",
@@ -65,18 +102,99 @@ public class DepositController {
             }
     )
     public ResponseEntity<Page<DepositResponse>> listDeposits(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestParam(required = false) List<TransactionType> transactionType,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size
     ) {
         return depositService.listUserDeposits(
-                userDetails.getUsername(),
+                user,
                 transactionType,
                 PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "date"))
         );
     }
 
+    @GetMapping("/scroll")
+    @Operation(
+            summary = "Scroll user deposits",
+            description = "Fetches the user's deposits newest first, one page at a time. Pass the returned nextCursor to get the following page; it is null on the last page. Unlike the paginated listing, every page costs the same regardless of depth.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK - Deposits retrieved successfully"),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - Invalid cursor"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden - User account is deactivated"),
+                    @ApiResponse(responseCode = "404", description = "Not Found - User not found")
+
+            }
+    )
+    public ResponseEntity<CursorPage<DepositResponse>> scrollDeposits(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) List<TransactionType> transactionType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(depositService.scrollUserDeposits(user, transactionType, cursor, size));
+    }
+
+    @GetMapping("/export")
+    @Operation(
+            summary = "Export user deposits",
+            description = "Streams every deposit of the authenticated user, newest first, as csv or ndjson.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK - Export streamed"),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - Unsupported format"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden - User account is deactivated")
+            }
+    )
+    public ResponseEntity<StreamingResponseBody> exportDeposits(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(defaultValue = "csv") String format
+    ) {
+        DepositExportFormat exportFormat = DepositExportFormat.of(format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"deposits." + exportFormat.extension() + "\"")
+                .body(depositExportService.exportUserDeposits(user, exportFormat));
+    }
+
+    @PostMapping(value = "/imports", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+            summary = "Import a bank statement",
+            description = "Uploads a .csv or .ofx statement whose rows become deposits in the given fund box. Negative amounts are imported as EXIT, positive ones as ENTRY. The file is processed in the background; poll the returned job for progress and row errors.",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Accepted - Import job created"),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - Empty file or unsupported format"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token"),
+                    @ApiResponse(responseCode = "404", description = "Not Found - Fund box not found"),
+                    @ApiResponse(responseCode = "503", description = "Service Unavailable - Too many imports queued, retry later")
+            }
+    )
+    public ResponseEntity<DepositImportResponse> importStatement(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam UUID fundBoxId,
+            @RequestParam("file") MultipartFile file
+    ) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(depositImportService.startImport(user, fundBoxId, file));
+    }
+
+    @GetMapping("/imports/{jobId}")
+    @Operation(
+            summary = "Get an import job",
+            description = "Fetches the progress, counters and first row errors of a statement import started by the authenticated user.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK - Import job retrieved successfully"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token"),
+                    @ApiResponse(responseCode = "404", description = "Not Found - Import job not found")
+            }
+    )
+    public ResponseEntity<DepositImportResponse> getImport(
+            @PathVariable UUID jobId,
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        return ResponseEntity.ok(depositImportService.getImport(user, jobId));
+    }
+
     @GetMapping("/{depositId}")
     @Operation(
             summary = "Get a specific deposit",
@@ -91,9 +209,9 @@ public class DepositController {
     )
     public ResponseEntity<DepositResponse> getDepositById(
             @PathVariable UUID depositId,
-            @AuthenticationPrincipal UserDetails userDetails
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        DepositResponse deposit = depositService.getDepositById(depositId, userDetails.getUsername());
+        DepositResponse deposit = depositService.getDepositById(depositId, user);
         return ResponseEntity.ok(deposit);
     }
 
@@ -109,8 +227,45 @@ public class DepositController {
 
             }
     )
-    public ResponseEntity<DepositSummaryResponse> getSummary(@AuthenticationPrincipal UserDetails userDetails) {
-        return ResponseEntity.ok(depositService.getDepositSummary(userDetails.getUsername()));
+    public ResponseEntity<DepositSummaryResponse> getSummary(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(depositService.getDepositSummary(user));
+    }
+
+    @GetMapping("/balance")
+    @Operation(
+            summary = "Get balance as of a date",
+            description = "Fetches the user's balance at the end of the given day, today when no date is given.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK - Balance retrieved successfully"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden - User account is deactivated")
+            }
+    )
+    public ResponseEntity<BalancePoint> getBalance(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+    ) {
+        return ResponseEntity.ok(balanceHistoryService.getUserBalance(user, date));
+    }
+
+    @GetMapping("/balance/history")
+    @Operation(
+            summary = "Get balance history",
+            description = "Fetches the user's balance at the end of from, of every day, week or month after it, and of to, which defaults to today. At most 366 points per request.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK - Balance history retrieved successfully"),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - Invalid date range or interval"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden - User account is deactivated")
+            }
+    )
+    public ResponseEntity<List<BalancePoint>> getBalanceHistory(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String interval
+    ) {
+        return ResponseEntity.ok(balanceHistoryService.getUserBalanceHistory(user, from, to, interval));
     }
 
     @PutMapping("/{depositId}")
@@ -129,9 +284,9 @@ public class DepositController {
     public ResponseEntity<DepositResponse> updateDeposit(
             @PathVariable UUID depositId,
             @RequestBody @Valid UpdateDepositRequest request,
-            @AuthenticationPrincipal UserDetails userDetails
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        DepositResponse updated = depositService.updateDeposit(depositId, userDetails.getUsername(), request);
+        DepositResponse updated = depositService.updateDeposit(depositId, user, request);
         return ResponseEntity.ok(updated);
     }
 
@@ -147,9 +302,9 @@ public class DepositController {
     )
     public ResponseEntity<Void> deleteDeposit(
             @PathVariable UUID depositId,
-            @AuthenticationPrincipal UserDetails userDetails
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        depositService.deleteDeposit(depositId, userDetails.getUsername());
+        depositService.deleteDeposit(depositId, user);
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
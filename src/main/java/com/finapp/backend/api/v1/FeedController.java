@@ -0,0 +1,41 @@
+package com.finapp.backend.api.v1;
+
+import com.finapp.backend.domain.service.FeedService;
+import com.finapp.backend.dto.deposit.CursorPage;
+import com.finapp.backend.dto.deposit.DepositResponse;
+import com.finapp.backend.security.AuthenticatedUser;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("api/v1/feed")
+@RequiredArgsConstructor
+@Tag(name = "Feed", description = "Endpoints for the user's activity feed")
+public class FeedController {
+
+    private final FeedService feedService;
+
+    @GetMapping
+    @Operation(
+            summary = "Get activity feed",
+            description = "Fetches, newest first, the user's own deposits together with every deposit made in the fund boxes they own or collaborate on. Pass the returned nextCursor to get the following page; it is null on the last page.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK - Feed retrieved successfully"),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - Invalid cursor"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden - User account is deactivated")
+            }
+    )
+    public ResponseEntity<CursorPage<DepositResponse>> getFeed(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(feedService.getFeed(user, cursor, size));
+    }
+}
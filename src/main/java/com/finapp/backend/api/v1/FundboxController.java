@@ -1,10 +1,17 @@
 package com.finapp.backend.api.v1;
 
+import com.finapp.backend.dto.deposit.BalancePoint;
+import com.finapp.backend.dto.deposit.CursorPage;
+import com.finapp.backend.dto.deposit.DepositExportFormat;
+import com.finapp.backend.dto.deposit.DepositResponse;
 import com.finapp.backend.dto.fundbox.CreateFundBoxRequest;
 import com.finapp.backend.dto.fundbox.FundBoxDetailsResponse;
 import com.finapp.backend.dto.fundbox.FundBoxResponse;
 import com.finapp.backend.dto.fundbox.UpdateFundBoxRequest;
+import com.finapp.backend.domain.service.BalanceHistoryService;
+import com.finapp.backend.domain.service.DepositExportService;
 import com.finapp.backend.domain.service.FundboxService;
+import com.finapp.backend.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,12 +21,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -29,6 +41,8 @@ import java.util.UUID;
 public class FundboxController {
 
     private final FundboxService fundBoxService;
+    private final DepositExportService depositExportService;
+    private final BalanceHistoryService balanceHistoryService;
 
     @PostMapping
     @Operation(
@@ -41,10 +55,10 @@ public class FundboxController {
             }
     )
     public ResponseEntity<FundBoxResponse> createFundBox(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody CreateFundBoxRequest request
     ) {
-        FundBoxResponse created = fundBoxService.createFundBox(userDetails.getUsername(), request);
+        FundBoxResponse created = fundBoxService.createFundBox(user, request);
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
@@ -59,12 +73,12 @@ public class FundboxController {
             }
     )
     public ResponseEntity<Page<FundBoxResponse>> listUserFundBoxes(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size
     ) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("targetDate").ascending());
-        return fundBoxService.listUserFundBoxes(userDetails.getUsername(), pageable);
+        return fundBoxService.listUserFundBoxes(user, pageable);
     }
 
     @GetMapping("/{id}")
@@ -82,14 +96,95 @@ public class FundboxController {
             @PathVariable UUID id,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @AuthenticationPrincipal UserDetails userDetails
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        String email = userDetails.getUsername();
         Pageable pageable = PageRequest.of(page, size, Sort.by("date").descending());
-        FundBoxDetailsResponse response = fundBoxService.getFundBoxDetails(id, email, pageable);
+        FundBoxDetailsResponse response = fundBoxService.getFundBoxDetails(id, user, pageable);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{id}/deposits")
+    @Operation(
+            summary = "Scroll fund box deposits",
+            description = "Fetches the fund box deposits newest first, one page at a time. Pass the returned nextCursor to get the following page; it is null on the last page.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK - Deposits fetched successfully"),
+                    @ApiResponse(responseCode = "400", description = "Bad request - Invalid cursor"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token"),
+                    @ApiResponse(responseCode = "404", description = "Not Found - Fund box not found")
+            }
+    )
+    public ResponseEntity<CursorPage<DepositResponse>> scrollFundBoxDeposits(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        return ResponseEntity.ok(fundBoxService.listFundBoxDeposits(id, user, cursor, size));
+    }
+
+    @GetMapping("/{id}/balance")
+    @Operation(
+            summary = "Get fund box balance as of a date",
+            description = "Fetches the fund box balance at the end of the given day, today when no date is given.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK - Balance retrieved successfully"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token"),
+                    @ApiResponse(responseCode = "404", description = "Not Found - Fund box not found")
+            }
+    )
+    public ResponseEntity<BalancePoint> getFundBoxBalance(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        return ResponseEntity.ok(balanceHistoryService.getFundBoxBalance(id, user, date));
+    }
+
+    @GetMapping("/{id}/balance/history")
+    @Operation(
+            summary = "Get fund box balance history",
+            description = "Fetches the fund box balance at the end of from, of every day, week or month after it, and of to, which defaults to today. At most 366 points per request.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK - Balance history retrieved successfully"),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - Invalid date range or interval"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token"),
+                    @ApiResponse(responseCode = "404", description = "Not Found - Fund box not found")
+            }
+    )
+    public ResponseEntity<List<BalancePoint>> getFundBoxBalanceHistory(
+            @PathVariable UUID id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String interval,
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        return ResponseEntity.ok(balanceHistoryService.getFundBoxBalanceHistory(id, user, from, to, interval));
+    }
+
+    @GetMapping("/{id}/deposits/export")
+    @Operation(
+            summary = "Export fund box deposits",
+            description = "Streams every deposit of the fund box, newest first, as csv or ndjson.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK - Export streamed"),
+                    @ApiResponse(responseCode = "400", description = "Bad request - Unsupported format"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token"),
+                    @ApiResponse(responseCode = "404", description = "Not Found - Fund box not found")
+            }
+    )
+    public ResponseEntity<StreamingResponseBody> exportFundBoxDeposits(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "csv") String format,
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        DepositExportFormat exportFormat = DepositExportFormat.of(format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"fundbox-deposits." + exportFormat.extension() + "\"")
+                .body(depositExportService.exportFundBoxDeposits(id, user, exportFormat));
+    }
+
     @PutMapping("/{id}")
     @Operation(
             summary = "Update a fund box",
@@ -105,18 +200,18 @@ public class FundboxController {
     public ResponseEntity<FundBoxResponse> updateFundBox(
             @PathVariable UUID id,
             @Valid @RequestBody UpdateFundBoxRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
 
-        String email = userDetails.getUsername();
-        FundBoxResponse updatedFundBox = fundBoxService.updateFundBox(id, email, request);
+        FundBoxResponse updatedFundBox = fundBoxService.updateFundBox(id, user, request);
         return ResponseEntity.ok(updatedFundBox);
     }
 
     @DeleteMapping("/{id}")
     @Operation(
             summary = "Delete a fund box",
-            description = "Deletes a specific fund box by its ID.",
+            description = "Deletes a specific fund box by its ID. Deposits are kept and unlinked from the box. Large boxes disappear immediately but are purged in the background.",
             responses = {
+                    @ApiResponse(responseCode = "202", description = "Accepted - Fund box hidden and queued for deletion"),
                     @ApiResponse(responseCode = "204", description = "No Content - Fund box deleted successfully"),
                     @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token"),
                     @ApiResponse(responseCode = "403", description = "Forbidden - User is not allowed to delete this fund box"),
@@ -125,9 +220,10 @@ public class FundboxController {
     )
     public ResponseEntity<Void> deleteFundBox(
             @PathVariable UUID id,
-            @AuthenticationPrincipal UserDetails userDetails
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        fundBoxService.deleteFundBox(id, userDetails.getUsername());
+        if (!fundBoxService.deleteFundBox(id, user))
+            return ResponseEntity.accepted().build(); // HTTP 202, purged in the background
         return ResponseEntity.noContent().build(); // HTTP 204
     }
 
@@ -145,9 +241,9 @@ public class FundboxController {
     public ResponseEntity<Void> removeCollaborator(
             @PathVariable UUID id,
             @PathVariable UUID userId,
-            @AuthenticationPrincipal UserDetails userDetails
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        fundBoxService.removeCollaborator(id, userDetails.getUsername(), userId);
+        fundBoxService.removeCollaborator(id, user, userId);
         return ResponseEntity.noContent().build();
     }
 
@@ -164,9 +260,9 @@ public class FundboxController {
     )
     public ResponseEntity<Void> leaveFundBox(
             @PathVariable UUID id,
-            @AuthenticationPrincipal UserDetails userDetails
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        fundBoxService.leaveFundBox(id, userDetails.getUsername());
+        fundBoxService.leaveFundBox(id, user);
         return ResponseEntity.noContent().build();
     }
 }
@@ -2,6 +2,7 @@ package com.finapp.backend.api.v1;
 
 import com.finapp.backend.dto.user.InviteResponse;
 import com.finapp.backend.domain.service.FundBoxInviteService;
+import com.finapp.backend.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,7 +14,6 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.UUID;
@@ -36,12 +36,12 @@ public class InvitationController {
             }
     )
     public ResponseEntity<Page<InviteResponse>> getInvites(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("id").ascending());
-        Page<InviteResponse> invites = fundBoxInviteService.getUserInvites(userDetails.getUsername(), pageable);
+        Page<InviteResponse> invites = fundBoxInviteService.getUserInvites(user, pageable);
         return ResponseEntity.ok(invites);
     }
 
@@ -55,12 +55,12 @@ public class InvitationController {
             }
     )
     public ResponseEntity<Page<InviteResponse>> getSentInvitations(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size
     ) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("invitationDate").descending());
-        Page<InviteResponse> sentInvites = fundBoxInviteService.getSentInvites(userDetails.getUsername(), pageable);
+        Page<InviteResponse> sentInvites = fundBoxInviteService.getSentInvites(user, pageable);
         return ResponseEntity.ok(sentInvites);
     }
 
@@ -78,9 +78,9 @@ public class InvitationController {
     )
     public ResponseEntity<Void> acceptInvitation(
             @PathVariable UUID invitationId,
-            @AuthenticationPrincipal UserDetails userDetails
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        fundBoxInviteService.acceptInvitation(invitationId, userDetails.getUsername());
+        fundBoxInviteService.acceptInvitation(invitationId, user);
         return ResponseEntity.ok().build();
     }
 
@@ -97,9 +97,9 @@ public class InvitationController {
     )
     public ResponseEntity<Void> declineInvitation(
             @PathVariable UUID invitationId,
-            @AuthenticationPrincipal UserDetails userDetails
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        fundBoxInviteService.declineInvitation(invitationId, userDetails.getUsername());
+        fundBoxInviteService.declineInvitation(invitationId, user);
         return ResponseEntity.noContent().build();
     }
 
@@ -118,9 +118,9 @@ public class InvitationController {
     public ResponseEntity<Void> inviteCollaborator(
             @PathVariable UUID fundBoxId,
             @PathVariable UUID userId,
-            @AuthenticationPrincipal UserDetails userDetails
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        fundBoxInviteService.inviteCollaborator(fundBoxId, userDetails.getUsername(), userId);
+        fundBoxInviteService.inviteCollaborator(fundBoxId, user, userId);
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
@@ -138,9 +138,9 @@ public class InvitationController {
     )
     public ResponseEntity<Void> cancelInvitation(
             @PathVariable UUID invitationId,
-            @AuthenticationPrincipal UserDetails userDetails
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        fundBoxInviteService.cancelInvitation(invitationId, userDetails.getUsername());
+        fundBoxInviteService.cancelInvitation(invitationId, user);
         return ResponseEntity.noContent().build();
     }
 }
@@ -4,6 +4,7 @@ import com.finapp.backend.dto.user.UpdateUserDataRequest;
 import com.finapp.backend.dto.user.UpdateUserPasswordRequest;
 import com.finapp.backend.dto.user.UserResponse;
 import com.finapp.backend.domain.service.UserService;
+import com.finapp.backend.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -11,7 +12,6 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -31,8 +31,8 @@ public class UserController {
                 @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token")
             }
     )
-    public ResponseEntity<UserResponse> getUserInfo(@AuthenticationPrincipal UserDetails userDetails) {
-        UserResponse response = userService.getUserInfo(userDetails.getUsername());
+    public ResponseEntity<UserResponse> getUserInfo(@AuthenticationPrincipal AuthenticatedUser user) {
+        UserResponse response = userService.getUserInfo(user);
         return ResponseEntity.ok(response);
     }
 
@@ -48,10 +48,10 @@ public class UserController {
             }
     )
     public ResponseEntity<?> updateUserData(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody UpdateUserDataRequest request
     ) {
-        userService.updateUserData(userDetails.getUsername(), request.getNewName());
+        userService.updateUserData(user, request.getNewName());
         return ResponseEntity.ok("User data updated successfully");
     }
 
@@ -67,10 +67,10 @@ public class UserController {
             }
     )
     public ResponseEntity<?> updateUserPassword(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestBody @Valid UpdateUserPasswordRequest request
     ) {
-        userService.updateUserPassword(userDetails.getUsername(), request.getCurrentPassword(), request.getNewPassword());
+        userService.updateUserPassword(user, request.getCurrentPassword(), request.getNewPassword());
         return ResponseEntity.ok("Password updated successfully");
     }
 
@@ -83,8 +83,8 @@ public class UserController {
                     @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token")
             }
     )
-    public ResponseEntity<?> requestAccountDeletion(@AuthenticationPrincipal UserDetails userDetails) {
-        userService.requestAccountDeletion(userDetails.getUsername());
+    public ResponseEntity<?> requestAccountDeletion(@AuthenticationPrincipal AuthenticatedUser user) {
+        userService.requestAccountDeletion(user);
         return ResponseEntity.ok("Account deletion requested. You can revert by logging in within 30 days.");
     }
 }
@@ -0,0 +1,43 @@
+package com.finapp.backend.config;
+
+import com.finapp.backend.config.migration.DepositImportJobTableUpgrade;
+import com.finapp.backend.config.migration.DepositKeysetIndexUpgrade;
+import com.finapp.backend.config.migration.FundBoxBalanceTableUpgrade;
+import com.finapp.backend.config.migration.SchemaUpgrader;
+import com.finapp.backend.config.migration.SharedCounterTableUpgrade;
+import com.finapp.backend.config.migration.UserBalanceTableUpgrade;
+import com.finapp.backend.config.migration.UserTokenDigestUpgrade;
+import com.finapp.backend.config.migration.UuidBinaryStorageUpgrade;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Configuration
+public class SchemaUpgradeConfig {
+
+    @Bean
+    public SchemaUpgrader schemaUpgrader(DataSource dataSource) {
+        return new SchemaUpgrader(new JdbcTemplate(dataSource), List.of(
+                new UserTokenDigestUpgrade(),
+                new SharedCounterTableUpgrade(),
+                new UserBalanceTableUpgrade(),
+                new FundBoxBalanceTableUpgrade(),
+                new UuidBinaryStorageUpgrade(),
+                new DepositImportJobTableUpgrade(),
+                new DepositKeysetIndexUpgrade()
+        ));
+    }
+
+    // pre-Flyway databases are upgraded to the baseline first, Flyway then baselines them at V1
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(SchemaUpgrader schemaUpgrader) {
+        return flyway -> {
+            schemaUpgrader.upgradeLegacySchema();
+            flyway.migrate();
+        };
+    }
+}
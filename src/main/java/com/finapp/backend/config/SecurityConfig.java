@@ -1,8 +1,12 @@
 package com.finapp.backend.config;
 
+import com.finapp.backend.security.BoundedPasswordEncoder;
 import com.finapp.backend.security.CustomAuthenticationHandler;
 import com.finapp.backend.security.JwtAuthenticationFilter;
+import com.finapp.backend.security.PasswordHashCalibration;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -11,14 +15,20 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final String BCRYPT_ENCODER_ID = "bcrypt";
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @Bean
@@ -54,7 +64,23 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${security.password-hashing.pool-size:0}") int poolSize,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password-hashing.max-wait-ms:2000}") long maxWaitMs,
+            @Value("${security.password-hashing.target-latency-ms:250}") long targetLatencyMs,
+            @Value("${security.password-hashing.min-strength:10}") int minStrength,
+            @Value("${security.password-hashing.max-strength:16}") int maxStrength) {
+        int strength = PasswordHashCalibration.bcryptStrength(Duration.ofMillis(targetLatencyMs), minStrength, maxStrength);
+
+        // hashes are stored as {bcrypt}$2a$<cost>$..., unprefixed ones predate the prefix and are still bcrypt
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT_ENCODER_ID, Map.of(BCRYPT_ENCODER_ID, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        // by default leave half of the cores to the request threads
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(delegating, threads, queueCapacity, Duration.ofMillis(maxWaitMs), meterRegistry);
     }
 }
@@ -0,0 +1,49 @@
+package com.finapp.backend.config.migration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// import jobs were added after Hibernate stopped managing the schema, so legacy databases never got their tables
+public class DepositImportJobTableUpgrade implements SchemaUpgradeStep {
+
+    @Override
+    public String description() {
+        return "create deposit_import_job and deposit_import_job_error tables";
+    }
+
+    @Override
+    public boolean isPending(JdbcTemplate jdbcTemplate) {
+        return !tableExists(jdbcTemplate, "deposit_import_job") || !tableExists(jdbcTemplate, "deposit_import_job_error");
+    }
+
+    @Override
+    public void apply(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS deposit_import_job (
+                    id BINARY(16) NOT NULL PRIMARY KEY,
+                    user_id BINARY(16) NOT NULL,
+                    fund_box_id BINARY(16) NOT NULL,
+                    file_name VARCHAR(255) NOT NULL,
+                    format VARCHAR(255) NOT NULL,
+                    status VARCHAR(32) NOT NULL,
+                    total_bytes BIGINT NOT NULL,
+                    processed_bytes BIGINT NOT NULL,
+                    imported_rows BIGINT NOT NULL,
+                    failed_rows BIGINT NOT NULL,
+                    failure_reason VARCHAR(255) NULL,
+                    created_at DATETIME(6) NOT NULL,
+                    finished_at DATETIME(6) NULL,
+                    INDEX idx_deposit_import_job_user (user_id)
+                )
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS deposit_import_job_error (
+                    job_id BINARY(16) NOT NULL,
+                    position INT NOT NULL,
+                    line_number BIGINT NOT NULL,
+                    message VARCHAR(255) NOT NULL,
+                    PRIMARY KEY (job_id, position),
+                    CONSTRAINT fk_deposit_import_job_error_job FOREIGN KEY (job_id) REFERENCES deposit_import_job (id)
+                )
+                """);
+    }
+}
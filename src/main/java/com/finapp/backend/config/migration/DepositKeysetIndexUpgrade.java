@@ -0,0 +1,32 @@
+package com.finapp.backend.config.migration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+// the keyset pages over (date desc, id desc) would otherwise sort every deposit of the user or box
+public class DepositKeysetIndexUpgrade implements SchemaUpgradeStep {
+
+    private static final Map<String, String> INDEXES = Map.of(
+            "idx_deposit_user_date_id", "(user_id, date, id)",
+            "idx_deposit_fund_box_date_id", "(fund_box_id, date, id)"
+    );
+
+    @Override
+    public String description() {
+        return "create deposit keyset pagination indexes";
+    }
+
+    @Override
+    public boolean isPending(JdbcTemplate jdbcTemplate) {
+        return INDEXES.keySet().stream().anyMatch(index -> !indexExists(jdbcTemplate, "deposit", index));
+    }
+
+    @Override
+    public void apply(JdbcTemplate jdbcTemplate) {
+        INDEXES.forEach((index, columns) -> {
+            if (!indexExists(jdbcTemplate, "deposit", index))
+                jdbcTemplate.execute("CREATE INDEX " + index + " ON deposit " + columns);
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.finapp.backend.config.migration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// creates fund_box_balance ahead of Hibernate, existing balances are folded into slot 0
+public class FundBoxBalanceTableUpgrade implements SchemaUpgradeStep {
+
+    private static final String TABLE = "fund_box_balance";
+
+    @Override
+    public String description() {
+        return "create and backfill fund_box_balance";
+    }
+
+    @Override
+    public boolean isPending(JdbcTemplate jdbcTemplate) {
+        return !tableExists(jdbcTemplate, TABLE);
+    }
+
+    @Override
+    public void apply(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS fund_box_balance (
+                    fund_box_id CHAR(36) NOT NULL,
+                    slot INT NOT NULL,
+                    entry_total DECIMAL(38,2) NOT NULL,
+                    exit_total DECIMAL(38,2) NOT NULL,
+                    PRIMARY KEY (fund_box_id, slot)
+                )
+                """);
+
+        if (!tableExists(jdbcTemplate, "deposit"))
+            return;
+
+        jdbcTemplate.update("""
+                INSERT IGNORE INTO fund_box_balance (fund_box_id, slot, entry_total, exit_total)
+                SELECT fund_box_id, 0,
+                       SUM(CASE WHEN transaction_type = 'ENTRY' THEN amount ELSE 0 END),
+                       SUM(CASE WHEN transaction_type = 'EXIT' THEN amount ELSE 0 END)
+                FROM deposit WHERE fund_box_id IS NOT NULL GROUP BY fund_box_id
+                """);
+    }
+}
@@ -0,0 +1,34 @@
+package com.finapp.backend.config.migration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public interface SchemaUpgradeStep {
+
+    String description();
+
+    boolean isPending(JdbcTemplate jdbcTemplate);
+
+    // must be safe to re-run after a partial failure, MySQL DDL is not transactional
+    void apply(JdbcTemplate jdbcTemplate);
+
+    default boolean tableExists(JdbcTemplate jdbcTemplate, String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    default boolean columnExists(JdbcTemplate jdbcTemplate, String table, String column) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?",
+                Integer.class, table, column);
+        return count != null && count > 0;
+    }
+
+    default boolean indexExists(JdbcTemplate jdbcTemplate, String table, String index) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?",
+                Integer.class, table, index);
+        return count != null && count > 0;
+    }
+}
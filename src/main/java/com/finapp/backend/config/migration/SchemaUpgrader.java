@@ -0,0 +1,47 @@
+package com.finapp.backend.config.migration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/** Brings a database last maintained by Hibernate's ddl update up to the Flyway baseline. */
+@Slf4j
+@RequiredArgsConstructor
+public class SchemaUpgrader {
+
+    // every table of V1__baseline_schema.sql
+    private static final List<String> BASELINE_TABLES = List.of(
+            "users", "fund_box", "fund_box_collaborators", "fund_box_invitation", "deposit", "user_tokens",
+            "login_attempt", "password_reset_token", "user_balance", "fund_box_balance", "shared_counter",
+            "deposit_import_job", "deposit_import_job_error"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<SchemaUpgradeStep> steps;
+
+    public void upgradeLegacySchema() {
+        if (!tableExists("users") || tableExists("flyway_schema_history"))
+            return;
+
+        for (SchemaUpgradeStep step : steps) {
+            if (!step.isPending(jdbcTemplate))
+                continue;
+
+            log.info("Applying schema upgrade: {}", step.description());
+            step.apply(jdbcTemplate);
+        }
+
+        List<String> missing = BASELINE_TABLES.stream().filter(table -> !tableExists(table)).toList();
+        if (!missing.isEmpty())
+            throw new IllegalStateException("Legacy schema does not match the Flyway baseline, missing tables: " + missing);
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                Integer.class, table);
+        return count != null && count > 0;
+    }
+}
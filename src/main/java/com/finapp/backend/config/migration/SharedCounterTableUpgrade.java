@@ -0,0 +1,32 @@
+package com.finapp.backend.config.migration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// backing table of JdbcCounterStore, written through plain JDBC upserts rather than an entity
+public class SharedCounterTableUpgrade implements SchemaUpgradeStep {
+
+    private static final String TABLE = "shared_counter";
+
+    @Override
+    public String description() {
+        return "create shared_counter table";
+    }
+
+    @Override
+    public boolean isPending(JdbcTemplate jdbcTemplate) {
+        return !tableExists(jdbcTemplate, TABLE);
+    }
+
+    @Override
+    public void apply(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS shared_counter (
+                    counter_key CHAR(64) NOT NULL PRIMARY KEY,
+                    count BIGINT NOT NULL,
+                    updated_at BIGINT NOT NULL,
+                    expires_at BIGINT NOT NULL,
+                    INDEX idx_shared_counter_expires_at (expires_at)
+                )
+                """);
+    }
+}
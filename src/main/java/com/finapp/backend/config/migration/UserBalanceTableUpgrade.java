@@ -0,0 +1,45 @@
+package com.finapp.backend.config.migration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// creates user_balance ahead of Hibernate so existing deposits can be folded in before any delta is applied
+public class UserBalanceTableUpgrade implements SchemaUpgradeStep {
+
+    private static final String TABLE = "user_balance";
+
+    @Override
+    public String description() {
+        return "create and backfill user_balance";
+    }
+
+    @Override
+    public boolean isPending(JdbcTemplate jdbcTemplate) {
+        return !tableExists(jdbcTemplate, TABLE);
+    }
+
+    @Override
+    public void apply(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS user_balance (
+                    user_id CHAR(36) NOT NULL PRIMARY KEY,
+                    entry_total DECIMAL(38,2) NOT NULL,
+                    exit_total DECIMAL(38,2) NOT NULL,
+                    deposit_count BIGINT NOT NULL,
+                    version BIGINT NOT NULL,
+                    updated_at DATETIME(6) NOT NULL
+                )
+                """);
+
+        if (!tableExists(jdbcTemplate, "deposit"))
+            return;
+
+        jdbcTemplate.update("""
+                INSERT IGNORE INTO user_balance (user_id, entry_total, exit_total, deposit_count, version, updated_at)
+                SELECT user_id,
+                       SUM(CASE WHEN transaction_type = 'ENTRY' THEN amount ELSE 0 END),
+                       SUM(CASE WHEN transaction_type = 'EXIT' THEN amount ELSE 0 END),
+                       COUNT(*), 1, NOW(6)
+                FROM deposit GROUP BY user_id
+                """);
+    }
+}
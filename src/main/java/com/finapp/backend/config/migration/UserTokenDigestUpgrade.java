@@ -0,0 +1,41 @@
+package com.finapp.backend.config.migration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// replaces the raw access_token/refresh_token columns of user_tokens by indexed SHA-256 digests
+public class UserTokenDigestUpgrade implements SchemaUpgradeStep {
+
+    private static final String TABLE = "user_tokens";
+
+    @Override
+    public String description() {
+        return "store user_tokens as SHA-256 token digests";
+    }
+
+    @Override
+    public boolean isPending(JdbcTemplate jdbcTemplate) {
+        return tableExists(jdbcTemplate, TABLE) && columnExists(jdbcTemplate, TABLE, "access_token");
+    }
+
+    @Override
+    public void apply(JdbcTemplate jdbcTemplate) {
+        if (!columnExists(jdbcTemplate, TABLE, "access_token_hash"))
+            jdbcTemplate.execute("ALTER TABLE user_tokens ADD COLUMN access_token_hash CHAR(64) NULL, ADD COLUMN refresh_token_hash CHAR(64) NULL");
+
+        // MySQL SHA2 returns lowercase hex, the same format TokenDigest produces
+        jdbcTemplate.update("UPDATE user_tokens SET access_token_hash = SHA2(access_token, 256), refresh_token_hash = SHA2(refresh_token, 256) WHERE access_token_hash IS NULL");
+
+        // legacy tokens had no jti, identical tokens issued within the same second would share a digest
+        jdbcTemplate.update("DELETE older FROM user_tokens older JOIN user_tokens newer ON newer.access_token_hash = older.access_token_hash AND newer.id > older.id");
+        jdbcTemplate.update("DELETE older FROM user_tokens older JOIN user_tokens newer ON newer.refresh_token_hash = older.refresh_token_hash AND newer.id > older.id");
+
+        jdbcTemplate.execute("ALTER TABLE user_tokens MODIFY COLUMN access_token_hash CHAR(64) NOT NULL, MODIFY COLUMN refresh_token_hash CHAR(64) NOT NULL");
+
+        if (!indexExists(jdbcTemplate, TABLE, "uk_user_tokens_access_token_hash"))
+            jdbcTemplate.execute("CREATE UNIQUE INDEX uk_user_tokens_access_token_hash ON user_tokens (access_token_hash)");
+        if (!indexExists(jdbcTemplate, TABLE, "uk_user_tokens_refresh_token_hash"))
+            jdbcTemplate.execute("CREATE UNIQUE INDEX uk_user_tokens_refresh_token_hash ON user_tokens (refresh_token_hash)");
+
+        jdbcTemplate.execute("ALTER TABLE user_tokens DROP COLUMN access_token, DROP COLUMN refresh_token");
+    }
+}
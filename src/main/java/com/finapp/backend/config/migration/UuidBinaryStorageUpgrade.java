@@ -0,0 +1,114 @@
+package com.finapp.backend.config.migration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/** Converts every UUID column from CHAR(36) to BINARY(16), resuming an interrupted run. */
+public class UuidBinaryStorageUpgrade implements SchemaUpgradeStep {
+
+    private static final Map<String, List<String>> UUID_COLUMNS = Map.ofEntries(
+            Map.entry("users", List.of("id")),
+            Map.entry("fund_box", List.of("id", "owner_id")),
+            Map.entry("deposit", List.of("id", "user_id", "fund_box_id")),
+            Map.entry("fund_box_collaborators", List.of("id", "user_id", "fund_box_id")),
+            Map.entry("fund_box_invitation", List.of("id", "fund_box_id", "inviter_id", "invitee_id")),
+            Map.entry("user_tokens", List.of("id", "user_id")),
+            Map.entry("login_attempt", List.of("id")),
+            Map.entry("password_reset_token", List.of("id")),
+            Map.entry("user_balance", List.of("user_id")),
+            Map.entry("fund_box_balance", List.of("fund_box_id")),
+            Map.entry("deposit_import_job", List.of("id", "user_id", "fund_box_id")),
+            Map.entry("deposit_import_job_error", List.of("job_id"))
+    );
+
+    private record ForeignKey(String name, String table, String column, String referencedTable) {
+    }
+
+    private static final List<ForeignKey> FOREIGN_KEYS = List.of(
+            new ForeignKey("fk_fund_box_owner", "fund_box", "owner_id", "users"),
+            new ForeignKey("fk_fund_box_collaborators_user", "fund_box_collaborators", "user_id", "users"),
+            new ForeignKey("fk_fund_box_collaborators_fund_box", "fund_box_collaborators", "fund_box_id", "fund_box"),
+            new ForeignKey("fk_fund_box_invitation_fund_box", "fund_box_invitation", "fund_box_id", "fund_box"),
+            new ForeignKey("fk_fund_box_invitation_inviter", "fund_box_invitation", "inviter_id", "users"),
+            new ForeignKey("fk_fund_box_invitation_invitee", "fund_box_invitation", "invitee_id", "users"),
+            new ForeignKey("fk_deposit_user", "deposit", "user_id", "users"),
+            new ForeignKey("fk_deposit_fund_box", "deposit", "fund_box_id", "fund_box"),
+            new ForeignKey("fk_user_tokens_user", "user_tokens", "user_id", "users"),
+            new ForeignKey("fk_deposit_import_job_error_job", "deposit_import_job_error", "job_id", "deposit_import_job")
+    );
+
+    @Override
+    public String description() {
+        return "store UUID columns as BINARY(16)";
+    }
+
+    @Override
+    public boolean isPending(JdbcTemplate jdbcTemplate) {
+        return UUID_COLUMNS.entrySet().stream()
+                .anyMatch(table -> table.getValue().stream()
+                        .anyMatch(column -> isTextual(jdbcTemplate, table.getKey(), column)))
+                || FOREIGN_KEYS.stream().anyMatch(foreignKey -> isMissing(jdbcTemplate, foreignKey));
+    }
+
+    @Override
+    public void apply(JdbcTemplate jdbcTemplate) {
+        dropForeignKeys(jdbcTemplate);
+
+        UUID_COLUMNS.forEach((table, columns) -> {
+            for (String column : columns) {
+                if (!isTextual(jdbcTemplate, table, column))
+                    continue;
+
+                String nullability = isNullable(jdbcTemplate, table, column) ? "NULL" : "NOT NULL";
+                jdbcTemplate.execute("ALTER TABLE " + table + " MODIFY " + column + " VARBINARY(36) " + nullability);
+                jdbcTemplate.update("UPDATE " + table + " SET " + column + " = UUID_TO_BIN(" + column + ") WHERE LENGTH(" + column + ") = 36");
+                jdbcTemplate.execute("ALTER TABLE " + table + " MODIFY " + column + " BINARY(16) " + nullability);
+            }
+        });
+
+        for (ForeignKey foreignKey : FOREIGN_KEYS) {
+            if (isMissing(jdbcTemplate, foreignKey))
+                jdbcTemplate.execute("ALTER TABLE " + foreignKey.table() + " ADD CONSTRAINT " + foreignKey.name()
+                        + " FOREIGN KEY (" + foreignKey.column() + ") REFERENCES " + foreignKey.referencedTable() + " (id)");
+        }
+    }
+
+    private void dropForeignKeys(JdbcTemplate jdbcTemplate) {
+        String tables = String.join(",", UUID_COLUMNS.keySet().stream().map(table -> "'" + table + "'").toList());
+        List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList("""
+                SELECT DISTINCT TABLE_NAME, CONSTRAINT_NAME FROM information_schema.KEY_COLUMN_USAGE
+                WHERE TABLE_SCHEMA = DATABASE() AND REFERENCED_TABLE_NAME IS NOT NULL
+                  AND (TABLE_NAME IN (%s) OR REFERENCED_TABLE_NAME IN (%s))
+                """.formatted(tables, tables));
+
+        for (Map<String, Object> foreignKey : foreignKeys)
+            jdbcTemplate.execute("ALTER TABLE " + foreignKey.get("TABLE_NAME") + " DROP FOREIGN KEY " + foreignKey.get("CONSTRAINT_NAME"));
+    }
+
+    // any constraint on the column counts, databases upgraded under Hibernate keep its generated names
+    private boolean isMissing(JdbcTemplate jdbcTemplate, ForeignKey foreignKey) {
+        if (!tableExists(jdbcTemplate, foreignKey.table()))
+            return false;
+
+        Integer count = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.KEY_COLUMN_USAGE
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ? AND REFERENCED_TABLE_NAME = ?
+                """, Integer.class, foreignKey.table(), foreignKey.column(), foreignKey.referencedTable());
+        return count == null || count == 0;
+    }
+
+    private boolean isTextual(JdbcTemplate jdbcTemplate, String table, String column) {
+        List<String> types = jdbcTemplate.queryForList(
+                "SELECT DATA_TYPE FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?",
+                String.class, table, column);
+        return !types.isEmpty() && List.of("char", "varchar", "varbinary").contains(types.getFirst());
+    }
+
+    private boolean isNullable(JdbcTemplate jdbcTemplate, String table, String column) {
+        return "YES".equals(jdbcTemplate.queryForObject(
+                "SELECT IS_NULLABLE FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?",
+                String.class, table, column));
+    }
+}
@@ -0,0 +1,14 @@
+package com.finapp.backend.domain.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+public class FundBoxMembershipChangedEvent {
+
+    private final Collection<UUID> userIds;
+}
@@ -0,0 +1,27 @@
+package com.finapp.backend.domain.listener;
+
+import com.finapp.backend.domain.event.FundBoxMembershipChangedEvent;
+import com.finapp.backend.security.FundBoxMembershipIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class FundBoxMembershipListener {
+
+    private final FundBoxMembershipIndex membershipIndex;
+
+    // written in the transaction that changes the membership, so other nodes never see one without the other
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void recordChange(FundBoxMembershipChangedEvent event) {
+        membershipIndex.recordChange(event.getUserIds());
+    }
+
+    // evicting before commit would let a concurrent request reload the old memberships
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void evict(FundBoxMembershipChangedEvent event) {
+        membershipIndex.evict(event.getUserIds());
+    }
+}
@@ -0,0 +1,38 @@
+package com.finapp.backend.domain.listener;
+
+import com.finapp.backend.domain.event.PasswordChangedEvent;
+import com.finapp.backend.domain.event.UserUpdatedEvent;
+import com.finapp.backend.security.UserPrincipalCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class UserPrincipalCacheListener {
+
+    private final UserPrincipalCache principalCache;
+
+    // written in the transaction that changes the user, so other nodes never see one without the other
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void recordPasswordChange(PasswordChangedEvent event) {
+        principalCache.recordChange(event.getUser().getEmail());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void recordUserChange(UserUpdatedEvent event) {
+        principalCache.recordChange(event.getUser().getEmail());
+    }
+
+    // evicting before commit would let a concurrent request reload the old principal
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void evictAfterPasswordChange(PasswordChangedEvent event) {
+        principalCache.evict(event.getUser().getEmail());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void evictAfterUserChange(UserUpdatedEvent event) {
+        principalCache.evict(event.getUser().getEmail());
+    }
+}
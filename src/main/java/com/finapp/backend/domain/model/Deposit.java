@@ -1,10 +1,10 @@
 package com.finapp.backend.domain.model;
 
 import com.finapp.backend.domain.model.enums.TransactionType;
+import com.finapp.backend.domain.model.id.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.GenericGenerator;
-import org.hibernate.annotations.JdbcType;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -16,14 +16,16 @@ import java.util.UUID;
 @ToString(exclude = {"user", "fundBox"})
 @EqualsAndHashCode(exclude = {"user", "fundBox"})
 @Entity
-@Table(name = "deposit")
+@Table(name = "deposit", indexes = {
+        @Index(name = "idx_deposit_user_date_id", columnList = "user_id, date, id"),
+        @Index(name = "idx_deposit_fund_box_date_id", columnList = "fund_box_id, date, id")
+})
 public class Deposit {
 
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
-    @JdbcType(org.hibernate.type.descriptor.jdbc.CharJdbcType.class)
-    @Column(updatable = false, nullable = false, columnDefinition = "CHAR(36)")
+    @GenericGenerator(name = "UUID", type = UuidV7Generator.class)
+    @Column(updatable = false, nullable = false, columnDefinition = "BINARY(16)")
     private UUID id;
 
     @Column(nullable = false)
@@ -38,11 +40,11 @@ public class Deposit {
     @Column(nullable = false)
     private TransactionType transactionType;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "fund_box_id")
     private FundBox fundBox;
 
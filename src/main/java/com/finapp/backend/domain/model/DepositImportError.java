@@ -0,0 +1,20 @@
+package com.finapp.backend.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepositImportError {
+
+    @Column(nullable = false)
+    private long lineNumber;
+
+    @Column(nullable = false)
+    private String message;
+}
@@ -0,0 +1,63 @@
+package com.finapp.backend.domain.model;
+
+import com.finapp.backend.domain.model.enums.ImportJobStatus;
+import com.finapp.backend.domain.model.id.UuidV7Generator;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// user and fund box are plain ids, a finished job must not hold a fund box back from deletion
+@Entity
+@Table(name = "deposit_import_job", indexes = @Index(name = "idx_deposit_import_job_user", columnList = "user_id"))
+@Data
+public class DepositImportJob {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", type = UuidV7Generator.class)
+    @Column(updatable = false, nullable = false, columnDefinition = "BINARY(16)")
+    private UUID id;
+
+    @Column(name = "user_id", updatable = false, nullable = false, columnDefinition = "BINARY(16)")
+    private UUID userId;
+
+    @Column(name = "fund_box_id", updatable = false, nullable = false, columnDefinition = "BINARY(16)")
+    private UUID fundBoxId;
+
+    // the node holding the upload, which fails the job if it restarts before finishing it
+    @Column(name = "node_id")
+    private String nodeId;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private String format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportJobStatus status;
+
+    private long totalBytes;
+    private long processedBytes;
+    private long importedRows;
+    private long failedRows;
+
+    private String failureReason;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime finishedAt;
+
+    // only the first rows that failed are kept, failedRows holds the full count
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "deposit_import_job_error", joinColumns = @JoinColumn(name = "job_id"))
+    @OrderColumn(name = "position")
+    private List<DepositImportError> errors = new ArrayList<>();
+}
@@ -1,12 +1,13 @@
 package com.finapp.backend.domain.model;
 
+import com.finapp.backend.domain.model.id.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.GenericGenerator;
-import org.hibernate.annotations.JdbcType;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -18,15 +19,14 @@ import java.util.UUID;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@ToString(exclude = {"owner", "collaborators", "deposits"})
-@EqualsAndHashCode(exclude = {"owner", "collaborators", "deposits"})
+@ToString(exclude = {"owner", "members", "deposits"})
+@EqualsAndHashCode(exclude = {"owner", "members", "deposits"})
 public class FundBox {
 
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
-    @JdbcType(org.hibernate.type.descriptor.jdbc.CharJdbcType.class)
-    @Column(updatable = false, nullable = false, columnDefinition = "CHAR(36)")
+    @GenericGenerator(name = "UUID", type = UuidV7Generator.class)
+    @Column(updatable = false, nullable = false, columnDefinition = "BINARY(16)")
     private UUID id;
 
     @Column(nullable = false)
@@ -38,13 +38,20 @@ public class FundBox {
     @Column(nullable = false)
     private LocalDate targetDate;
 
-    @ManyToOne(optional = false)
+    // set once deletion starts, the box is invisible from then on until its rows are purged
+    private LocalDateTime deletionRequestedAt;
+
+    // claimed by FundBoxDeletionService for the duration of a purge
+    private LocalDateTime purgeStartedAt;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     private User owner;
 
-    @OneToMany(mappedBy = "fundBox", cascade = CascadeType.ALL, orphanRemoval = true)
+    // deposits outlive their box, FundBoxDeletionService unlinks them in chunks
+    @OneToMany(mappedBy = "fundBox")
     private List<Deposit> deposits;
 
     @OneToMany(mappedBy = "fundBox", cascade = CascadeType.ALL, orphanRemoval = true)
-    private Set<FundBoxCollaborator> collaborators;
+    private Set<FundBoxMember> members;
 }
@@ -0,0 +1,44 @@
+package com.finapp.backend.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// one stripe of a fund box's running balance, the balance is the sum over all slots of the box
+@Entity
+@Table(name = "fund_box_balance")
+@IdClass(FundBoxBalanceSlot.Key.class)
+@Data
+public class FundBoxBalanceSlot {
+
+    @Id
+    @Column(name = "fund_box_id", updatable = false, nullable = false, columnDefinition = "BINARY(16)")
+    private UUID fundBoxId;
+
+    @Id
+    @Column(updatable = false, nullable = false)
+    private int slot;
+
+    @Column(nullable = false)
+    private BigDecimal entryTotal;
+
+    @Column(nullable = false)
+    private BigDecimal exitTotal;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID fundBoxId;
+        private int slot;
+    }
+}
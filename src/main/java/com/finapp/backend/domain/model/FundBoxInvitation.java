@@ -1,33 +1,36 @@
 package com.finapp.backend.domain.model;
 
 import com.finapp.backend.domain.model.enums.InvitationStatus;
+import com.finapp.backend.domain.model.id.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.hibernate.annotations.GenericGenerator;
-import org.hibernate.annotations.JdbcType;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Data
+@ToString(exclude = {"fundBox", "inviter", "invitee"})
+@EqualsAndHashCode(exclude = {"fundBox", "inviter", "invitee"})
 public class FundBoxInvitation {
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
-    @JdbcType(org.hibernate.type.descriptor.jdbc.CharJdbcType.class)
-    @Column(updatable = false, nullable = false, columnDefinition = "CHAR(36)")
+    @GenericGenerator(name = "UUID", type = UuidV7Generator.class)
+    @Column(updatable = false, nullable = false, columnDefinition = "BINARY(16)")
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "fund_box_id")
     private FundBox fundBox;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "inviter_id")
     private User inviter;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "invitee_id")
     private User invitee;
 
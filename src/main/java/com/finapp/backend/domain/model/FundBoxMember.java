@@ -1,15 +1,16 @@
 package com.finapp.backend.domain.model;
 
+import com.finapp.backend.domain.model.enums.FundBoxRole;
+import com.finapp.backend.domain.model.id.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.GenericGenerator;
-import org.hibernate.annotations.JdbcType;
 
 import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
-@Table(name = "fund_box_collaborators", uniqueConstraints = {
+@Table(name = "fund_box_member", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"fund_box_id", "user_id"})
 })
 @Data
@@ -17,13 +18,13 @@ import java.util.UUID;
 @AllArgsConstructor
 @ToString(exclude = {"user", "fundBox"})
 @EqualsAndHashCode(exclude = {"user", "fundBox"})
-public class FundBoxCollaborator {
+// every user with access to a box, the owner included, so access checks and listings need a single lookup
+public class FundBoxMember {
 
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
-    @JdbcType(org.hibernate.type.descriptor.jdbc.CharJdbcType.class)
-    @Column(updatable = false, nullable = false, columnDefinition = "CHAR(36)")
+    @GenericGenerator(name = "UUID", type = UuidV7Generator.class)
+    @Column(updatable = false, nullable = false, columnDefinition = "BINARY(16)")
     private UUID id;
 
     @ManyToOne(optional = false)
@@ -34,6 +35,10 @@ public class FundBoxCollaborator {
     @JoinColumn(name = "fund_box_id")
     private FundBox fundBox;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private FundBoxRole role = FundBoxRole.COLLABORATOR;
+
     @Column(nullable = false)
     private LocalDate joinedAt = LocalDate.now();
 }
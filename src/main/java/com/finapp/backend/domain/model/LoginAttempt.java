@@ -1,9 +1,9 @@
 package com.finapp.backend.domain.model;
 
+import com.finapp.backend.domain.model.id.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.GenericGenerator;
-import org.hibernate.annotations.JdbcType;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -17,9 +17,8 @@ import java.util.UUID;
 public class LoginAttempt {
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
-    @JdbcType(org.hibernate.type.descriptor.jdbc.CharJdbcType.class)
-    @Column(updatable = false, nullable = false, columnDefinition = "CHAR(36)")
+    @GenericGenerator(name = "UUID", type = UuidV7Generator.class)
+    @Column(updatable = false, nullable = false, columnDefinition = "BINARY(16)")
     private UUID id;
 
     @Column(nullable = false)
@@ -0,0 +1,38 @@
+package com.finapp.backend.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// running totals of a user's deposits, written only through UserBalanceRepository's delta upserts
+@Entity
+@Table(name = "user_balance")
+@Data
+public class UserBalance {
+
+    @Id
+    @Column(name = "user_id", updatable = false, nullable = false, columnDefinition = "BINARY(16)")
+    private UUID userId;
+
+    @Column(nullable = false)
+    private BigDecimal entryTotal;
+
+    @Column(nullable = false)
+    private BigDecimal exitTotal;
+
+    @Column(nullable = false)
+    private long depositCount;
+
+    // bumped on every change
+    @Column(nullable = false)
+    private long version;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
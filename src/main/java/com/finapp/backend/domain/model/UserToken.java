@@ -1,34 +1,37 @@
 package com.finapp.backend.domain.model;
 
+import com.finapp.backend.domain.model.id.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.GenericGenerator;
-import org.hibernate.annotations.JdbcType;
 
 import java.util.Date;
 import java.util.UUID;
 
 @Data
 @Entity
-@Table(name = "user_tokens")
+@Table(name = "user_tokens", indexes = {
+        @Index(name = "uk_user_tokens_access_token_hash", columnList = "access_token_hash", unique = true),
+        @Index(name = "uk_user_tokens_refresh_token_hash", columnList = "refresh_token_hash", unique = true)
+})
 public class UserToken {
 
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
-    @JdbcType(org.hibernate.type.descriptor.jdbc.CharJdbcType.class)
-    @Column(updatable = false, nullable = false, columnDefinition = "CHAR(36)")
+    @GenericGenerator(name = "UUID", type = UuidV7Generator.class)
+    @Column(updatable = false, nullable = false, columnDefinition = "BINARY(16)")
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(nullable = false)
-    private String accessToken;
+    // SHA-256 hex digests, the raw tokens are never stored
+    @Column(name = "access_token_hash", nullable = false, columnDefinition = "CHAR(64)")
+    private String accessTokenHash;
 
-    @Column(nullable = false)
-    private String refreshToken;
+    @Column(name = "refresh_token_hash", nullable = false, columnDefinition = "CHAR(64)")
+    private String refreshTokenHash;
 
     @Column(name = "access_token_expiration", nullable = false)
     private Date accessTokenExpiration;
@@ -0,0 +1,6 @@
+package com.finapp.backend.domain.model.enums;
+
+public enum FundBoxRole {
+    OWNER,
+    COLLABORATOR
+}
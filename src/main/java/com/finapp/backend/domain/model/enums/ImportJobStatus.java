@@ -0,0 +1,8 @@
+package com.finapp.backend.domain.model.enums;
+
+public enum ImportJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
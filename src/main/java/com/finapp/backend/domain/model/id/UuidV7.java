@@ -0,0 +1,25 @@
+package com.finapp.backend.domain.model.id;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** RFC 9562 version 7 UUIDs, time-ordered so inserts append to the primary key. */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // last issued (millis << 12 | counter); a counter overflow borrows from the next millisecond
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long state = LAST.updateAndGet(previous -> now > previous ? now : previous + 1);
+
+        long mostSignificant = (state >>> 12) << 16 | 0x7000L | (state & 0xFFFL);
+        long leastSignificant = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -0,0 +1,39 @@
+package com.finapp.backend.domain.repository;
+
+import com.finapp.backend.domain.model.DepositImportJob;
+import com.finapp.backend.domain.model.enums.ImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface DepositImportJobRepository extends JpaRepository<DepositImportJob, UUID> {
+
+    Optional<DepositImportJob> findByIdAndUserId(UUID id, UUID userId);
+
+    // jobs created before node ids were recorded have none, and no node is running them anymore
+    @Query("""
+            SELECT j.id FROM DepositImportJob j
+            WHERE (j.nodeId = :nodeId OR j.nodeId IS NULL) AND j.status IN :statuses AND j.createdAt < :createdBefore
+            """)
+    List<UUID> findUnfinishedIds(@Param("nodeId") String nodeId,
+                                 @Param("statuses") Collection<ImportJobStatus> statuses,
+                                 @Param("createdBefore") LocalDateTime createdBefore);
+
+    @Modifying
+    @Query("""
+            UPDATE DepositImportJob j SET j.status = :failed, j.failureReason = :reason, j.finishedAt = :now
+            WHERE j.id IN :ids AND j.status IN :statuses
+            """)
+    int markFailed(@Param("ids") Collection<UUID> ids,
+                   @Param("statuses") Collection<ImportJobStatus> statuses,
+                   @Param("failed") ImportJobStatus failed,
+                   @Param("reason") String reason,
+                   @Param("now") LocalDateTime now);
+}
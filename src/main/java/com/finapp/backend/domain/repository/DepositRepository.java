@@ -2,21 +2,81 @@ package com.finapp.backend.domain.repository;
 
 import com.finapp.backend.domain.model.Deposit;
 import com.finapp.backend.domain.model.enums.TransactionType;
+import com.finapp.backend.domain.repository.projection.DepositView;
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface DepositRepository extends JpaRepository<Deposit, UUID> {
-    Page<Deposit> findByUserId(UUID userId, Pageable pageable);
-    Page<Deposit> findByUserIdAndTransactionTypeIn(UUID userId, List<TransactionType> transactionTypes, Pageable pageable);
+    // list endpoints read flat rows instead of entities, so a page costs one select whatever it references
+    String DEPOSIT_VIEW = """
+            SELECT new com.finapp.backend.domain.repository.projection.DepositView(
+                d.id, d.amount, d.date, d.description, d.transactionType, u.id, u.name, f.id, f.name)
+            FROM Deposit d JOIN d.user u LEFT JOIN d.fundBox f
+            """;
+
+    @Query(value = DEPOSIT_VIEW + "WHERE u.id = :userId AND d.transactionType IN :transactionTypes",
+            countQuery = "SELECT COUNT(d) FROM Deposit d WHERE d.user.id = :userId AND d.transactionType IN :transactionTypes")
+    Page<DepositView> findViewsByUserId(@Param("userId") UUID userId, @Param("transactionTypes") List<TransactionType> transactionTypes, Pageable pageable);
+
+    @Query(value = DEPOSIT_VIEW + "WHERE f.id = :fundBoxId",
+            countQuery = "SELECT COUNT(d) FROM Deposit d WHERE d.fundBox.id = :fundBoxId")
+    Page<DepositView> findViewsByFundBoxId(@Param("fundBoxId") UUID fundBoxId, Pageable pageable);
+
+    // keyset pages over (date desc, id desc), served by idx_deposit_user_date_id / idx_deposit_fund_box_date_id
+    @Query(DEPOSIT_VIEW + """
+            WHERE u.id = :userId AND d.transactionType IN :transactionTypes
+            ORDER BY d.date DESC, d.id DESC
+            """)
+    List<DepositView> findViewsByUserId(@Param("userId") UUID userId, @Param("transactionTypes") List<TransactionType> transactionTypes, Limit limit);
+
+    @Query(DEPOSIT_VIEW + """
+            WHERE u.id = :userId AND d.transactionType IN :transactionTypes
+              AND (d.date < :date OR (d.date = :date AND d.id < :id))
+            ORDER BY d.date DESC, d.id DESC
+            """)
+    List<DepositView> findViewsByUserIdAfter(@Param("userId") UUID userId, @Param("transactionTypes") List<TransactionType> transactionTypes,
+                                             @Param("date") LocalDate date, @Param("id") UUID id, Limit limit);
+
+    @Query(DEPOSIT_VIEW + """
+            WHERE f.id = :fundBoxId
+            ORDER BY d.date DESC, d.id DESC
+            """)
+    List<DepositView> findViewsByFundBoxId(@Param("fundBoxId") UUID fundBoxId, Limit limit);
+
+    @Query(DEPOSIT_VIEW + """
+            WHERE f.id = :fundBoxId
+              AND (d.date < :date OR (d.date = :date AND d.id < :id))
+            ORDER BY d.date DESC, d.id DESC
+            """)
+    List<DepositView> findViewsByFundBoxIdAfter(@Param("fundBoxId") UUID fundBoxId, @Param("date") LocalDate date, @Param("id") UUID id, Limit limit);
+
+    @Query(DEPOSIT_VIEW + "WHERE d.id IN :ids")
+    List<DepositView> findViewsByIds(@Param("ids") Collection<UUID> ids);
+
+    // forward-only exports, Integer.MIN_VALUE makes Connector/J stream rows instead of buffering the result set
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query(DEPOSIT_VIEW + "WHERE u.id = :userId ORDER BY d.date DESC, d.id DESC")
+    Stream<DepositView> streamViewsByUserId(@Param("userId") UUID userId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query(DEPOSIT_VIEW + "WHERE f.id = :fundBoxId ORDER BY d.date DESC, d.id DESC")
+    Stream<DepositView> streamViewsByFundBoxId(@Param("fundBoxId") UUID fundBoxId);
 
     @Query("SELECT COALESCE(SUM(d.amount), 0) FROM Deposit d WHERE d.fundBox.id = :fundBoxId AND d.transactionType = :transactionType")
     BigDecimal sumByFundBoxIdAndTransactionType(@Param("fundBoxId") UUID fundBoxId, @Param("transactionType") TransactionType transactionType);
@@ -24,11 +84,19 @@ public interface DepositRepository extends JpaRepository<Deposit, UUID> {
     @Query("SELECT COALESCE(SUM(d.amount), 0) FROM Deposit d WHERE d.user.id = :userId AND d.transactionType = :transactionType")
     BigDecimal sumByUserIdAndTransactionType(@Param("userId") UUID userId, @Param("transactionType") TransactionType transactionType);
 
-    Page<Deposit> findByFundBoxId(UUID fundBoxId, Pageable pageable);
+    long countByUserId(UUID userId);
+
+    long countByFundBoxId(UUID fundBoxId);
+
     List<Deposit> findByFundBoxId(UUID fundBoxId);
 
     @Transactional
     @Modifying
     @Query("UPDATE Deposit d SET d.fundBox = NULL WHERE d.user.id = :userId AND d.fundBox.id = :fundBoxId")
     void unsetFundBoxForUserDeposits(@Param("userId") UUID userId, @Param("fundBoxId") UUID fundBoxId);
+
+    // bounded so unlinking a large box never holds its row locks for long
+    @Modifying
+    @Query(value = "UPDATE deposit SET fund_box_id = NULL WHERE fund_box_id = UUID_TO_BIN(:fundBoxId) LIMIT :limit", nativeQuery = true)
+    int unsetFundBoxForDepositChunk(@Param("fundBoxId") String fundBoxId, @Param("limit") int limit);
 }
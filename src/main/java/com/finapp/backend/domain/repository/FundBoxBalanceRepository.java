@@ -0,0 +1,83 @@
+package com.finapp.backend.domain.repository;
+
+import com.finapp.backend.domain.model.FundBoxBalanceSlot;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface FundBoxBalanceRepository extends JpaRepository<FundBoxBalanceSlot, FundBoxBalanceSlot.Key> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO fund_box_balance (fund_box_id, slot, entry_total, exit_total)
+            VALUES (UUID_TO_BIN(:fundBoxId), :slot, :entryDelta, :exitDelta)
+            ON DUPLICATE KEY UPDATE
+                entry_total = entry_total + VALUES(entry_total),
+                exit_total = exit_total + VALUES(exit_total)
+            """, nativeQuery = true)
+    void applyDelta(@Param("fundBoxId") String fundBoxId,
+                    @Param("slot") int slot,
+                    @Param("entryDelta") BigDecimal entryDelta,
+                    @Param("exitDelta") BigDecimal exitDelta);
+
+    @Query(value = "SELECT COALESCE(SUM(entry_total - exit_total), 0) FROM fund_box_balance WHERE fund_box_id = UUID_TO_BIN(:fundBoxId)", nativeQuery = true)
+    BigDecimal sumBalance(@Param("fundBoxId") String fundBoxId);
+
+    // next-key locks on the box's key range also keep writers from adding a slot meanwhile
+    @Query(value = "SELECT slot FROM fund_box_balance WHERE fund_box_id = UUID_TO_BIN(:fundBoxId) FOR UPDATE", nativeQuery = true)
+    List<Integer> lockSlots(@Param("fundBoxId") String fundBoxId);
+
+    @Modifying
+    @Query(value = "DELETE FROM fund_box_balance WHERE fund_box_id = UUID_TO_BIN(:fundBoxId)", nativeQuery = true)
+    void deleteSlots(@Param("fundBoxId") String fundBoxId);
+
+    @Modifying
+    @Query(value = "DELETE FROM fund_box_balance_tree WHERE fund_box_id = UUID_TO_BIN(:fundBoxId)", nativeQuery = true)
+    void deleteTreeNodes(@Param("fundBoxId") String fundBoxId);
+
+    @Query(value = """
+            SELECT BIN_TO_UUID(t.fund_box_id) FROM (
+                SELECT fund_box_id,
+                       SUM(CASE WHEN transaction_type = 'ENTRY' THEN amount ELSE 0 END) AS entry_total,
+                       SUM(CASE WHEN transaction_type = 'EXIT' THEN amount ELSE 0 END) AS exit_total
+                FROM deposit WHERE fund_box_id IS NOT NULL GROUP BY fund_box_id
+            ) t
+            LEFT JOIN (
+                SELECT fund_box_id, SUM(entry_total) AS entry_total, SUM(exit_total) AS exit_total
+                FROM fund_box_balance GROUP BY fund_box_id
+            ) b ON b.fund_box_id = t.fund_box_id
+            WHERE b.fund_box_id IS NULL
+               OR b.entry_total <> t.entry_total
+               OR b.exit_total <> t.exit_total
+            UNION
+            SELECT BIN_TO_UUID(b.fund_box_id) FROM fund_box_balance b
+            WHERE (b.entry_total <> 0 OR b.exit_total <> 0)
+              AND NOT EXISTS (SELECT 1 FROM deposit d WHERE d.fund_box_id = b.fund_box_id)
+            UNION
+            SELECT BIN_TO_UUID(b.fund_box_id) FROM (
+                SELECT fund_box_id, SUM(entry_total - exit_total) AS balance
+                FROM fund_box_balance GROUP BY fund_box_id
+            ) b
+            LEFT JOIN (
+                SELECT fund_box_id, SUM(total) AS total
+                FROM fund_box_balance_tree WHERE node = 131072 GROUP BY fund_box_id
+            ) t ON t.fund_box_id = b.fund_box_id
+            WHERE COALESCE(t.total, 0) <> b.balance
+            """, nativeQuery = true)
+    List<String> findDriftedFundBoxIds();
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM fund_box_balance WHERE fund_box_id NOT IN (SELECT id FROM fund_box)", nativeQuery = true)
+    int deleteOrphans();
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM fund_box_balance_tree WHERE fund_box_id NOT IN (SELECT id FROM fund_box)", nativeQuery = true)
+    int deleteOrphanedTreeNodes();
+}
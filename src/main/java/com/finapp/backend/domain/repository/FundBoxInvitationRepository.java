@@ -4,9 +4,13 @@ import com.finapp.backend.domain.model.FundBox;
 import com.finapp.backend.domain.model.FundBoxInvitation;
 import com.finapp.backend.domain.model.User;
 import com.finapp.backend.domain.model.enums.InvitationStatus;
+import com.finapp.backend.domain.repository.projection.InviteView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -20,11 +24,24 @@ public interface FundBoxInvitationRepository extends JpaRepository<FundBoxInvita
 
     Optional<FundBoxInvitation> findById(UUID invitationId);
 
-    Page<FundBoxInvitation> findByInviter(User inviter, Pageable pageable);
+    String INVITE_VIEW = """
+            SELECT new com.finapp.backend.domain.repository.projection.InviteView(
+                i.id, f.id, f.name, sender.id, sender.name, receiver.id, receiver.name, i.status, i.invitationDate)
+            FROM FundBoxInvitation i JOIN i.fundBox f JOIN i.inviter sender JOIN i.invitee receiver
+            """;
 
-    Page<FundBoxInvitation> findByInvitee_Id(UUID inviteeId, Pageable pageable);
+    @Query(value = INVITE_VIEW + "WHERE sender.id = :inviterId",
+            countQuery = "SELECT COUNT(i) FROM FundBoxInvitation i WHERE i.inviter.id = :inviterId")
+    Page<InviteView> findByInviter_Id(@Param("inviterId") UUID inviterId, Pageable pageable);
 
-    List<FundBoxInvitation> findByFundBox_IdAndStatus(UUID fundBoxId, InvitationStatus status);
+    @Query(value = INVITE_VIEW + "WHERE receiver.id = :inviteeId",
+            countQuery = "SELECT COUNT(i) FROM FundBoxInvitation i WHERE i.invitee.id = :inviteeId")
+    Page<InviteView> findByInvitee_Id(@Param("inviteeId") UUID inviteeId, Pageable pageable);
 
-}
+    @Query(INVITE_VIEW + "WHERE f.id = :fundBoxId AND i.status = :status")
+    List<InviteView> findByFundBox_IdAndStatus(@Param("fundBoxId") UUID fundBoxId, @Param("status") InvitationStatus status);
 
+    @Modifying
+    @Query(value = "DELETE FROM fund_box_invitation WHERE fund_box_id = UUID_TO_BIN(:fundBoxId) LIMIT :limit", nativeQuery = true)
+    int deleteChunkByFundBoxId(@Param("fundBoxId") String fundBoxId, @Param("limit") int limit);
+}
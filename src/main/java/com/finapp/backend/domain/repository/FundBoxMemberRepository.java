@@ -0,0 +1,55 @@
+package com.finapp.backend.domain.repository;
+
+import com.finapp.backend.domain.model.FundBoxMember;
+import com.finapp.backend.domain.repository.projection.CollaboratorView;
+import com.finapp.backend.domain.repository.projection.Membership;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface FundBoxMemberRepository extends JpaRepository<FundBoxMember, UUID> {
+
+    @Query("""
+            SELECT new com.finapp.backend.domain.repository.projection.CollaboratorView(u.id, u.name, m.joinedAt)
+            FROM FundBoxMember m JOIN m.user u
+            WHERE m.fundBox.id = :fundBoxId
+              AND m.role = com.finapp.backend.domain.model.enums.FundBoxRole.COLLABORATOR
+            """)
+    List<CollaboratorView> findCollaboratorViews(@Param("fundBoxId") UUID fundBoxId);
+
+    @Query("""
+            SELECT new com.finapp.backend.domain.repository.projection.Membership(m.fundBox.id, m.role)
+            FROM FundBoxMember m
+            WHERE m.user.id = :userId AND m.fundBox.deletionRequestedAt IS NULL
+            """)
+    List<Membership> findMembershipsByUserId(@Param("userId") UUID userId);
+
+    // locks the membership and the box, so neither can be removed or marked for deletion before the caller commits
+    @Query(value = """
+            SELECT COUNT(*) FROM fund_box_member m JOIN fund_box f ON f.id = m.fund_box_id
+            WHERE m.user_id = UUID_TO_BIN(:userId) AND m.fund_box_id = UUID_TO_BIN(:fundBoxId)
+              AND f.deletion_requested_at IS NULL
+            FOR SHARE
+            """, nativeQuery = true)
+    long lockActiveMembership(@Param("userId") String userId, @Param("fundBoxId") String fundBoxId);
+
+    @Query("SELECT m.user.id FROM FundBoxMember m WHERE m.fundBox.id = :fundBoxId")
+    List<UUID> findUserIdsByFundBoxId(@Param("fundBoxId") UUID fundBoxId);
+
+    // the owner's membership is never removed this way
+    @Modifying
+    @Query("""
+            DELETE FROM FundBoxMember m
+            WHERE m.fundBox.id = :fundBoxId AND m.user.id = :userId
+              AND m.role = com.finapp.backend.domain.model.enums.FundBoxRole.COLLABORATOR
+            """)
+    int deleteCollaborator(@Param("fundBoxId") UUID fundBoxId, @Param("userId") UUID userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM fund_box_member WHERE fund_box_id = UUID_TO_BIN(:fundBoxId) LIMIT :limit", nativeQuery = true)
+    int deleteChunkByFundBoxId(@Param("fundBoxId") String fundBoxId, @Param("limit") int limit);
+}
@@ -1,34 +1,100 @@
 package com.finapp.backend.domain.repository;
 
 import com.finapp.backend.domain.model.FundBox;
+import com.finapp.backend.domain.repository.projection.FundBoxAccess;
+import com.finapp.backend.domain.repository.projection.FundBoxView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface FundBoxRepository extends JpaRepository<FundBox, UUID> {
+
+    // the balance is summed from the box's slots by primary key
+    String FUND_BOX_VIEW = """
+            SELECT new com.finapp.backend.domain.repository.projection.FundBoxView(
+                f.id, f.name, f.financialGoal, f.targetDate, o.id, o.name,
+                (SELECT COALESCE(SUM(s.entryTotal - s.exitTotal), 0) FROM FundBoxBalanceSlot s WHERE s.fundBoxId = f.id))
+            FROM FundBox f JOIN f.owner o
+            """;
+
     boolean existsByOwnerIdAndName(UUID ownerId, String name);
 
-    @Query("SELECT f FROM FundBox f WHERE f.owner.id = :userId OR :userId IN (SELECT fc.user.id FROM FundBoxCollaborator fc WHERE fc.fundBox.id = f.id)")
-    Page<FundBox> findByOwnerIdOrCollaboratorsContaining(@Param("userId") UUID userId, Pageable pageable);
+    // driven by the member's (user_id, fund_box_id) index
+    @Query(value = FUND_BOX_VIEW + """
+            JOIN FundBoxMember m ON m.fundBox = f
+            WHERE m.user.id = :userId AND f.deletionRequestedAt IS NULL
+            """,
+            countQuery = "SELECT COUNT(m) FROM FundBoxMember m WHERE m.user.id = :userId AND m.fundBox.deletionRequestedAt IS NULL")
+    Page<FundBoxView> findViewsByMemberId(@Param("userId") UUID userId, Pageable pageable);
+
+    Optional<FundBox> findByIdAndDeletionRequestedAtIsNull(UUID id);
+
+    boolean existsByIdAndDeletionRequestedAtIsNull(UUID id);
 
+    // access check, owner and balance in one round trip
+    @Query(FUND_BOX_VIEW + """
+            WHERE f.id = :fundBoxId
+              AND f.deletionRequestedAt IS NULL
+              AND EXISTS (SELECT 1 FROM FundBoxMember m WHERE m.fundBox.id = :fundBoxId AND m.user.id = :userId)
+            """)
+    Optional<FundBoxView> findViewByIdAndMemberId(@Param("fundBoxId") UUID fundBoxId, @Param("userId") UUID userId);
+
+    // one row per existing box, so missing ids and forbidden ones can be told apart
     @Query("""
-    SELECT f FROM FundBox f
-    WHERE f.id = :fundBoxId
-      AND (
-          f.owner.id = :userId OR
-          EXISTS (
-              SELECT 1 FROM FundBoxCollaborator fc
-              WHERE fc.fundBox.id = :fundBoxId AND fc.user.id = :userId
-          )
-      )
-    """)
-    Optional<FundBox> findByIdAndUserIsOwnerOrCollaborator(@Param("fundBoxId") UUID fundBoxId, @Param("userId") UUID userId);
+            SELECT new com.finapp.backend.domain.repository.projection.FundBoxAccess(
+                f.id,
+                CASE WHEN EXISTS (
+                    SELECT 1 FROM FundBoxMember m WHERE m.fundBox.id = f.id AND m.user.id = :userId
+                ) THEN true ELSE false END)
+            FROM FundBox f
+            WHERE f.id IN :fundBoxIds AND f.deletionRequestedAt IS NULL
+            """)
+    List<FundBoxAccess> findAccessByIds(@Param("fundBoxIds") Collection<UUID> fundBoxIds, @Param("userId") UUID userId);
+
+    // boxes marked here are hidden from every lookup above and left to FundBoxDeletionService
+    @Modifying
+    @Query("UPDATE FundBox f SET f.deletionRequestedAt = :now WHERE f.id = :fundBoxId AND f.deletionRequestedAt IS NULL")
+    int markForDeletion(@Param("fundBoxId") UUID fundBoxId, @Param("now") LocalDateTime now);
+
+    // boxes marked just now are usually being purged by the request that marked them
+    @Query("""
+            SELECT f.id FROM FundBox f
+            WHERE f.deletionRequestedAt < :markedBefore
+              AND (f.purgeStartedAt IS NULL OR f.purgeStartedAt < :claimedBefore)
+            """)
+    List<UUID> findIdsPendingDeletion(@Param("markedBefore") LocalDateTime markedBefore, @Param("claimedBefore") LocalDateTime claimedBefore);
+
+    // at most one purge runs per box, a claim older than claimedBefore was abandoned
+    @Modifying
+    @Query("""
+            UPDATE FundBox f SET f.purgeStartedAt = :now
+            WHERE f.id = :fundBoxId AND (f.purgeStartedAt IS NULL OR f.purgeStartedAt < :claimedBefore)
+            """)
+    int claimPurge(@Param("fundBoxId") UUID fundBoxId, @Param("now") LocalDateTime now, @Param("claimedBefore") LocalDateTime claimedBefore);
+
+    @Modifying
+    @Query("UPDATE FundBox f SET f.purgeStartedAt = NULL WHERE f.id = :fundBoxId")
+    int releasePurgeClaim(@Param("fundBoxId") UUID fundBoxId);
+
+    @Query("SELECT f.id FROM FundBox f WHERE f.owner.id IN :ownerIds")
+    List<UUID> findIdsByOwnerIds(@Param("ownerIds") Collection<UUID> ownerIds);
+
+    @Query("SELECT DISTINCT f.owner.id FROM FundBox f WHERE f.owner.id IN :ownerIds")
+    List<UUID> findOwnerIdsWithFundBoxes(@Param("ownerIds") Collection<UUID> ownerIds);
 
+    // bulk delete, skips the entity cascades
+    @Modifying
+    @Query("DELETE FROM FundBox f WHERE f.id = :fundBoxId")
+    int deleteRowById(@Param("fundBoxId") UUID fundBoxId);
 
     Page<FundBox> findByOwnerId(UUID ownerId, Pageable pageable);
     Optional<FundBox> findByIdAndOwnerId(UUID id, UUID ownerId);
@@ -5,11 +5,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 public interface LoginAttemptRepository extends JpaRepository<LoginAttempt, UUID> {
-    void deleteAllByIpAndEmail(String ip, String email);
-
-    Optional<LoginAttempt> findByIpAndUserAgentAndEmail(String ip, String userAgent, String email);
+    List<LoginAttempt> findByLastAttemptAtAfterOrBlockedUntilAfter(LocalDateTime lastAttemptAt, LocalDateTime blockedUntil);
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.finapp.backend.domain.repository;
+
+import com.finapp.backend.domain.model.UserBalance;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UserBalanceRepository extends JpaRepository<UserBalance, UUID> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_balance (user_id, entry_total, exit_total, deposit_count, version, updated_at)
+            VALUES (UUID_TO_BIN(:userId), :entryDelta, :exitDelta, :countDelta, 1, NOW(6))
+            ON DUPLICATE KEY UPDATE
+                entry_total = entry_total + VALUES(entry_total),
+                exit_total = exit_total + VALUES(exit_total),
+                deposit_count = deposit_count + VALUES(deposit_count),
+                version = version + 1,
+                updated_at = VALUES(updated_at)
+            """, nativeQuery = true)
+    void applyDelta(@Param("userId") String userId,
+                    @Param("entryDelta") BigDecimal entryDelta,
+                    @Param("exitDelta") BigDecimal exitDelta,
+                    @Param("countDelta") long countDelta);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_balance (user_id, entry_total, exit_total, deposit_count, version, updated_at)
+            VALUES (UUID_TO_BIN(:userId), :entryTotal, :exitTotal, :depositCount, 1, NOW(6))
+            ON DUPLICATE KEY UPDATE
+                entry_total = VALUES(entry_total),
+                exit_total = VALUES(exit_total),
+                deposit_count = VALUES(deposit_count),
+                version = version + 1,
+                updated_at = VALUES(updated_at)
+            """, nativeQuery = true)
+    void replaceTotals(@Param("userId") String userId,
+                       @Param("entryTotal") BigDecimal entryTotal,
+                       @Param("exitTotal") BigDecimal exitTotal,
+                       @Param("depositCount") long depositCount);
+
+    @Query(value = "SELECT BIN_TO_UUID(user_id) FROM user_balance WHERE user_id = UUID_TO_BIN(:userId) FOR UPDATE", nativeQuery = true)
+    Optional<String> lockByUserId(@Param("userId") String userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_balance_tree WHERE user_id = UUID_TO_BIN(:userId)", nativeQuery = true)
+    void deleteTreeNodes(@Param("userId") String userId);
+
+    // totals that differ from the deposits, or a tree root (node 131072, every day) that differs from the totals
+    @Query(value = """
+            SELECT BIN_TO_UUID(t.user_id) FROM (
+                SELECT user_id,
+                       SUM(CASE WHEN transaction_type = 'ENTRY' THEN amount ELSE 0 END) AS entry_total,
+                       SUM(CASE WHEN transaction_type = 'EXIT' THEN amount ELSE 0 END) AS exit_total,
+                       COUNT(*) AS deposit_count
+                FROM deposit GROUP BY user_id
+            ) t
+            LEFT JOIN user_balance b ON b.user_id = t.user_id
+            WHERE b.user_id IS NULL
+               OR b.entry_total <> t.entry_total
+               OR b.exit_total <> t.exit_total
+               OR b.deposit_count <> t.deposit_count
+            UNION
+            SELECT BIN_TO_UUID(b.user_id) FROM user_balance b
+            WHERE b.deposit_count <> 0
+              AND NOT EXISTS (SELECT 1 FROM deposit d WHERE d.user_id = b.user_id)
+            UNION
+            SELECT BIN_TO_UUID(b.user_id) FROM user_balance b
+            LEFT JOIN user_balance_tree t ON t.user_id = b.user_id AND t.node = 131072
+            WHERE COALESCE(t.total, 0) <> b.entry_total - b.exit_total
+            """, nativeQuery = true)
+    List<String> findDriftedUserIds();
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM user_balance WHERE user_id NOT IN (SELECT id FROM users)", nativeQuery = true)
+    int deleteOrphans();
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM user_balance_tree WHERE user_id NOT IN (SELECT id FROM users)", nativeQuery = true)
+    int deleteOrphanedTreeNodes();
+}
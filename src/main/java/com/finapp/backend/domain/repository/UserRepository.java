@@ -3,13 +3,22 @@ package com.finapp.backend.domain.repository;
 import com.finapp.backend.domain.model.User;
 import com.finapp.backend.domain.model.enums.UserStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
-    int deleteByStatusAndDeletionRequestedAtBefore(UserStatus status, LocalDateTime dateTime);
+
+    @Query("SELECT u.id FROM User u WHERE u.status = :status AND u.deletionRequestedAt < :dateTime")
+    List<UUID> findIdsByStatusAndDeletionRequestedAtBefore(@Param("status") UserStatus status, @Param("dateTime") LocalDateTime dateTime);
+
+    @Transactional
+    int deleteByIdAndStatusAndDeletionRequestedAtBefore(UUID id, UserStatus status, LocalDateTime dateTime);
 
 }
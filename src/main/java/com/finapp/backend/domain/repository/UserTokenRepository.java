@@ -1,25 +1,30 @@
 package com.finapp.backend.domain.repository;
 
-import com.finapp.backend.domain.model.User;
 import com.finapp.backend.domain.model.UserToken;
+import com.finapp.backend.domain.repository.projection.RevokedAccessToken;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserTokenRepository extends JpaRepository<UserToken, UUID> {
 
-    List<UserToken> findAllByUserAndRevokedFalse(User user);
+    List<UserToken> findAllByUser_IdAndRevokedFalse(UUID userId);
 
-    Optional<UserToken> findByRefreshTokenAndRevokedTrue(String refreshToken);
+    Optional<UserToken> findByRefreshTokenHashAndRevokedTrue(String refreshTokenHash);
 
     List<UserToken> findByRevokedFalse();
 
-    Optional<UserToken> findByRefreshTokenAndRevokedFalse(String refreshToken);
+    Optional<UserToken> findByRefreshTokenHashAndRevokedFalse(String refreshTokenHash);
 
-    Optional<UserToken> findByAccessTokenAndRevokedFalse(String accessToken);
+    Optional<UserToken> findByAccessTokenHashAndRevokedFalse(String accessTokenHash);
 
     Optional<UserToken> findByIdAndRevokedFalse(UUID sessionId);
 
+    List<RevokedAccessToken> findByRevokedTrueAndAccessTokenExpirationAfter(Date now);
+
+    List<RevokedAccessToken> findByRevokedTrueAndUpdatedAtAfterAndAccessTokenExpirationAfter(Date since, Date now);
+
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.finapp.backend.domain.repository.projection;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record CollaboratorView(
+        UUID userId,
+        String userName,
+        LocalDate joinedAt
+) {
+}
@@ -0,0 +1,21 @@
+package com.finapp.backend.domain.repository.projection;
+
+import com.finapp.backend.domain.model.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// flat row with exactly what DepositResponse needs, fundBoxId/fundBoxName are null for unlinked deposits
+public record DepositView(
+        UUID id,
+        BigDecimal amount,
+        LocalDate date,
+        String description,
+        TransactionType transactionType,
+        UUID userId,
+        String userName,
+        UUID fundBoxId,
+        String fundBoxName
+) {
+}
@@ -0,0 +1,9 @@
+package com.finapp.backend.domain.repository.projection;
+
+import java.util.UUID;
+
+public record FundBoxAccess(
+        UUID fundBoxId,
+        Boolean accessible
+) {
+}
@@ -0,0 +1,16 @@
+package com.finapp.backend.domain.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record FundBoxView(
+        UUID id,
+        String name,
+        BigDecimal financialGoal,
+        LocalDate targetDate,
+        UUID ownerId,
+        String ownerName,
+        BigDecimal balance
+) {
+}
@@ -0,0 +1,19 @@
+package com.finapp.backend.domain.repository.projection;
+
+import com.finapp.backend.domain.model.enums.InvitationStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record InviteView(
+        UUID id,
+        UUID fundBoxId,
+        String fundBoxName,
+        UUID inviterId,
+        String inviterName,
+        UUID inviteeId,
+        String inviteeName,
+        InvitationStatus status,
+        LocalDateTime invitationDate
+) {
+}
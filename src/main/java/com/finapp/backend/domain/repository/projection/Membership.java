@@ -0,0 +1,11 @@
+package com.finapp.backend.domain.repository.projection;
+
+import com.finapp.backend.domain.model.enums.FundBoxRole;
+
+import java.util.UUID;
+
+public record Membership(
+        UUID fundBoxId,
+        FundBoxRole role
+) {
+}
@@ -0,0 +1,8 @@
+package com.finapp.backend.domain.repository.projection;
+
+import java.util.Date;
+
+public interface RevokedAccessToken {
+    String getAccessTokenHash();
+    Date getAccessTokenExpiration();
+}
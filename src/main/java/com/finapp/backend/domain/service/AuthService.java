@@ -1,6 +1,5 @@
 package com.finapp.backend.domain.service;
 
-import com.finapp.backend.domain.model.LoginAttempt;
 import com.finapp.backend.domain.model.enums.UserStatus;
 import com.finapp.backend.domain.repository.LoginAttemptRepository;
 import com.finapp.backend.dto.auth.AuthResponse;
@@ -12,19 +11,24 @@ import com.finapp.backend.domain.model.User;
 import com.finapp.backend.domain.model.UserToken;
 import com.finapp.backend.domain.repository.UserRepository;
 import com.finapp.backend.domain.repository.UserTokenRepository;
+import com.finapp.backend.domain.event.UserUpdatedEvent;
+import com.finapp.backend.security.AuthenticatedUser;
 import com.finapp.backend.security.JwtUtil;
+import com.finapp.backend.security.TokenDigest;
+import com.finapp.backend.security.TokenRevocationIndex;
+import com.finapp.backend.security.VerifiedJwt;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.*;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.Date;
-import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -37,6 +41,8 @@ public class AuthService {
     private final UserTokenRepository userTokenRepository;
     private final UserDetailsService userDetailsService;
     private final LoginAttemptService loginAttemptService;
+    private final TokenRevocationIndex tokenRevocationIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AuthResponse register(RegisterRequest request, HttpServletRequest httpRequest) {
         if (userRepository.findByEmail(request.getEmail()).isPresent())
@@ -64,14 +70,17 @@ public class AuthService {
             user.setStatus(UserStatus.ACTIVE);
             user.setDeletionRequestedAt(null);
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserUpdatedEvent(user));
         }
 
         authenticateUser(loginRequest, httpRequest);
+        upgradePasswordHashIfNeeded(user, loginRequest.getPassword());
         return generateAndPersistTokens(user, httpRequest);
     }
 
     public AuthResponse refreshToken(String refreshToken) {
-        String username = jwtUtil.extractUsername(refreshToken);
+        VerifiedJwt verifiedRefreshToken = verifyRefreshToken(refreshToken);
+        String username = verifiedRefreshToken.subject();
         if (username == null)
             throw new ApiException(ApiErrorCode.INVALID_REFRESH_TOKEN);
 
@@ -80,14 +89,13 @@ public class AuthService {
 
         UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
-        validateRefreshToken(refreshToken, userDetails);
+        validateRefreshToken(verifiedRefreshToken, userDetails);
 
-        String newAccessToken = generateAccessTokenForUser(user);
-        Date newAccessTokenExpirationDate = jwtUtil.extractExpiration(newAccessToken);
+        VerifiedJwt newAccessToken = generateAccessTokenForUser(user);
 
-        updateAccessToken(refreshToken, newAccessToken, newAccessTokenExpirationDate);
+        updateAccessToken(refreshToken, newAccessToken);
 
-        return new AuthResponse(newAccessToken, newAccessTokenExpirationDate, refreshToken, jwtUtil.extractExpiration(refreshToken));
+        return new AuthResponse(newAccessToken.token(), newAccessToken.expiration(), refreshToken, verifiedRefreshToken.expiration());
     }
 
     private void authenticateUser(LoginRequest request, HttpServletRequest httpRequest) {
@@ -95,64 +103,73 @@ public class AuthService {
         String userAgent = httpRequest.getHeader("User-Agent");
         String email = request.getEmail();
 
-        LoginAttempt loginAttempt = loginAttemptService.getOrCreateLoginAttempt(ip, userAgent, email);
-
-        if (loginAttempt.getBlockedUntil() != null && loginAttempt.getBlockedUntil().isAfter(LocalDateTime.now())) {
-            long waitSeconds = Duration.between(LocalDateTime.now(), loginAttempt.getBlockedUntil()).getSeconds();
-            throw new ApiException(ApiErrorCode.TOO_MANY_LOGIN_ATTEMPTS, Map.of("Retry-After", String.valueOf(waitSeconds)));
-        }
+        loginAttemptService.checkNotBlocked(ip, userAgent, email);
 
         try {
             authenticateWithCredentials(request);
             loginAttemptService.clearLoginAttempts(ip, email);
         } catch (BadCredentialsException e) {
-            loginAttemptService.handleFailedLoginAttempt(loginAttempt);
+            loginAttemptService.handleFailedLoginAttempt(ip, userAgent, email);
         }
     }
 
+    // the raw password is only available here, so weaker or unprefixed hashes are replaced on a successful login
+    private void upgradePasswordHashIfNeeded(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPasswordHash()))
+            return;
+
+        user.setPasswordHash(passwordEncoder.encode(rawPassword));
+        userRepository.save(user);
+        eventPublisher.publishEvent(new UserUpdatedEvent(user));
+    }
+
     private void authenticateWithCredentials(LoginRequest request) {
         authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
     }
 
-    private String generateAccessTokenForUser(User user) {
+    private VerifiedJwt generateAccessTokenForUser(User user) {
         UserDetails userDetails = buildUserDetails(user);
         userRepository.save(user);
         return jwtUtil.generateToken(userDetails);
     }
 
-    private String generateRefreshTokenForUser(User user) {
+    private VerifiedJwt generateRefreshTokenForUser(User user) {
         UserDetails userDetails = buildUserDetails(user);
         return jwtUtil.generateRefreshToken(userDetails);
     }
 
     private UserDetails buildUserDetails(User user) {
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getEmail())
-                .password(user.getPasswordHash())
-                .roles("USER")
-                .accountLocked(
-                        user.getStatus() == UserStatus.DEACTIVATION_REQUESTED || user.getStatus() == UserStatus.LOCKED
-                )
-                .build();
+        return AuthenticatedUser.from(user);
     }
 
-    private void validateRefreshToken(String refreshToken, UserDetails userDetails) {
-        if (!jwtUtil.isTokenValid(refreshToken, userDetails))
-            throw new ApiException(ApiErrorCode.INVALID_REFRESH_TOKEN);
-        if (jwtUtil.isTokenExpired(refreshToken))
+    private VerifiedJwt verifyRefreshToken(String refreshToken) {
+        try {
+            return jwtUtil.verify(refreshToken);
+        } catch (ExpiredJwtException e) {
             throw new ApiException(ApiErrorCode.EXPIRED_REFRESH_TOKEN);
-        if (isRefreshTokenRevoked(refreshToken))
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new ApiException(ApiErrorCode.INVALID_REFRESH_TOKEN);
+        }
+    }
+
+    private void validateRefreshToken(VerifiedJwt refreshToken, UserDetails userDetails) {
+        if (!refreshToken.isRefreshToken() || !jwtUtil.isTokenValid(refreshToken, userDetails))
+            throw new ApiException(ApiErrorCode.INVALID_REFRESH_TOKEN);
+        if (isRefreshTokenRevoked(refreshToken.token()))
             throw new ApiException(ApiErrorCode.REVOKED_REFRESH_TOKEN);
     }
 
-    private void updateAccessToken(String refreshToken, String newAccessToken, Date newAccessTokenExpiration) {
-        UserToken userToken = userTokenRepository.findByRefreshTokenAndRevokedFalse(refreshToken)
+    private void updateAccessToken(String refreshToken, VerifiedJwt newAccessToken) {
+        UserToken userToken = userTokenRepository.findByRefreshTokenHashAndRevokedFalse(TokenDigest.sha256(refreshToken))
                 .orElseThrow(() -> new ApiException(ApiErrorCode.INVALID_REFRESH_TOKEN));
 
-        userToken.setAccessToken(newAccessToken);
-        userToken.setAccessTokenExpiration(newAccessTokenExpiration);
+        // the replaced access token must stop working as soon as the new one is issued, on every node
+        tokenRevocationIndex.revokeReplaced(userToken.getAccessTokenHash(), userToken.getAccessTokenExpiration());
+
+        userToken.setAccessTokenHash(newAccessToken.digest());
+        userToken.setAccessTokenExpiration(newAccessToken.expiration());
         userToken.setUpdatedAt(new Date());
         userToken.setRevoked(false);
 
@@ -160,29 +177,26 @@ public class AuthService {
     }
 
     private AuthResponse generateAndPersistTokens(User user, HttpServletRequest request) {
-        String accessToken = generateAccessTokenForUser(user);
-        String refreshToken = generateRefreshTokenForUser(user);
+        VerifiedJwt accessToken = generateAccessTokenForUser(user);
+        VerifiedJwt refreshToken = generateRefreshTokenForUser(user);
 
         saveTokens(user, accessToken, refreshToken, request);
 
         return new AuthResponse(
-                accessToken,
-                jwtUtil.extractExpiration(accessToken),
-                refreshToken,
-                jwtUtil.extractExpiration(refreshToken)
+                accessToken.token(),
+                accessToken.expiration(),
+                refreshToken.token(),
+                refreshToken.expiration()
         );
     }
 
-    private void saveTokens(User user, String accessToken, String refreshToken, HttpServletRequest request) {
-        Date accessTokenExpiration = jwtUtil.extractExpiration(accessToken);
-        Date refreshTokenExpiration = jwtUtil.extractExpiration(refreshToken);
-
+    private void saveTokens(User user, VerifiedJwt accessToken, VerifiedJwt refreshToken, HttpServletRequest request) {
         UserToken userToken = new UserToken();
         userToken.setUser(user);
-        userToken.setAccessToken(accessToken);
-        userToken.setRefreshToken(refreshToken);
-        userToken.setAccessTokenExpiration(accessTokenExpiration);
-        userToken.setRefreshTokenExpiration(refreshTokenExpiration);
+        userToken.setAccessTokenHash(accessToken.digest());
+        userToken.setRefreshTokenHash(refreshToken.digest());
+        userToken.setAccessTokenExpiration(accessToken.expiration());
+        userToken.setRefreshTokenExpiration(refreshToken.expiration());
         userToken.setRevoked(false);
         userToken.setCreatedAt(new Date());
         userToken.setUpdatedAt(new Date());
@@ -197,7 +211,7 @@ public class AuthService {
     }
 
     public boolean isRefreshTokenRevoked(String refreshToken) {
-        return userTokenRepository.findByRefreshTokenAndRevokedTrue(refreshToken).isPresent();
+        return userTokenRepository.findByRefreshTokenHashAndRevokedTrue(TokenDigest.sha256(refreshToken)).isPresent();
     }
 
 }
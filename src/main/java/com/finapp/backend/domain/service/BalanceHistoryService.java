@@ -0,0 +1,82 @@
+package com.finapp.backend.domain.service;
+
+import com.finapp.backend.domain.service.utils.FundBoxUtilService;
+import com.finapp.backend.domain.service.utils.UserUtilService;
+import com.finapp.backend.dto.deposit.BalanceInterval;
+import com.finapp.backend.dto.deposit.BalancePoint;
+import com.finapp.backend.exception.ApiErrorCode;
+import com.finapp.backend.exception.ApiException;
+import com.finapp.backend.security.AuthenticatedUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+@Service
+@RequiredArgsConstructor
+public class BalanceHistoryService {
+
+    private static final int MAX_STEPS = 366; // a year of daily points
+
+    private final BalanceService balanceService;
+    private final UserUtilService userUtilService;
+    private final FundBoxUtilService fundBoxManager;
+
+    public BalancePoint getUserBalance(AuthenticatedUser principal, LocalDate date) {
+        userUtilService.checkUserStatus(principal);
+        return points(principal.id(), List.of(dateOrToday(date)), balanceService::getUserBalancesAt).get(0);
+    }
+
+    public List<BalancePoint> getUserBalanceHistory(AuthenticatedUser principal, LocalDate from, LocalDate to, String interval) {
+        userUtilService.checkUserStatus(principal);
+        return points(principal.id(), dates(from, to, interval), balanceService::getUserBalancesAt);
+    }
+
+    public BalancePoint getFundBoxBalance(UUID fundBoxId, AuthenticatedUser principal, LocalDate date) {
+        userUtilService.checkUserStatus(principal);
+        fundBoxManager.checkAccess(fundBoxId, principal.id());
+        return points(fundBoxId, List.of(dateOrToday(date)), balanceService::getFundBoxBalancesAt).get(0);
+    }
+
+    public List<BalancePoint> getFundBoxBalanceHistory(UUID fundBoxId, AuthenticatedUser principal, LocalDate from, LocalDate to, String interval) {
+        userUtilService.checkUserStatus(principal);
+        fundBoxManager.checkAccess(fundBoxId, principal.id());
+        return points(fundBoxId, dates(from, to, interval), balanceService::getFundBoxBalancesAt);
+    }
+
+    private static List<BalancePoint> points(UUID ownerId, List<LocalDate> dates, BiFunction<UUID, List<LocalDate>, List<BigDecimal>> balancesAt) {
+        List<BigDecimal> balances = balancesAt.apply(ownerId, dates);
+        List<BalancePoint> points = new ArrayList<>(dates.size());
+        for (int i = 0; i < dates.size(); i++)
+            points.add(new BalancePoint(dates.get(i), balances.get(i)));
+        return points;
+    }
+
+    // from, every interval after it, and to itself when it falls between two steps
+    private static List<LocalDate> dates(LocalDate from, LocalDate to, String interval) {
+        LocalDate end = dateOrToday(to);
+        if (from == null || from.isAfter(end))
+            throw new ApiException(ApiErrorCode.INVALID_DATE_RANGE);
+
+        BalanceInterval step = BalanceInterval.of(interval);
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(end); date = step.step(from, dates.size())) {
+            if (dates.size() == MAX_STEPS)
+                throw new ApiException(ApiErrorCode.INVALID_DATE_RANGE);
+            dates.add(date);
+        }
+
+        if (!dates.get(dates.size() - 1).equals(end))
+            dates.add(end);
+        return dates;
+    }
+
+    private static LocalDate dateOrToday(LocalDate date) {
+        return date != null ? date : LocalDate.now();
+    }
+}
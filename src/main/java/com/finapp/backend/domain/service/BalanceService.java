@@ -0,0 +1,290 @@
+package com.finapp.backend.domain.service;
+
+import com.finapp.backend.domain.model.Deposit;
+import com.finapp.backend.domain.model.UserBalance;
+import com.finapp.backend.domain.model.enums.TransactionType;
+import com.finapp.backend.domain.repository.DepositRepository;
+import com.finapp.backend.domain.repository.FundBoxBalanceRepository;
+import com.finapp.backend.domain.repository.UserBalanceRepository;
+import com.finapp.backend.domain.service.utils.BalanceTree;
+import com.finapp.backend.dto.deposit.DepositSummaryResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/** Keeps the stored balance totals and as-of-date {@link BalanceTree}s in step with deposit writes. */
+@Service
+@RequiredArgsConstructor
+public class BalanceService {
+
+    // writers to one fund box spread over this many rows instead of contending on a single one
+    private static final int FUND_BOX_BALANCE_SLOTS = 8;
+
+    private static final String USER_TREE_UPSERT = """
+            INSERT INTO user_balance_tree (user_id, node, total) VALUES (UUID_TO_BIN(?), ?, ?)
+            ON DUPLICATE KEY UPDATE total = total + VALUES(total)
+            """;
+
+    private static final String FUND_BOX_TREE_UPSERT = """
+            INSERT INTO fund_box_balance_tree (fund_box_id, node, slot, total) VALUES (UUID_TO_BIN(?), ?, ?, ?)
+            ON DUPLICATE KEY UPDATE total = total + VALUES(total)
+            """;
+
+    private final UserBalanceRepository userBalanceRepository;
+    private final FundBoxBalanceRepository fundBoxBalanceRepository;
+    private final DepositRepository depositRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // the parts of a deposit that contribute to balances
+    public record Entry(UUID userId, UUID fundBoxId, TransactionType transactionType, BigDecimal amount, LocalDate date) {
+
+        public static Entry of(Deposit deposit) {
+            UUID fundBoxId = deposit.getFundBox() != null ? deposit.getFundBox().getId() : null;
+            return new Entry(deposit.getUser().getId(), fundBoxId, deposit.getTransactionType(), deposit.getAmount(), deposit.getDate());
+        }
+
+        BigDecimal net() {
+            return transactionType == TransactionType.EXIT ? amount.negate() : amount;
+        }
+    }
+
+    public DepositSummaryResponse getUserSummary(UUID userId) {
+        Optional<UserBalance> balance = userBalanceRepository.findById(userId);
+        BigDecimal entryTotal = balance.map(UserBalance::getEntryTotal).orElse(BigDecimal.ZERO);
+        BigDecimal exitTotal = balance.map(UserBalance::getExitTotal).orElse(BigDecimal.ZERO);
+        return new DepositSummaryResponse(entryTotal.subtract(exitTotal), entryTotal, exitTotal);
+    }
+
+    // balance at the end of each date, in the order given, from one read of the nodes all their query paths share
+    public List<BigDecimal> getUserBalancesAt(UUID userId, List<LocalDate> dates) {
+        return balancesAt("user_balance_tree", "user_id", userId, dates);
+    }
+
+    public List<BigDecimal> getFundBoxBalancesAt(UUID fundBoxId, List<LocalDate> dates) {
+        return balancesAt("fund_box_balance_tree", "fund_box_id", fundBoxId, dates);
+    }
+
+    // before is null for a new deposit, after is null for a deleted one
+    public record Change(Entry before, Entry after) {
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(Entry before, Entry after) {
+        recordChanges(List.of(new Change(before, after)));
+    }
+
+    // deltas are summed per user and per box first, so a batch costs one upsert per touched row
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(List<Change> changes) {
+        Map<UUID, Totals> userDeltas = new TreeMap<>();
+        Map<UUID, Totals> fundBoxDeltas = new TreeMap<>();
+
+        for (Change change : changes) {
+            Entry before = change.before();
+            Entry after = change.after();
+            UUID userId = after != null ? after.userId() : before.userId();
+            BigDecimal entryDelta = amountOf(after, TransactionType.ENTRY).subtract(amountOf(before, TransactionType.ENTRY));
+            BigDecimal exitDelta = amountOf(after, TransactionType.EXIT).subtract(amountOf(before, TransactionType.EXIT));
+            long countDelta = (after != null ? 1 : 0) - (before != null ? 1 : 0);
+            Totals userDelta = userDeltas.computeIfAbsent(userId, id -> new Totals());
+            userDelta.add(entryDelta, exitDelta, countDelta);
+            // a date change moves the deposit's whole amount between days, even when the totals stay put
+            userDelta.removeDaily(before);
+            userDelta.addDaily(after);
+
+            UUID fundBoxBefore = before != null ? before.fundBoxId() : null;
+            UUID fundBoxAfter = after != null ? after.fundBoxId() : null;
+            if (Objects.equals(fundBoxBefore, fundBoxAfter)) {
+                if (fundBoxAfter != null) {
+                    Totals fundBoxDelta = fundBoxDeltas.computeIfAbsent(fundBoxAfter, id -> new Totals());
+                    fundBoxDelta.add(entryDelta, exitDelta, 0);
+                    fundBoxDelta.removeDaily(before);
+                    fundBoxDelta.addDaily(after);
+                }
+                continue;
+            }
+
+            // moved between boxes: the whole old contribution leaves one box and the new one joins the other
+            if (fundBoxBefore != null) {
+                Totals fundBoxDelta = fundBoxDeltas.computeIfAbsent(fundBoxBefore, id -> new Totals());
+                fundBoxDelta.add(amountOf(before, TransactionType.ENTRY).negate(), amountOf(before, TransactionType.EXIT).negate(), 0);
+                fundBoxDelta.removeDaily(before);
+            }
+            if (fundBoxAfter != null) {
+                Totals fundBoxDelta = fundBoxDeltas.computeIfAbsent(fundBoxAfter, id -> new Totals());
+                fundBoxDelta.add(amountOf(after, TransactionType.ENTRY), amountOf(after, TransactionType.EXIT), 0);
+                fundBoxDelta.addDaily(after);
+            }
+        }
+
+        // sorted keys, totals before tree nodes: the same lock order as concurrent batches and rebuilds
+        userDeltas.forEach((userId, delta) -> {
+            Map<Integer, BigDecimal> nodes = BalanceTree.nodeDeltas(delta.daily);
+            if (!delta.isZero() || !nodes.isEmpty())
+                userBalanceRepository.applyDelta(userId.toString(), delta.entry, delta.exit, delta.count);
+            applyUserTreeDelta(userId, nodes);
+        });
+        fundBoxDeltas.forEach((fundBoxId, delta) -> applyFundBoxDelta(fundBoxId, delta.entry, delta.exit, BalanceTree.nodeDeltas(delta.daily)));
+    }
+
+    // must run before the deposits are bulk-unlinked, in the same transaction
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUserDepositsUnlinked(UUID userId, UUID fundBoxId) {
+        Totals unlinked = new Totals();
+        // locks the summed rows so none can join or leave the set before the caller unlinks them
+        jdbcTemplate.query("""
+                SELECT date, transaction_type, SUM(amount) AS total
+                FROM deposit WHERE user_id = UUID_TO_BIN(?) AND fund_box_id = UUID_TO_BIN(?)
+                GROUP BY date, transaction_type
+                FOR UPDATE
+                """, rs -> {
+            Entry entry = new Entry(userId, fundBoxId, TransactionType.valueOf(rs.getString("transaction_type")),
+                    rs.getBigDecimal("total"), rs.getObject("date", LocalDate.class));
+            unlinked.add(amountOf(entry, TransactionType.ENTRY).negate(), amountOf(entry, TransactionType.EXIT).negate(), 0);
+            unlinked.removeDaily(entry);
+        }, userId.toString(), fundBoxId.toString());
+
+        applyFundBoxDelta(fundBoxId, unlinked.entry, unlinked.exit, BalanceTree.nodeDeltas(unlinked.daily));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleteFundBoxBalance(UUID fundBoxId) {
+        fundBoxBalanceRepository.deleteSlots(fundBoxId.toString());
+        fundBoxBalanceRepository.deleteTreeNodes(fundBoxId.toString());
+    }
+
+    // the row lock orders this rebuild against in-flight deposit writes, which upsert the same row before committing
+    @Transactional
+    public void rebuildUserBalance(UUID userId) {
+        userBalanceRepository.lockByUserId(userId.toString());
+
+        BigDecimal entryTotal = Optional.ofNullable(depositRepository.sumByUserIdAndTransactionType(userId, TransactionType.ENTRY))
+                .orElse(BigDecimal.ZERO);
+        BigDecimal exitTotal = Optional.ofNullable(depositRepository.sumByUserIdAndTransactionType(userId, TransactionType.EXIT))
+                .orElse(BigDecimal.ZERO);
+        long depositCount = depositRepository.countByUserId(userId);
+
+        userBalanceRepository.replaceTotals(userId.toString(), entryTotal, exitTotal, depositCount);
+
+        userBalanceRepository.deleteTreeNodes(userId.toString());
+        applyUserTreeDelta(userId, BalanceTree.nodeDeltas(sumDaily("user_id", userId)));
+    }
+
+    @Transactional
+    public void rebuildFundBoxBalance(UUID fundBoxId) {
+        String id = fundBoxId.toString();
+        fundBoxBalanceRepository.lockSlots(id);
+
+        BigDecimal entryTotal = Optional.ofNullable(depositRepository.sumByFundBoxIdAndTransactionType(fundBoxId, TransactionType.ENTRY))
+                .orElse(BigDecimal.ZERO);
+        BigDecimal exitTotal = Optional.ofNullable(depositRepository.sumByFundBoxIdAndTransactionType(fundBoxId, TransactionType.EXIT))
+                .orElse(BigDecimal.ZERO);
+
+        fundBoxBalanceRepository.deleteSlots(id);
+        fundBoxBalanceRepository.applyDelta(id, 0, entryTotal, exitTotal);
+
+        fundBoxBalanceRepository.deleteTreeNodes(id);
+        applyFundBoxTreeDelta(fundBoxId, 0, BalanceTree.nodeDeltas(sumDaily("fund_box_id", fundBoxId)));
+    }
+
+    private void applyFundBoxDelta(UUID fundBoxId, BigDecimal entryDelta, BigDecimal exitDelta, Map<Integer, BigDecimal> nodes) {
+        if (entryDelta.signum() == 0 && exitDelta.signum() == 0 && nodes.isEmpty())
+            return;
+
+        int slot = ThreadLocalRandom.current().nextInt(FUND_BOX_BALANCE_SLOTS);
+        fundBoxBalanceRepository.applyDelta(fundBoxId.toString(), slot, entryDelta, exitDelta);
+        applyFundBoxTreeDelta(fundBoxId, slot, nodes);
+    }
+
+    private void applyUserTreeDelta(UUID userId, Map<Integer, BigDecimal> nodes) {
+        if (!nodes.isEmpty())
+            jdbcTemplate.batchUpdate(USER_TREE_UPSERT, nodes.entrySet().stream()
+                    .map(node -> new Object[]{userId.toString(), node.getKey(), node.getValue()})
+                    .toList());
+    }
+
+    private void applyFundBoxTreeDelta(UUID fundBoxId, int slot, Map<Integer, BigDecimal> nodes) {
+        if (!nodes.isEmpty())
+            jdbcTemplate.batchUpdate(FUND_BOX_TREE_UPSERT, nodes.entrySet().stream()
+                    .map(node -> new Object[]{fundBoxId.toString(), node.getKey(), slot, node.getValue()})
+                    .toList());
+    }
+
+    private Map<LocalDate, BigDecimal> sumDaily(String ownerColumn, UUID ownerId) {
+        Map<LocalDate, BigDecimal> daily = new HashMap<>();
+        jdbcTemplate.query("SELECT date, SUM(IF(transaction_type = 'ENTRY', amount, -amount)) AS total FROM deposit WHERE "
+                        + ownerColumn + " = UUID_TO_BIN(?) GROUP BY date",
+                rs -> {
+                    daily.put(rs.getObject("date", LocalDate.class), rs.getBigDecimal("total"));
+                }, ownerId.toString());
+        return daily;
+    }
+
+    private List<BigDecimal> balancesAt(String table, String ownerColumn, UUID ownerId, List<LocalDate> dates) {
+        List<Integer> days = dates.stream().map(BalanceTree::dayOf).toList();
+        Set<Integer> nodes = new TreeSet<>();
+        days.forEach(day -> nodes.addAll(BalanceTree.queryPath(day)));
+
+        List<Object> args = new ArrayList<>(nodes.size() + 1);
+        args.add(ownerId.toString());
+        args.addAll(nodes);
+
+        // fund box nodes are summed over their slots
+        Map<Integer, BigDecimal> totals = new HashMap<>();
+        jdbcTemplate.query("SELECT node, SUM(total) AS total FROM " + table + " WHERE " + ownerColumn + " = UUID_TO_BIN(?) AND node IN ("
+                        + nodes.stream().map(node -> "?").collect(Collectors.joining(", ")) + ") GROUP BY node",
+                rs -> {
+                    totals.put(rs.getInt("node"), rs.getBigDecimal("total"));
+                }, args.toArray());
+
+        return days.stream().map(day -> BalanceTree.balanceAt(day, totals)).toList();
+    }
+
+    private static final class Totals {
+        private BigDecimal entry = BigDecimal.ZERO;
+        private BigDecimal exit = BigDecimal.ZERO;
+        private long count;
+        private final Map<LocalDate, BigDecimal> daily = new HashMap<>();
+
+        void add(BigDecimal entryDelta, BigDecimal exitDelta, long countDelta) {
+            entry = entry.add(entryDelta);
+            exit = exit.add(exitDelta);
+            count += countDelta;
+        }
+
+        void addDaily(Entry entry) {
+            if (entry != null)
+                daily.merge(entry.date(), entry.net(), BigDecimal::add);
+        }
+
+        void removeDaily(Entry entry) {
+            if (entry != null)
+                daily.merge(entry.date(), entry.net().negate(), BigDecimal::add);
+        }
+
+        boolean isZero() {
+            return entry.signum() == 0 && exit.signum() == 0 && count == 0;
+        }
+    }
+
+    private static BigDecimal amountOf(Entry entry, TransactionType type) {
+        return entry != null && entry.transactionType() == type ? entry.amount() : BigDecimal.ZERO;
+    }
+}
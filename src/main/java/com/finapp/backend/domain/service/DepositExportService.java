@@ -0,0 +1,68 @@
+package com.finapp.backend.domain.service;
+
+import com.finapp.backend.domain.repository.DepositRepository;
+import com.finapp.backend.domain.repository.projection.DepositView;
+import com.finapp.backend.domain.service.utils.DepositExportWriter;
+import com.finapp.backend.domain.service.utils.FundBoxUtilService;
+import com.finapp.backend.domain.service.utils.UserUtilService;
+import com.finapp.backend.dto.deposit.DepositExportFormat;
+import com.finapp.backend.security.AuthenticatedUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/** Full deposit exports, streamed from the database straight to the response. */
+@Service
+@Slf4j
+public class DepositExportService {
+
+    private final DepositRepository depositRepository;
+    private final UserUtilService userUtilService;
+    private final FundBoxUtilService fundBoxManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public DepositExportService(DepositRepository depositRepository,
+                                UserUtilService userUtilService,
+                                FundBoxUtilService fundBoxManager,
+                                PlatformTransactionManager transactionManager) {
+        this.depositRepository = depositRepository;
+        this.userUtilService = userUtilService;
+        this.fundBoxManager = fundBoxManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public StreamingResponseBody exportUserDeposits(AuthenticatedUser principal, DepositExportFormat format) {
+        userUtilService.checkUserStatus(principal);
+        UUID userId = principal.id();
+        return stream(format, () -> depositRepository.streamViewsByUserId(userId));
+    }
+
+    public StreamingResponseBody exportFundBoxDeposits(UUID fundBoxId, AuthenticatedUser principal, DepositExportFormat format) {
+        userUtilService.checkUserStatus(principal);
+        fundBoxManager.checkAccess(fundBoxId, principal.id());
+        return stream(format, () -> depositRepository.streamViewsByFundBoxId(fundBoxId));
+    }
+
+    private StreamingResponseBody stream(DepositExportFormat format, Supplier<Stream<DepositView>> rows) {
+        return out -> {
+            long started = System.nanoTime();
+            long count = readOnlyTransaction.execute(status -> {
+                try (Stream<DepositView> stream = rows.get()) {
+                    return DepositExportWriter.write(format, stream.iterator(), out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.debug("Exported {} deposits as {} in {} ms", count, format, (System.nanoTime() - started) / 1_000_000);
+        };
+    }
+}
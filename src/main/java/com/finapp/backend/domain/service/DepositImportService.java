@@ -0,0 +1,294 @@
+package com.finapp.backend.domain.service;
+
+import com.finapp.backend.domain.model.Deposit;
+import com.finapp.backend.domain.model.DepositImportError;
+import com.finapp.backend.domain.model.DepositImportJob;
+import com.finapp.backend.domain.model.FundBox;
+import com.finapp.backend.domain.model.User;
+import com.finapp.backend.domain.model.enums.ImportJobStatus;
+import com.finapp.backend.domain.model.enums.TransactionType;
+import com.finapp.backend.domain.repository.DepositImportJobRepository;
+import com.finapp.backend.domain.repository.DepositRepository;
+import com.finapp.backend.domain.repository.FundBoxMemberRepository;
+import com.finapp.backend.domain.repository.FundBoxRepository;
+import com.finapp.backend.domain.repository.UserRepository;
+import com.finapp.backend.domain.service.imports.ImportBatch;
+import com.finapp.backend.domain.service.imports.StatementFormat;
+import com.finapp.backend.domain.service.imports.StatementRow;
+import com.finapp.backend.domain.service.utils.FundBoxUtilService;
+import com.finapp.backend.domain.service.utils.UserUtilService;
+import com.finapp.backend.dto.deposit.DepositImportResponse;
+import com.finapp.backend.exception.ApiErrorCode;
+import com.finapp.backend.exception.ApiException;
+import com.finapp.backend.security.AuthenticatedUser;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/** Bank statement imports, parsed in the background and written batch by batch. */
+@Service
+@Slf4j
+public class DepositImportService {
+
+    private static final int MAX_STORED_ERRORS = 100;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final Map<String, String> RETRY_AFTER = Map.of("Retry-After", "30");
+    private static final List<ImportJobStatus> UNFINISHED = List.of(ImportJobStatus.PENDING, ImportJobStatus.RUNNING);
+
+    private final DepositImportJobRepository jobRepository;
+    private final DepositRepository depositRepository;
+    private final UserRepository userRepository;
+    private final FundBoxRepository fundBoxRepository;
+    private final FundBoxMemberRepository fundBoxMemberRepository;
+    private final UserUtilService userUtilService;
+    private final FundBoxUtilService fundBoxManager;
+    private final BalanceService balanceService;
+    private final TransactionTemplate transaction;
+    private final Path storageDir;
+    private final int batchSize;
+    private final String nodeId;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final ThreadPoolExecutor executor;
+
+    public DepositImportService(DepositImportJobRepository jobRepository,
+                                DepositRepository depositRepository,
+                                UserRepository userRepository,
+                                FundBoxRepository fundBoxRepository,
+                                FundBoxMemberRepository fundBoxMemberRepository,
+                                UserUtilService userUtilService,
+                                FundBoxUtilService fundBoxManager,
+                                BalanceService balanceService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.imports.dir:${java.io.tmpdir}/finapp-imports}") String storageDir,
+                                @Value("${app.imports.workers:2}") int workers,
+                                @Value("${app.imports.queue-capacity:16}") int queueCapacity,
+                                @Value("${app.imports.batch-size:500}") int batchSize,
+                                @Value("${app.imports.node-id:${HOSTNAME:local}}") String nodeId) {
+        this.jobRepository = jobRepository;
+        this.depositRepository = depositRepository;
+        this.userRepository = userRepository;
+        this.fundBoxRepository = fundBoxRepository;
+        this.fundBoxMemberRepository = fundBoxMemberRepository;
+        this.userUtilService = userUtilService;
+        this.fundBoxManager = fundBoxManager;
+        this.balanceService = balanceService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.nodeId = nodeId;
+        this.storageDir = Path.of(storageDir);
+        try {
+            Files.createDirectories(this.storageDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create import directory " + storageDir, e);
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "deposit-import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    public DepositImportResponse startImport(AuthenticatedUser principal, UUID fundBoxId, MultipartFile file) {
+        userUtilService.checkUserStatus(principal);
+        fundBoxManager.checkAccess(fundBoxId, principal.id());
+        if (file == null || file.isEmpty())
+            throw new ApiException(ApiErrorCode.INVALID_IMPORT_FILE);
+        StatementFormat format = StatementFormat.ofFileName(file.getOriginalFilename());
+
+        DepositImportJob job = new DepositImportJob();
+        job.setUserId(principal.id());
+        job.setFundBoxId(fundBoxId);
+        job.setNodeId(nodeId);
+        job.setFileName(truncate(file.getOriginalFilename()));
+        job.setFormat(format.name());
+        job.setStatus(ImportJobStatus.PENDING);
+        job.setTotalBytes(file.getSize());
+        job.setCreatedAt(LocalDateTime.now());
+        jobRepository.save(job);
+
+        Path upload = storageDir.resolve(job.getId() + "." + format.extension());
+        try {
+            file.transferTo(upload);
+            executor.execute(() -> run(job.getId(), principal.id(), fundBoxId, format, upload));
+        } catch (IOException e) {
+            log.error("Could not store upload for import job {}", job.getId(), e);
+            discard(job, upload);
+            throw new ApiException(ApiErrorCode.INTERNAL_ERROR);
+        } catch (RejectedExecutionException e) {
+            discard(job, upload);
+            throw new ApiException(ApiErrorCode.SERVICE_UNAVAILABLE, RETRY_AFTER);
+        }
+
+        return toResponse(job);
+    }
+
+    public DepositImportResponse getImport(AuthenticatedUser principal, UUID jobId) {
+        userUtilService.checkUserStatus(principal);
+        return jobRepository.findByIdAndUserId(jobId, principal.id())
+                .map(this::toResponse)
+                .orElseThrow(() -> new ApiException(ApiErrorCode.IMPORT_JOB_NOT_FOUND));
+    }
+
+    // the worker queue does not survive a restart, so jobs this node had accepted before it will never finish
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedImports() {
+        List<UUID> interrupted = jobRepository.findUnfinishedIds(nodeId, UNFINISHED, startedAt);
+        if (interrupted.isEmpty())
+            return;
+
+        Integer failed = transaction.execute(status -> jobRepository.markFailed(interrupted, UNFINISHED, ImportJobStatus.FAILED,
+                "The import was interrupted by a server restart, rows imported so far were kept.", LocalDateTime.now()));
+        for (UUID jobId : interrupted)
+            for (StatementFormat format : StatementFormat.values())
+                deleteQuietly(storageDir.resolve(jobId + "." + format.extension()));
+
+        log.warn("Marked {} import jobs interrupted by a restart as failed", failed);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void run(UUID jobId, UUID userId, UUID fundBoxId, StatementFormat format, Path upload) {
+        updateJob(jobId, job -> job.setStatus(ImportJobStatus.RUNNING));
+        try (FileChannel channel = FileChannel.open(upload, StandardOpenOption.READ)) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ImportBatch batch = new ImportBatch(batchSize, MAX_STORED_ERRORS,
+                    (rows, errors, failedRows, processedOffset) -> writeBatch(jobId, userId, fundBoxId, rows, errors, failedRows, processedOffset));
+            format.parser().parse(data, batch);
+            batch.flush();
+
+            updateJob(jobId, job -> {
+                job.setStatus(ImportJobStatus.COMPLETED);
+                job.setProcessedBytes(job.getTotalBytes());
+                job.setFinishedAt(LocalDateTime.now());
+            });
+        } catch (ApiException e) {
+            log.warn("Import job {} stopped: {}", jobId, e.getErrorCode());
+            failJob(jobId, "Access to the fund box was lost during the import, rows imported so far were kept.");
+        } catch (IOException | RuntimeException e) {
+            log.error("Import job {} failed", jobId, e);
+            failJob(jobId, "The statement could not be processed, rows imported so far were kept.");
+        } finally {
+            deleteQuietly(upload);
+        }
+    }
+
+    // the deposits, their balance changes and the job's progress commit together, and only while the user still belongs to the box
+    private void writeBatch(UUID jobId, UUID userId, UUID fundBoxId, List<StatementRow> rows,
+                            List<DepositImportError> errors, long failedRows, int processedOffset) {
+        transaction.executeWithoutResult(status -> {
+            if (fundBoxMemberRepository.lockActiveMembership(userId.toString(), fundBoxId.toString()) == 0)
+                throw new ApiException(ApiErrorCode.FUND_BOX_NOT_FOUND);
+
+            User user = userRepository.getReferenceById(userId);
+            FundBox fundBox = fundBoxRepository.getReferenceById(fundBoxId);
+
+            List<Deposit> deposits = new ArrayList<>(rows.size());
+            List<BalanceService.Change> changes = new ArrayList<>(rows.size());
+            for (StatementRow row : rows) {
+                Deposit deposit = new Deposit();
+                deposit.setAmount(row.amount().abs());
+                deposit.setDate(row.date());
+                deposit.setDescription(truncate(row.description()));
+                deposit.setTransactionType(row.amount().signum() < 0 ? TransactionType.EXIT : TransactionType.ENTRY);
+                deposit.setUser(user);
+                deposit.setFundBox(fundBox);
+                deposits.add(deposit);
+                changes.add(new BalanceService.Change(null, BalanceService.Entry.of(deposit)));
+            }
+            depositRepository.saveAll(deposits);
+            balanceService.recordChanges(changes);
+
+            DepositImportJob job = jobRepository.findById(jobId).orElseThrow();
+            job.setImportedRows(job.getImportedRows() + rows.size());
+            job.setFailedRows(job.getFailedRows() + failedRows);
+            job.setProcessedBytes(Math.max(job.getProcessedBytes(), processedOffset));
+            job.getErrors().addAll(errors);
+        });
+    }
+
+    private void failJob(UUID jobId, String reason) {
+        updateJob(jobId, job -> {
+            job.setStatus(ImportJobStatus.FAILED);
+            job.setFailureReason(reason);
+            job.setFinishedAt(LocalDateTime.now());
+        });
+    }
+
+    private void updateJob(UUID jobId, Consumer<DepositImportJob> change) {
+        transaction.executeWithoutResult(status -> jobRepository.findById(jobId).ifPresent(change));
+    }
+
+    private void discard(DepositImportJob job, Path upload) {
+        jobRepository.delete(job);
+        deleteQuietly(upload);
+    }
+
+    private void deleteQuietly(Path upload) {
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}", upload, e);
+        }
+    }
+
+    private DepositImportResponse toResponse(DepositImportJob job) {
+        int progress = job.getStatus() == ImportJobStatus.COMPLETED ? 100
+                : job.getTotalBytes() > 0 ? (int) (job.getProcessedBytes() * 100 / job.getTotalBytes()) : 0;
+        return new DepositImportResponse(
+                job.getId(),
+                job.getFundBoxId(),
+                job.getFileName(),
+                job.getFormat(),
+                job.getStatus(),
+                progress,
+                job.getImportedRows(),
+                job.getFailedRows(),
+                job.getErrors().stream()
+                        .map(error -> new DepositImportResponse.RowError(error.getLineNumber(), error.getMessage()))
+                        .toList(),
+                job.getFailureReason(),
+                job.getCreatedAt(),
+                job.getFinishedAt()
+        );
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_TEXT_LENGTH ? value.substring(0, MAX_TEXT_LENGTH) : value;
+    }
+}
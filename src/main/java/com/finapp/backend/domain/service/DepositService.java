@@ -1,7 +1,12 @@
 package com.finapp.backend.domain.service;
 
+import com.finapp.backend.domain.service.utils.DepositCursor;
 import com.finapp.backend.domain.service.utils.UserUtilService;
+import com.finapp.backend.dto.deposit.CursorPage;
 import com.finapp.backend.dto.deposit.CreateDepositRequest;
+import com.finapp.backend.dto.deposit.DepositBatchOperation;
+import com.finapp.backend.dto.deposit.DepositBatchRequest;
+import com.finapp.backend.dto.deposit.DepositBatchResult;
 import com.finapp.backend.dto.deposit.DepositResponse;
 import com.finapp.backend.dto.deposit.DepositSummaryResponse;
 import com.finapp.backend.dto.deposit.UpdateDepositRequest;
@@ -16,17 +21,29 @@ import com.finapp.backend.domain.model.enums.TransactionType;
 import com.finapp.backend.domain.repository.DepositRepository;
 import com.finapp.backend.domain.repository.FundBoxRepository;
 import com.finapp.backend.domain.repository.UserRepository;
+import com.finapp.backend.domain.repository.projection.DepositView;
+import com.finapp.backend.security.AuthenticatedUser;
+import com.finapp.backend.security.FundBoxMembershipIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -36,19 +53,23 @@ public class DepositService {
     private final UserRepository userRepository;
     private final FundBoxRepository fundBoxRepository;
     private final UserUtilService userUtilService;
+    private final BalanceService balanceService;
+    private final FundBoxMembershipIndex membershipIndex;
 
-    public void createDeposit(String email, CreateDepositRequest request) {
-        User user = userUtilService.getActiveUserByEmail(email);
+    @Transactional
+    public void createDeposit(AuthenticatedUser principal, CreateDepositRequest request) {
+        User user = userUtilService.getActiveUserReference(principal);
         validateCreateRequest(request);
-        FundBox fundBox = (request.getFundBoxId() != null) ? validateAndGetFundBox(request.getFundBoxId(), email) : null;
+        FundBox fundBox = (request.getFundBoxId() != null) ? validateAndGetFundBox(request.getFundBoxId(), principal.id()) : null;
         Deposit deposit = createDepositFromRequest(request, user, fundBox);
         depositRepository.save(deposit);
+        balanceService.recordChange(null, BalanceService.Entry.of(deposit));
     }
 
 
-    public ResponseEntity<Page<DepositResponse>> listUserDeposits(String email, List<TransactionType> transactionTypes, Pageable pageable) {
-        User user = userUtilService.getActiveUserByEmail(email);
-        Page<Deposit> depositPage = getUserDeposits(user, transactionTypes, pageable);
+    public ResponseEntity<Page<DepositResponse>> listUserDeposits(AuthenticatedUser principal, List<TransactionType> transactionTypes, Pageable pageable) {
+        userUtilService.checkUserStatus(principal);
+        Page<DepositView> depositPage = depositRepository.findViewsByUserId(principal.id(), transactionTypesOrAll(transactionTypes), pageable);
         if (depositPage.isEmpty())
             return ResponseEntity.noContent().build();
 
@@ -56,78 +77,212 @@ public class DepositService {
         return ResponseEntity.ok(depositResponses);
     }
 
-    public DepositResponse getDepositById(UUID depositId, String email) {
-        User user = userUtilService.getActiveUserByEmail(email);
+    public CursorPage<DepositResponse> scrollUserDeposits(AuthenticatedUser principal, List<TransactionType> transactionTypes, String cursor, int size) {
+        userUtilService.checkUserStatus(principal);
+        List<TransactionType> types = transactionTypesOrAll(transactionTypes);
+        int pageSize = DepositCursor.pageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<DepositView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = depositRepository.findViewsByUserId(principal.id(), types, limit);
+        } else {
+            DepositCursor after = DepositCursor.decode(cursor);
+            rows = depositRepository.findViewsByUserIdAfter(principal.id(), types, after.date(), after.id(), limit);
+        }
+        return DepositCursor.toPage(rows, pageSize, this::mapToDepositResponse);
+    }
+
+    public DepositResponse getDepositById(UUID depositId, AuthenticatedUser principal) {
+        userUtilService.checkUserStatus(principal);
         Deposit deposit = depositRepository.findById(depositId)
                 .orElseThrow(() -> new ApiException(ApiErrorCode.DEPOSIT_NOT_FOUND));
-        validateDepositAccess(deposit, user);
+        validateDepositAccess(deposit, principal.id());
         return mapToDepositResponse(deposit);
     }
 
-    public DepositSummaryResponse getDepositSummary(String email) {
-        User user = userUtilService.getActiveUserByEmail(email);
-        BigDecimal entryTotal = calculateTotalForTransactionType(user, TransactionType.ENTRY);
-        BigDecimal exitTotal = calculateTotalForTransactionType(user, TransactionType.EXIT);
-        BigDecimal balance = entryTotal.subtract(exitTotal);
-        return new DepositSummaryResponse(balance, entryTotal, exitTotal);
+    public DepositSummaryResponse getDepositSummary(AuthenticatedUser principal) {
+        userUtilService.checkUserStatus(principal);
+        return balanceService.getUserSummary(principal.id());
     }
 
-    public DepositResponse updateDeposit(UUID depositId, String email, UpdateDepositRequest request) {
-        User user = userUtilService.getActiveUserByEmail(email);
+    @Transactional
+    public DepositResponse updateDeposit(UUID depositId, AuthenticatedUser principal, UpdateDepositRequest request) {
+        userUtilService.checkUserStatus(principal);
         Deposit deposit = depositRepository.findById(depositId)
                 .orElseThrow(() -> new ApiException(ApiErrorCode.DEPOSIT_NOT_FOUND));
-        validateDepositOwnership(deposit, user);
-        updateDepositField(deposit, request.getAmount(), request.getDate(), request.getTransactionType(), request.getDescription(), request.getFundBoxId(), email);
+        validateDepositOwnership(deposit, principal.id());
+        BalanceService.Entry before = BalanceService.Entry.of(deposit);
+        updateDepositField(deposit, request.getAmount(), request.getDate(), request.getTransactionType(), request.getDescription(), request.getFundBoxId(),
+                fundBoxId -> validateAndGetFundBox(fundBoxId, principal.id()));
         depositRepository.save(deposit);
+        balanceService.recordChange(before, BalanceService.Entry.of(deposit));
         return mapToDepositResponse(deposit);
     }
 
-    public void deleteDeposit(UUID depositId, String email) {
-        User user = userUtilService.getActiveUserByEmail(email);
+    @Transactional
+    public void deleteDeposit(UUID depositId, AuthenticatedUser principal) {
+        userUtilService.checkUserStatus(principal);
         Deposit deposit = depositRepository.findById(depositId)
                 .orElseThrow(() -> new ApiException(ApiErrorCode.DEPOSIT_NOT_FOUND));
-        validateDepositOwnership(deposit, user);
+        validateDepositOwnership(deposit, principal.id());
         depositRepository.delete(deposit);
+        balanceService.recordChange(BalanceService.Entry.of(deposit), null);
+    }
+
+    // fund boxes and deposits are resolved up front in one query each, writes go out as JDBC batches on flush
+    @Transactional
+    public List<DepositBatchResult> applyBatch(AuthenticatedUser principal, DepositBatchRequest request) {
+        User user = userUtilService.getActiveUserReference(principal);
+        List<DepositBatchOperation> operations = request.getOperations();
+
+        Set<UUID> fundBoxIds = new HashSet<>();
+        Set<UUID> depositIds = new HashSet<>();
+        for (DepositBatchOperation operation : operations) {
+            if (operation.getFundBoxId() != null)
+                fundBoxIds.add(operation.getFundBoxId());
+            if (operation.getDepositId() != null && operation.getAction() != DepositBatchOperation.Action.CREATE)
+                depositIds.add(operation.getDepositId());
+        }
+
+        Function<UUID, FundBox> fundBoxResolver = batchFundBoxResolver(fundBoxIds, principal.id());
+        Map<UUID, Deposit> deposits = new HashMap<>();
+        depositRepository.findAllById(depositIds).forEach(deposit -> deposits.put(deposit.getId(), deposit));
+
+        List<DepositBatchResult> results = new ArrayList<>(operations.size());
+        List<BalanceService.Change> changes = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            DepositBatchOperation operation = operations.get(i);
+            try {
+                results.add(switch (operation.getAction()) {
+                    case CREATE -> batchCreate(i, operation, user, fundBoxResolver, changes);
+                    case UPDATE -> batchUpdate(i, operation, principal.id(), deposits, fundBoxResolver, changes);
+                    case DELETE -> batchDelete(i, operation, principal.id(), deposits, changes);
+                });
+            } catch (ApiException e) {
+                results.add(new DepositBatchResult(i, operation.getAction(), operation.getDepositId(),
+                        e.getErrorCode().getHttpStatus().value(), e.getErrorCode().getCode()));
+            }
+        }
+
+        balanceService.recordChanges(changes);
+        return results;
     }
 
     // aux methods
-    private void validateFundBoxAccess(FundBox fundBox, String email) {
+    private DepositBatchResult batchCreate(int index, DepositBatchOperation operation, User user,
+                                           Function<UUID, FundBox> fundBoxResolver, List<BalanceService.Change> changes) {
+        validateAmount(operation.getAmount());
+        validateDate(operation.getDate());
+        validateTransactionType(operation.getTransactionType());
+        validateDescription(operation.getDescription());
+        FundBox fundBox = operation.getFundBoxId() != null ? fundBoxResolver.apply(operation.getFundBoxId()) : null;
+
+        Deposit deposit = new Deposit();
+        deposit.setAmount(operation.getAmount());
+        deposit.setDate(operation.getDate());
+        if (operation.getDescription() != null)
+            deposit.setDescription(operation.getDescription().trim());
+        deposit.setTransactionType(operation.getTransactionType());
+        deposit.setUser(user);
+        deposit.setFundBox(fundBox);
+        depositRepository.save(deposit);
+
+        changes.add(new BalanceService.Change(null, BalanceService.Entry.of(deposit)));
+        return new DepositBatchResult(index, operation.getAction(), deposit.getId(), HttpStatus.OK.value(), null);
+    }
+
+    // everything is checked before the entity is touched, a failed item must not leave it dirty for the flush
+    private DepositBatchResult batchUpdate(int index, DepositBatchOperation operation, UUID userId, Map<UUID, Deposit> deposits,
+                                           Function<UUID, FundBox> fundBoxResolver, List<BalanceService.Change> changes) {
+        Deposit deposit = getBatchDeposit(operation, userId, deposits);
+        if (operation.getAmount() != null) validateAmount(operation.getAmount());
+        if (operation.getDate() != null) validateDate(operation.getDate());
+        if (operation.getDescription() != null && !operation.getDescription().trim().isEmpty())
+            validateDescription(operation.getDescription());
+
+        UUID currentFundBoxId = deposit.getFundBox() != null ? deposit.getFundBox().getId() : null;
+        if (operation.getFundBoxId() != null && !operation.getFundBoxId().equals(currentFundBoxId))
+            fundBoxResolver.apply(operation.getFundBoxId());
+
+        BalanceService.Entry before = BalanceService.Entry.of(deposit);
+        updateDepositField(deposit, operation.getAmount(), operation.getDate(), operation.getTransactionType(), operation.getDescription(),
+                operation.getFundBoxId(), fundBoxResolver);
+
+        changes.add(new BalanceService.Change(before, BalanceService.Entry.of(deposit)));
+        return new DepositBatchResult(index, operation.getAction(), deposit.getId(), HttpStatus.OK.value(), null);
+    }
+
+    private DepositBatchResult batchDelete(int index, DepositBatchOperation operation, UUID userId, Map<UUID, Deposit> deposits,
+                                           List<BalanceService.Change> changes) {
+        Deposit deposit = getBatchDeposit(operation, userId, deposits);
+        deposits.remove(deposit.getId());
+        depositRepository.delete(deposit);
+
+        changes.add(new BalanceService.Change(BalanceService.Entry.of(deposit), null));
+        return new DepositBatchResult(index, operation.getAction(), deposit.getId(), HttpStatus.NO_CONTENT.value(), null);
+    }
+
+    private Deposit getBatchDeposit(DepositBatchOperation operation, UUID userId, Map<UUID, Deposit> deposits) {
+        Deposit deposit = operation.getDepositId() != null ? deposits.get(operation.getDepositId()) : null;
+        if (deposit == null)
+            throw new ApiException(ApiErrorCode.DEPOSIT_NOT_FOUND);
+        validateDepositOwnership(deposit, userId);
+        return deposit;
+    }
+
+    private Function<UUID, FundBox> batchFundBoxResolver(Set<UUID> fundBoxIds, UUID userId) {
+        Map<UUID, Boolean> access = new HashMap<>();
+        Set<UUID> unknown = new HashSet<>();
+        for (UUID fundBoxId : fundBoxIds) {
+            if (membershipIndex.isMember(userId, fundBoxId))
+                access.put(fundBoxId, true);
+            else
+                unknown.add(fundBoxId);
+        }
+
+        // only ids the user is not a member of need a query, to tell missing boxes from forbidden ones
+        if (!unknown.isEmpty())
+            fundBoxRepository.findAccessByIds(unknown, userId)
+                    .forEach(row -> access.put(row.fundBoxId(), row.accessible()));
+
+        return fundBoxId -> {
+            Boolean accessible = access.get(fundBoxId);
+            if (accessible == null)
+                throw new ApiException(ApiErrorCode.FUND_BOX_NOT_FOUND);
+            if (!accessible)
+                throw new ApiException(ApiErrorCode.UNAUTHORIZED_ACCESS);
+            return fundBoxRepository.getReferenceById(fundBoxId);
+        };
+    }
+
+    private void validateFundBoxAccess(FundBox fundBox, UUID userId) {
         if (fundBox == null) {
             throw new ApiException(ApiErrorCode.FUND_BOX_NOT_FOUND);
         }
 
-        boolean isOwner = fundBox.getOwner().getEmail().equals(email);
-        boolean isCollaborator = fundBox.getCollaborators().stream()
-                .anyMatch(collaborator -> collaborator.getUser().getEmail().equals(email));
-
-        if (!isOwner && !isCollaborator) {
+        if (!hasAccessToFundBox(fundBox, userId)) {
             throw new ApiException(ApiErrorCode.UNAUTHORIZED_ACCESS);
         }
     }
 
-    private void validateDepositAccess(Deposit deposit, User user) {
+    private void validateDepositAccess(Deposit deposit, UUID userId) {
         FundBox fundBox = deposit.getFundBox();
         if (fundBox != null) {
-            validateFundBoxAccess(fundBox, user.getEmail());
-        } else if (!deposit.getUser().getId().equals(user.getId())) {
+            validateFundBoxAccess(fundBox, userId);
+        } else if (!deposit.getUser().getId().equals(userId)) {
             throw new ApiException(ApiErrorCode.UNAUTHORIZED_ACCESS);
         }
     }
 
 
-    private void validateDepositOwnership(Deposit deposit, User user) {
-        if (!deposit.getUser().getId().equals(user.getId()))
+    private void validateDepositOwnership(Deposit deposit, UUID userId) {
+        if (!deposit.getUser().getId().equals(userId))
             throw new ApiException(ApiErrorCode.UNAUTHORIZED_ACCESS);
     }
 
-    private BigDecimal calculateTotalForTransactionType(User user, TransactionType type) {
-        return Optional.ofNullable(depositRepository.sumByUserIdAndTransactionType(user.getId(), type))
-                .orElse(BigDecimal.ZERO);
-    }
-
-    private boolean hasAccessToFundBox(FundBox fundBox, String email) {
-        return fundBox.getOwner().getEmail().equals(email) ||
-                fundBox.getCollaborators().stream().anyMatch(collaborator -> collaborator.getUser().getEmail().equals(email));
+    private boolean hasAccessToFundBox(FundBox fundBox, UUID userId) {
+        return membershipIndex.isMember(userId, fundBox.getId());
     }
 
     private Deposit createDepositFromRequest(CreateDepositRequest request, User user, FundBox fundBox) {
@@ -143,33 +298,31 @@ public class DepositService {
         return deposit;
     }
 
-    private FundBox validateAndGetFundBox(UUID fundBoxId, String email) {
+    private FundBox validateAndGetFundBox(UUID fundBoxId, UUID userId) {
         if (fundBoxId == null)
             throw new ApiException(ApiErrorCode.FUND_BOX_NOT_FOUND);
 
-        FundBox fundBox = fundBoxRepository.findById(fundBoxId)
-                .orElseThrow(() -> new ApiException(ApiErrorCode.FUND_BOX_NOT_FOUND));
+        // the deposit only needs the foreign key, so a member gets a reference without loading the box
+        if (membershipIndex.isMember(userId, fundBoxId))
+            return fundBoxRepository.getReferenceById(fundBoxId);
 
-        if (!hasAccessToFundBox(fundBox, email))
-            throw new ApiException(ApiErrorCode.UNAUTHORIZED_ACCESS);
-
-        return fundBox;
+        if (!fundBoxRepository.existsByIdAndDeletionRequestedAtIsNull(fundBoxId))
+            throw new ApiException(ApiErrorCode.FUND_BOX_NOT_FOUND);
+        throw new ApiException(ApiErrorCode.UNAUTHORIZED_ACCESS);
     }
 
-    private void updateDepositField(Deposit deposit, BigDecimal amount, LocalDate date, TransactionType transactionType, String description, UUID fundBoxId, String email) {
+    private void updateDepositField(Deposit deposit, BigDecimal amount, LocalDate date, TransactionType transactionType, String description, UUID fundBoxId, Function<UUID, FundBox> fundBoxResolver) {
         if (amount != null) updateAmount(deposit, amount);
         if (date != null) updateDate(deposit, date);
         if (transactionType != null) updateTransactionType(deposit, transactionType);
         if (description != null) updateDescription(deposit, description);
-        if (fundBoxId != null) updateFundBox(deposit, fundBoxId, email);
+        if (fundBoxId != null) updateFundBox(deposit, fundBoxId, fundBoxResolver);
     }
 
-    private Page<Deposit> getUserDeposits(User user, List<TransactionType> transactionTypes, Pageable pageable) {
-        if (transactionTypes == null || transactionTypes.isEmpty()) {
-            return depositRepository.findByUserId(user.getId(), pageable);
-        } else {
-            return depositRepository.findByUserIdAndTransactionTypeIn(user.getId(), transactionTypes, pageable);
-        }
+    private List<TransactionType> transactionTypesOrAll(List<TransactionType> transactionTypes) {
+        return (transactionTypes == null || transactionTypes.isEmpty())
+                ? Arrays.asList(TransactionType.values())
+                : transactionTypes;
     }
 
     private void validateCreateRequest(CreateDepositRequest request) {
@@ -231,7 +384,7 @@ public class DepositService {
         deposit.setDescription(description.trim());
     }
 
-    private void updateFundBox(Deposit deposit, UUID fundBoxId, String email) {
+    private void updateFundBox(Deposit deposit, UUID fundBoxId, Function<UUID, FundBox> fundBoxResolver) {
         if (fundBoxId == null) {
             deposit.setFundBox(null);
             return;
@@ -240,17 +393,7 @@ public class DepositService {
         if (deposit.getFundBox() != null && deposit.getFundBox().getId().equals(fundBoxId))
             return;
 
-        FundBox fundBox = fundBoxRepository.findById(fundBoxId)
-                .orElseThrow(() -> new ApiException(ApiErrorCode.FUND_BOX_NOT_FOUND));
-
-        boolean isOwner = fundBox.getOwner().getEmail().equals(email);
-        boolean isCollaborator = fundBox.getCollaborators().stream()
-                .anyMatch(collaborator -> collaborator.getUser().getEmail().equals(email));
-
-        if (!isOwner && !isCollaborator)
-            throw new ApiException(ApiErrorCode.UNAUTHORIZED_ACCESS);
-
-        deposit.setFundBox(fundBox);
+        deposit.setFundBox(fundBoxResolver.apply(fundBoxId));
     }
 
     private DepositResponse mapToDepositResponse(Deposit deposit) {
@@ -283,4 +426,22 @@ public class DepositService {
                 ownerResponse
         );
     }
-}
\ No newline at end of file
+
+    private DepositResponse mapToDepositResponse(DepositView deposit) {
+        FundBoxInfo fundBoxInfo = deposit.fundBoxId() != null
+                ? new FundBoxInfo(deposit.fundBoxId(), deposit.fundBoxName())
+                : null;
+
+        return new DepositResponse(
+                deposit.id(),
+                deposit.transactionType() == TransactionType.EXIT
+                        ? deposit.amount().negate()
+                        : deposit.amount(),
+                deposit.date(),
+                deposit.description(),
+                fundBoxInfo,
+                deposit.transactionType().toString(),
+                new OwnerResponse(deposit.userId(), deposit.userName())
+        );
+    }
+}
@@ -0,0 +1,158 @@
+package com.finapp.backend.domain.service;
+
+import com.finapp.backend.domain.repository.DepositRepository;
+import com.finapp.backend.domain.repository.projection.DepositView;
+import com.finapp.backend.domain.service.utils.DepositCursor;
+import com.finapp.backend.domain.service.utils.FundBoxUtilService;
+import com.finapp.backend.domain.service.utils.UserUtilService;
+import com.finapp.backend.dto.deposit.CursorPage;
+import com.finapp.backend.dto.deposit.DepositResponse;
+import com.finapp.backend.security.AuthenticatedUser;
+import com.finapp.backend.security.FundBoxMembershipIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/** Activity feed over the user's own deposits and those of every fund box they belong to. */
+@Service
+@RequiredArgsConstructor
+public class FeedService {
+
+    private static final Comparator<FeedEntry> NEWEST_FIRST = Comparator
+            .comparing(FeedEntry::date)
+            .thenComparing(FeedEntry::id, FeedService::compareAsStored)
+            .reversed();
+
+    private final DepositRepository depositRepository;
+    private final FundBoxMembershipIndex membershipIndex;
+    private final UserUtilService userUtilService;
+    private final FundBoxUtilService fundBoxManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    record FeedEntry(LocalDate date, UUID id) {
+    }
+
+    private static final class Run {
+        private final List<FeedEntry> entries;
+        private int position;
+
+        Run(List<FeedEntry> entries) {
+            this.entries = entries;
+        }
+
+        FeedEntry head() {
+            return entries.get(position);
+        }
+
+        boolean advance() {
+            return ++position < entries.size();
+        }
+    }
+
+    public CursorPage<DepositResponse> getFeed(AuthenticatedUser principal, String cursor, int size) {
+        userUtilService.checkUserStatus(principal);
+        int pageSize = DepositCursor.pageSize(size);
+        DepositCursor after = cursor == null || cursor.isBlank() ? null : DepositCursor.decode(cursor);
+
+        List<UUID> fundBoxIds = List.copyOf(membershipIndex.fundBoxIdsOf(principal.id()));
+        List<FeedEntry> entries = merge(scanSources(principal.id(), fundBoxIds, after, pageSize + 1), pageSize + 1);
+        if (entries.isEmpty())
+            return new CursorPage<>(List.of(), null);
+
+        Map<UUID, DepositView> views = depositRepository.findViewsByIds(entries.stream().map(FeedEntry::id).toList())
+                .stream()
+                .collect(Collectors.toMap(DepositView::id, Function.identity()));
+
+        // the cursor follows the merged entries, so a deposit removed since the scan does not end the feed
+        boolean hasNext = entries.size() > pageSize;
+        List<FeedEntry> page = hasNext ? entries.subList(0, pageSize) : entries;
+        List<DepositResponse> deposits = page.stream()
+                .map(entry -> views.get(entry.id()))
+                .filter(Objects::nonNull)
+                .map(fundBoxManager::toDepositResponse)
+                .toList();
+        FeedEntry last = page.get(page.size() - 1);
+        return new CursorPage<>(deposits, hasNext ? new DepositCursor(last.date(), last.id()).encode() : null);
+    }
+
+    // one run per source, each holding at most limit entries, which is all any source can contribute to the page
+    private List<List<FeedEntry>> scanSources(UUID userId, List<UUID> fundBoxIds, DepositCursor after, int limit) {
+        StringBuilder sql = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+
+        appendSource(sql, args, 0, "user_id", userId, after, limit);
+        for (int i = 0; i < fundBoxIds.size(); i++)
+            appendSource(sql, args, i + 1, "fund_box_id", fundBoxIds.get(i), after, limit);
+
+        List<List<FeedEntry>> runs = new ArrayList<>();
+        for (int i = 0; i <= fundBoxIds.size(); i++)
+            runs.add(new ArrayList<>());
+
+        jdbcTemplate.query(sql.toString(), rs -> {
+            runs.get(rs.getInt("source")).add(new FeedEntry(rs.getObject("date", LocalDate.class), UUID.fromString(rs.getString("id"))));
+        }, args.toArray());
+
+        // each branch is ordered on its own, the union as a whole keeps no order
+        runs.forEach(run -> run.sort(NEWEST_FIRST));
+        return runs;
+    }
+
+    private static void appendSource(StringBuilder sql, List<Object> args, int source, String column, UUID value, DepositCursor after, int limit) {
+        if (!sql.isEmpty())
+            sql.append(" UNION ALL ");
+
+        sql.append("(SELECT ? AS source, date, BIN_TO_UUID(id) AS id FROM deposit WHERE ").append(column).append(" = UUID_TO_BIN(?)");
+        args.add(source);
+        args.add(value.toString());
+
+        if (after != null) {
+            sql.append(" AND (date < ? OR (date = ? AND id < UUID_TO_BIN(?)))");
+            args.add(after.date());
+            args.add(after.date());
+            args.add(after.id().toString());
+        }
+
+        sql.append(" ORDER BY date DESC, id DESC LIMIT ?)");
+        args.add(limit);
+    }
+
+    // a deposit of the user's in one of their boxes appears in two runs, equal entries come out together and are kept once
+    static List<FeedEntry> merge(List<List<FeedEntry>> runs, int limit) {
+        PriorityQueue<Run> queue = new PriorityQueue<>(Comparator.comparing(Run::head, NEWEST_FIRST));
+        for (List<FeedEntry> run : runs) {
+            if (!run.isEmpty())
+                queue.add(new Run(run));
+        }
+
+        List<FeedEntry> merged = new ArrayList<>(limit);
+        FeedEntry last = null;
+        while (merged.size() < limit && !queue.isEmpty()) {
+            Run run = queue.poll();
+            FeedEntry entry = run.head();
+            if (!entry.equals(last)) {
+                merged.add(entry);
+                last = entry;
+            }
+            if (run.advance())
+                queue.add(run);
+        }
+        return merged;
+    }
+
+    // BINARY(16) columns compare as unsigned bytes, UUID.compareTo compares signed longs
+    private static int compareAsStored(UUID left, UUID right) {
+        int high = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,123 @@
+package com.finapp.backend.domain.service;
+
+import com.finapp.backend.domain.event.FundBoxMembershipChangedEvent;
+import com.finapp.backend.domain.repository.DepositRepository;
+import com.finapp.backend.domain.repository.FundBoxInvitationRepository;
+import com.finapp.backend.domain.repository.FundBoxMemberRepository;
+import com.finapp.backend.domain.repository.FundBoxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+/** Removes fund boxes in bounded chunks, each in its own short transaction. */
+@Service
+@Slf4j
+public class FundBoxDeletionService {
+
+    private final FundBoxRepository fundBoxRepository;
+    private final DepositRepository depositRepository;
+    private final FundBoxMemberRepository fundBoxMemberRepository;
+    private final FundBoxInvitationRepository fundBoxInvitationRepository;
+    private final BalanceService balanceService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+    private final long asyncThreshold;
+    private final Duration claimTimeout;
+
+    public FundBoxDeletionService(FundBoxRepository fundBoxRepository,
+                                  DepositRepository depositRepository,
+                                  FundBoxMemberRepository fundBoxMemberRepository,
+                                  FundBoxInvitationRepository fundBoxInvitationRepository,
+                                  BalanceService balanceService,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.fund-box-deletion.chunk-size:1000}") int chunkSize,
+                                  @Value("${app.fund-box-deletion.async-threshold:5000}") long asyncThreshold,
+                                  @Value("${app.fund-box-deletion.claim-timeout-ms:3600000}") long claimTimeoutMs) {
+        this.fundBoxRepository = fundBoxRepository;
+        this.depositRepository = depositRepository;
+        this.fundBoxMemberRepository = fundBoxMemberRepository;
+        this.fundBoxInvitationRepository = fundBoxInvitationRepository;
+        this.balanceService = balanceService;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.asyncThreshold = asyncThreshold;
+        this.claimTimeout = Duration.ofMillis(claimTimeoutMs);
+    }
+
+    // true when the box is already gone, false when purging was left to the background task
+    public boolean delete(UUID fundBoxId) {
+        // members lose access as soon as the box is marked, the purge may come much later
+        transaction.executeWithoutResult(status -> {
+            fundBoxRepository.markForDeletion(fundBoxId, LocalDateTime.now());
+            eventPublisher.publishEvent(new FundBoxMembershipChangedEvent(fundBoxMemberRepository.findUserIdsByFundBoxId(fundBoxId)));
+        });
+
+        if (depositRepository.countByFundBoxId(fundBoxId) > asyncThreshold) {
+            log.info("Fund box {} queued for background deletion", fundBoxId);
+            return false;
+        }
+
+        purge(fundBoxId);
+        return true;
+    }
+
+    // false when another purge of the box is in progress
+    public boolean purge(UUID fundBoxId) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transaction.execute(status -> fundBoxRepository.claimPurge(fundBoxId, now, now.minus(claimTimeout)));
+        if (claimed == null || claimed == 0)
+            return false;
+
+        try {
+            purgeClaimed(fundBoxId);
+            return true;
+        } catch (RuntimeException e) {
+            // the next run retries right away instead of waiting for the claim to time out
+            transaction.executeWithoutResult(status -> fundBoxRepository.releasePurgeClaim(fundBoxId));
+            throw e;
+        }
+    }
+
+    public Duration claimTimeout() {
+        return claimTimeout;
+    }
+
+    private void purgeClaimed(UUID fundBoxId) {
+        String id = fundBoxId.toString();
+        // boxes of expired users are purged without being marked first
+        List<UUID> memberIds = transaction.execute(status -> fundBoxMemberRepository.findUserIdsByFundBoxId(fundBoxId));
+        drain(() -> depositRepository.unsetFundBoxForDepositChunk(id, chunkSize));
+        drain(() -> fundBoxMemberRepository.deleteChunkByFundBoxId(id, chunkSize));
+        drain(() -> fundBoxInvitationRepository.deleteChunkByFundBoxId(id, chunkSize));
+
+        transaction.executeWithoutResult(status -> {
+            // picks up rows linked by requests that passed their access check before the box was marked
+            depositRepository.unsetFundBoxForDepositChunk(id, chunkSize);
+            fundBoxMemberRepository.deleteChunkByFundBoxId(id, chunkSize);
+            fundBoxInvitationRepository.deleteChunkByFundBoxId(id, chunkSize);
+
+            balanceService.deleteFundBoxBalance(fundBoxId);
+            fundBoxRepository.deleteRowById(fundBoxId);
+            eventPublisher.publishEvent(new FundBoxMembershipChangedEvent(memberIds));
+        });
+    }
+
+    private void drain(IntSupplier chunk) {
+        Integer affected;
+        do {
+            affected = transaction.execute(status -> chunk.getAsInt());
+        } while (affected != null && affected >= chunkSize);
+    }
+}
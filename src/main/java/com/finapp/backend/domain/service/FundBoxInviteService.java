@@ -1,23 +1,30 @@
 package com.finapp.backend.domain.service;
 
+import com.finapp.backend.domain.event.FundBoxMembershipChangedEvent;
 import com.finapp.backend.domain.service.utils.UserUtilService;
 import com.finapp.backend.dto.user.InviteResponse;
 import com.finapp.backend.exception.ApiErrorCode;
 import com.finapp.backend.exception.ApiException;
 import com.finapp.backend.domain.model.FundBox;
-import com.finapp.backend.domain.model.FundBoxCollaborator;
 import com.finapp.backend.domain.model.FundBoxInvitation;
+import com.finapp.backend.domain.model.FundBoxMember;
 import com.finapp.backend.domain.model.User;
+import com.finapp.backend.domain.model.enums.FundBoxRole;
 import com.finapp.backend.domain.model.enums.InvitationStatus;
 import com.finapp.backend.domain.repository.FundBoxInvitationRepository;
-import com.finapp.backend.domain.repository.FundBoxRepository;
+import com.finapp.backend.domain.repository.FundBoxMemberRepository;
 import com.finapp.backend.domain.service.utils.FundBoxUtilService;
+import com.finapp.backend.security.AuthenticatedUser;
+import com.finapp.backend.security.FundBoxMembershipIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -26,16 +33,17 @@ public class FundBoxInviteService {
 
     private final FundBoxUtilService fundBoxManager;
     private final FundBoxInvitationRepository fundBoxInvitationRepository;
-    private final FundBoxRepository fundBoxRepository;
+    private final FundBoxMemberRepository fundBoxMemberRepository;
     private final UserUtilService userUtilService;
+    private final FundBoxMembershipIndex membershipIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public void inviteCollaborator(UUID fundBoxId, String email, UUID collaboratorId) {
-        User inviter = userUtilService.getUserByEmail(email);
-        userUtilService.checkUserStatus(inviter);
+    public void inviteCollaborator(UUID fundBoxId, AuthenticatedUser principal, UUID collaboratorId) {
+        User inviter = userUtilService.getActiveUserReference(principal);
 
-        FundBox fundBox = fundBoxManager.getFundBoxById(fundBoxId, inviter);
+        FundBox fundBox = fundBoxManager.getFundBoxById(fundBoxId, principal.id());
 
-        if (!fundBox.getOwner().getId().equals(inviter.getId()))
+        if (!fundBox.getOwner().getId().equals(principal.id()))
             throw new ApiException(ApiErrorCode.FORBIDDEN_COLLABORATOR_ADDITION);
 
         if (fundBox.getOwner().getId().equals(collaboratorId))
@@ -44,9 +52,7 @@ public class FundBoxInviteService {
         User invitee = userUtilService.getUserById(collaboratorId);
         userUtilService.checkUserStatus(invitee);
 
-        boolean isAlreadyCollaborator = fundBox.getCollaborators().stream()
-                .anyMatch(c -> c.getUser().getId().equals(collaboratorId));
-        if (isAlreadyCollaborator)
+        if (membershipIndex.isMember(collaboratorId, fundBoxId))
             throw new ApiException(ApiErrorCode.COLLABORATOR_ALREADY_EXISTS);
 
         boolean alreadyInvited = fundBoxInvitationRepository.existsByFundBoxAndInviteeAndStatus(fundBox, invitee, InvitationStatus.PENDING);
@@ -63,18 +69,16 @@ public class FundBoxInviteService {
         fundBoxInvitationRepository.save(invitation);
     }
 
-    public Page<InviteResponse> getSentInvites(String email, Pageable pageable) {
-        User inviter = userUtilService.getUserByEmail(email);
-        return fundBoxInvitationRepository.findByInviter(inviter, pageable)
+    public Page<InviteResponse> getSentInvites(AuthenticatedUser principal, Pageable pageable) {
+        return fundBoxInvitationRepository.findByInviter_Id(principal.id(), pageable)
                 .map(fundBoxManager::toInviteResponse);
     }
 
-    public void cancelInvitation(UUID invitationId, String email) {
+    public void cancelInvitation(UUID invitationId, AuthenticatedUser principal) {
         FundBoxInvitation invitation = fundBoxInvitationRepository.findById(invitationId)
                 .orElseThrow(() -> new ApiException(ApiErrorCode.INVITATION_NOT_FOUND));
 
-        User inviter = userUtilService.getUserByEmail(email);
-        if (!invitation.getInviter().getId().equals(inviter.getId()))
+        if (!invitation.getInviter().getId().equals(principal.id()))
             throw new ApiException(ApiErrorCode.FORBIDDEN_ACTION);
 
         if (invitation.getStatus() != InvitationStatus.PENDING)
@@ -83,30 +87,35 @@ public class FundBoxInviteService {
         fundBoxInvitationRepository.delete(invitation);
     }
 
-    public Page<InviteResponse> getUserInvites(String username, Pageable pageable) {
-        User user = userUtilService.getUserByEmail(username);
-        Page<FundBoxInvitation> invites = fundBoxInvitationRepository.findByInvitee_Id(user.getId(), pageable);
-        return invites.map(fundBoxManager::toInviteResponse);
+    public Page<InviteResponse> getUserInvites(AuthenticatedUser principal, Pageable pageable) {
+        return fundBoxInvitationRepository.findByInvitee_Id(principal.id(), pageable)
+                .map(fundBoxManager::toInviteResponse);
     }
 
-    public void acceptInvitation(UUID invitationId, String email) {
-        FundBoxInvitation invitation = fundBoxManager.validateInvitationForUser(invitationId, email);
+    @Transactional
+    public void acceptInvitation(UUID invitationId, AuthenticatedUser principal) {
+        FundBoxInvitation invitation = fundBoxManager.validateInvitationForUser(invitationId, principal.id());
 
         if (invitation.getStatus() == InvitationStatus.ACCEPTED)
             throw new ApiException(ApiErrorCode.INVITATION_ALREADY_ACCEPTED);
 
         FundBox fundBox = invitation.getFundBox();
-        FundBoxCollaborator relation = new FundBoxCollaborator();
-        relation.setFundBox(fundBox);
-        relation.setUser(invitation.getInvitee());
-        fundBox.getCollaborators().add(relation);
+        if (fundBox.getDeletionRequestedAt() != null)
+            throw new ApiException(ApiErrorCode.FUND_BOX_NOT_FOUND);
+
+        // saved on its own, adding it to the box would load every member first
+        FundBoxMember member = new FundBoxMember();
+        member.setFundBox(fundBox);
+        member.setUser(invitation.getInvitee());
+        member.setRole(FundBoxRole.COLLABORATOR);
 
-        fundBoxRepository.save(fundBox);
+        fundBoxMemberRepository.save(member);
         fundBoxInvitationRepository.delete(invitation);
+        eventPublisher.publishEvent(new FundBoxMembershipChangedEvent(List.of(principal.id())));
     }
 
-    public void declineInvitation(UUID invitationId, String email) {
-        FundBoxInvitation invitation = fundBoxManager.validateInvitationForUser(invitationId, email);
+    public void declineInvitation(UUID invitationId, AuthenticatedUser principal) {
+        FundBoxInvitation invitation = fundBoxManager.validateInvitationForUser(invitationId, principal.id());
         fundBoxInvitationRepository.delete(invitation);
     }
 
@@ -1,23 +1,32 @@
 package com.finapp.backend.domain.service;
 
+import com.finapp.backend.domain.event.FundBoxMembershipChangedEvent;
 import com.finapp.backend.domain.model.FundBox;
 import com.finapp.backend.domain.model.User;
 import com.finapp.backend.domain.service.utils.UserUtilService;
+import com.finapp.backend.dto.deposit.CursorPage;
 import com.finapp.backend.dto.deposit.DepositResponse;
 import com.finapp.backend.dto.fundbox.*;
 import com.finapp.backend.dto.user.InviteResponse;
 import com.finapp.backend.exception.ApiErrorCode;
 import com.finapp.backend.exception.ApiException;
+import com.finapp.backend.domain.model.enums.FundBoxRole;
 import com.finapp.backend.domain.model.enums.InvitationStatus;
 import com.finapp.backend.domain.repository.DepositRepository;
 import com.finapp.backend.domain.repository.FundBoxInvitationRepository;
+import com.finapp.backend.domain.repository.FundBoxMemberRepository;
 import com.finapp.backend.domain.repository.FundBoxRepository;
+import com.finapp.backend.domain.repository.projection.FundBoxView;
 import com.finapp.backend.domain.service.utils.FundBoxUtilService;
+import com.finapp.backend.security.AuthenticatedUser;
+import com.finapp.backend.security.FundBoxMembershipIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -31,47 +40,53 @@ public class FundboxService {
     private final FundBoxRepository fundBoxRepository;
     private final DepositRepository depositRepository;
     private final FundBoxInvitationRepository fundBoxInvitationRepository;
+    private final FundBoxMemberRepository fundBoxMemberRepository;
     private final FundBoxUtilService fundBoxManager;
     private final UserUtilService userUtilService;
+    private final BalanceService balanceService;
+    private final FundBoxDeletionService fundBoxDeletionService;
+    private final FundBoxMembershipIndex membershipIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public FundBoxResponse createFundBox(String email, CreateFundBoxRequest request) {
-        User user = userUtilService.getActiveUserByEmail(email);
+    public FundBoxResponse createFundBox(AuthenticatedUser principal, CreateFundBoxRequest request) {
+        User user = userUtilService.getActiveUserReference(principal);
 
-        if (fundBoxManager.fundBoxExists(user.getId(), request.name()))
+        if (fundBoxManager.fundBoxExists(principal.id(), request.name()))
             throw new ApiException(ApiErrorCode.FUND_BOX_NAME_ALREADY_EXISTS);
 
         FundBox fundBox = fundBoxManager.buildFundBox(request, user);
         FundBox saved = fundBoxRepository.save(fundBox);
+        eventPublisher.publishEvent(new FundBoxMembershipChangedEvent(List.of(principal.id())));
 
-        return fundBoxManager.buildFundBoxResponse(saved, user);
+        return fundBoxManager.buildFundBoxResponse(saved, new OwnerResponse(principal.id(), principal.name()), BigDecimal.ZERO);
     }
 
-    public ResponseEntity<Page<FundBoxResponse>> listUserFundBoxes(String email, Pageable pageable) {
-        User user = userUtilService.getActiveUserByEmail(email);
+    public ResponseEntity<Page<FundBoxResponse>> listUserFundBoxes(AuthenticatedUser principal, Pageable pageable) {
+        userUtilService.checkUserStatus(principal);
 
-        Page<FundBox> fundBoxes = fundBoxRepository.findByOwnerIdOrCollaboratorsContaining(user.getId(), pageable);
+        Page<FundBoxView> fundBoxes = fundBoxRepository.findViewsByMemberId(principal.id(), pageable);
 
         if (fundBoxes.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
 
-        Page<FundBoxResponse> fundBoxResponses = fundBoxes.map(fb -> fundBoxManager.buildFundBoxResponse(fb, fb.getOwner()));
+        Page<FundBoxResponse> fundBoxResponses = fundBoxes.map(fundBoxManager::toFundBoxResponse);
         return ResponseEntity.ok(fundBoxResponses);
     }
 
 
-    public FundBoxDetailsResponse getFundBoxDetails(UUID fundBoxId, String email, Pageable pageable) {
-        User user = userUtilService.getActiveUserByEmail(email);
+    // a fixed number of round trips whatever the box holds
+    public FundBoxDetailsResponse getFundBoxDetails(UUID fundBoxId, AuthenticatedUser principal, Pageable pageable) {
+        userUtilService.checkUserStatus(principal);
 
-        FundBox fundBox = fundBoxManager.getFundBoxById(fundBoxId, user);
-        BigDecimal balance = fundBoxManager.calculateBalance(fundBoxId);
+        FundBoxView fundBox = fundBoxManager.getFundBoxViewById(fundBoxId, principal.id());
         Page<DepositResponse> depositResponses = fundBoxManager.getDepositResponses(fundBoxId, pageable);
 
-        List<CollaboratorResponse> collaborators = fundBox.getCollaborators().stream()
+        List<CollaboratorResponse> collaborators = fundBoxMemberRepository.findCollaboratorViews(fundBoxId).stream()
                 .map(collaborator -> new CollaboratorResponse(
-                        collaborator.getUser().getId(),
-                        collaborator.getUser().getName(),
-                        collaborator.getJoinedAt()
+                        collaborator.userId(),
+                        collaborator.userName(),
+                        collaborator.joinedAt()
                 ))
                 .collect(Collectors.toList());
 
@@ -81,23 +96,28 @@ public class FundboxService {
                 .map(fundBoxManager::toInviteResponse)
                 .collect(Collectors.toList());
 
-
         return new FundBoxDetailsResponse(
-                fundBox.getId(),
-                fundBox.getName(),
-                fundBox.getFinancialGoal(),
-                fundBox.getTargetDate(),
-                new OwnerResponse(fundBox.getOwner().getId(), fundBox.getOwner().getName()),
-                balance,
+                fundBox.id(),
+                fundBox.name(),
+                fundBox.financialGoal(),
+                fundBox.targetDate(),
+                new OwnerResponse(fundBox.ownerId(), fundBox.ownerName()),
+                fundBox.balance(),
                 depositResponses,
                 collaborators,
                 invites
         );
     }
 
-    public FundBoxResponse updateFundBox(UUID fundBoxId, String email, UpdateFundBoxRequest request) {
-        User user = userUtilService.getActiveUserByEmail(email);
-        FundBox fundBox = fundBoxManager.getFundBoxById(fundBoxId, user);
+    public CursorPage<DepositResponse> listFundBoxDeposits(UUID fundBoxId, AuthenticatedUser principal, String cursor, int size) {
+        userUtilService.checkUserStatus(principal);
+        fundBoxManager.checkAccess(fundBoxId, principal.id());
+        return fundBoxManager.getDepositResponses(fundBoxId, cursor, size);
+    }
+
+    public FundBoxResponse updateFundBox(UUID fundBoxId, AuthenticatedUser principal, UpdateFundBoxRequest request) {
+        userUtilService.checkUserStatus(principal);
+        FundBox fundBox = fundBoxManager.getFundBoxById(fundBoxId, principal.id());
 
         if (request.getName() != null && !request.getName().trim().isEmpty())
             fundBox.setName(request.getName().trim());
@@ -107,50 +127,46 @@ public class FundboxService {
             fundBox.setTargetDate(request.getTargetDate());
 
         FundBox savedFundBox = fundBoxRepository.save(fundBox);
-        return fundBoxManager.buildFundBoxResponse(savedFundBox, fundBox.getOwner());
+        return fundBoxManager.buildFundBoxResponse(savedFundBox, fundBox.getOwner(), fundBoxManager.calculateBalance(fundBoxId));
     }
 
-    public void deleteFundBox(UUID fundBoxId, String email) {
-        User user = userUtilService.getActiveUserByEmail(email);
-        FundBox fundBox = fundBoxManager.getFundBoxById(fundBoxId, user);
+    // true when the box is gone, false when a large box was left to the background deletion task
+    public boolean deleteFundBox(UUID fundBoxId, AuthenticatedUser principal) {
+        userUtilService.checkUserStatus(principal);
+        fundBoxManager.checkAccess(fundBoxId, principal.id());
 
-        depositRepository.findByFundBoxId(fundBoxId).forEach(deposit -> {
-            deposit.setFundBox(null);
-            depositRepository.save(deposit);
-        });
-
-        fundBoxRepository.delete(fundBox);
+        return fundBoxDeletionService.delete(fundBoxId);
     }
 
-    public void removeCollaborator(UUID fundBoxId, String email, UUID collaboratorId) {
-        User owner = userUtilService.getUserByEmail(email);
-        userUtilService.checkUserStatus(owner);
-        FundBox fundBox = fundBoxManager.getFundBoxById(fundBoxId, owner);
-        User collaborator = userUtilService.getUserById(collaboratorId);
+    @Transactional
+    public void removeCollaborator(UUID fundBoxId, AuthenticatedUser principal, UUID collaboratorId) {
+        userUtilService.checkUserStatus(principal);
+        fundBoxManager.checkAccess(fundBoxId, principal.id());
 
-        boolean removed = fundBox.getCollaborators().removeIf(c -> c.getUser().getId().equals(collaborator.getId()));
-        if (!removed)
+        // an unknown user id can never match a collaborator, so no separate user lookup is needed
+        if (fundBoxMemberRepository.deleteCollaborator(fundBoxId, collaboratorId) == 0)
             throw new ApiException(ApiErrorCode.COLLABORATOR_NOT_FOUND);
 
-        depositRepository.unsetFundBoxForUserDeposits(collaborator.getId(), fundBoxId);
-
-        fundBoxRepository.save(fundBox);
+        balanceService.recordUserDepositsUnlinked(collaboratorId, fundBoxId);
+        depositRepository.unsetFundBoxForUserDeposits(collaboratorId, fundBoxId);
+        eventPublisher.publishEvent(new FundBoxMembershipChangedEvent(List.of(collaboratorId)));
     }
 
-    public void leaveFundBox(UUID fundBoxId, String email) {
-        User collaborator = userUtilService.getUserByEmail(email);
-        userUtilService.checkUserStatus(collaborator);
-        FundBox fundBox = fundBoxManager.getFundBoxById(fundBoxId, collaborator);
+    @Transactional
+    public void leaveFundBox(UUID fundBoxId, AuthenticatedUser principal) {
+        userUtilService.checkUserStatus(principal);
+        UUID collaboratorId = principal.id();
+        FundBoxRole role = membershipIndex.roleOf(collaboratorId, fundBoxId)
+                .orElseThrow(() -> new ApiException(ApiErrorCode.FUND_BOX_NOT_FOUND));
 
-        if (fundBox.getOwner().getId().equals(collaborator.getId()))
+        if (role == FundBoxRole.OWNER)
             throw new ApiException(ApiErrorCode.CANNOT_LEAVE_AS_OWNER);
 
-        boolean removed = fundBox.getCollaborators().removeIf(c -> c.getUser().getId().equals(collaborator.getId()));
-        if (!removed)
+        if (fundBoxMemberRepository.deleteCollaborator(fundBoxId, collaboratorId) == 0)
             throw new ApiException(ApiErrorCode.COLLABORATOR_NOT_FOUND);
 
-        depositRepository.unsetFundBoxForUserDeposits(collaborator.getId(), fundBoxId);
-
-        fundBoxRepository.save(fundBox);
+        balanceService.recordUserDepositsUnlinked(collaboratorId, fundBoxId);
+        depositRepository.unsetFundBoxForUserDeposits(collaboratorId, fundBoxId);
+        eventPublisher.publishEvent(new FundBoxMembershipChangedEvent(List.of(collaboratorId)));
     }
 }
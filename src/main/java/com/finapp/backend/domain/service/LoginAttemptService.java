@@ -1,32 +1,150 @@
 package com.finapp.backend.domain.service;
 
 import com.finapp.backend.domain.model.LoginAttempt;
+import com.finapp.backend.domain.model.id.UuidV7;
 import com.finapp.backend.domain.repository.LoginAttemptRepository;
 import com.finapp.backend.exception.ApiErrorCode;
 import com.finapp.backend.exception.ApiException;
-import org.springframework.transaction.annotation.Transactional;
+import com.finapp.backend.security.ratelimit.CounterSnapshot;
+import com.finapp.backend.security.ratelimit.CounterStore;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/** Failed logins tracked in memory and checkpointed to login_attempt in batches. */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class LoginAttemptService {
 
+    // failures are forgotten once the longest block has passed without a new one
+    private static final Duration FAILURE_WINDOW = Duration.ofDays(1);
+    // calculateWaitTime does not grow past this many failures
+    private static final int MAX_TRACKED_FAILURES = 9;
+    private static final int MAX_USER_AGENT_LENGTH = 255;
+
+    private static final String UPSERT = """
+            INSERT INTO login_attempt (id, email, ip, user_agent, attempt_count, last_attempt_at, blocked_until)
+            VALUES (UUID_TO_BIN(?), ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                attempt_count = VALUES(attempt_count),
+                last_attempt_at = VALUES(last_attempt_at),
+                blocked_until = VALUES(blocked_until)
+            """;
+    private static final String DELETE = "DELETE FROM login_attempt WHERE ip = ? AND user_agent = ? AND email = ?";
+    private static final String DELETE_ALL_AGENTS = "DELETE FROM login_attempt WHERE ip = ? AND email = ?";
+
     private final LoginAttemptRepository loginAttemptRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CounterStore counterStore;
+
+    private final Map<AttemptKey, AttemptWindow> attempts = new ConcurrentHashMap<>();
+    private final Set<AttemptKey> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<AttemptKey> expired = ConcurrentHashMap.newKeySet();
+    private final Set<LoginSubject> cleared = ConcurrentHashMap.newKeySet();
+
+    // a successful login lifts the lockouts of every user agent used from the same ip for the same email
+    private record LoginSubject(String ip, String email) {
+
+        String counterKey() {
+            return "login-failures:" + ip + ":" + email;
+        }
+    }
+
+    private record AttemptKey(String ip, String userAgent, String email) {
+
+        // login_attempt.user_agent is NOT NULL VARCHAR(255), one bad row would fail the whole checkpoint batch
+        AttemptKey {
+            userAgent = userAgent == null ? "" : userAgent.substring(0, Math.min(userAgent.length(), MAX_USER_AGENT_LENGTH));
+        }
+
+        LoginSubject subject() {
+            return new LoginSubject(ip, email);
+        }
+    }
+
+    private static final class AttemptWindow {
+        private final Deque<Long> failures = new ArrayDeque<>();
+        private long blockedUntil;
+
+        synchronized int recordFailure(long now) {
+            expire(now);
+            failures.addLast(now);
+            if (failures.size() > MAX_TRACKED_FAILURES)
+                failures.removeFirst();
+
+            int waitSeconds = calculateWaitTime(failures.size());
+            if (waitSeconds > 0)
+                blockedUntil = now + waitSeconds * 1000L;
+            return waitSeconds;
+        }
+
+        synchronized long blockedUntil() {
+            return blockedUntil;
+        }
+
+        synchronized boolean isIdle(long now) {
+            expire(now);
+            return failures.isEmpty() && blockedUntil <= now;
+        }
+
+        synchronized Object[] toRow(AttemptKey key) {
+            long lastAttempt = failures.isEmpty() ? 0 : failures.peekLast();
+            return new Object[]{
+                    UuidV7.next().toString(), key.email(), key.ip(), key.userAgent(), failures.size(),
+                    toTimestamp(lastAttempt), blockedUntil > 0 ? toTimestamp(blockedUntil) : null
+            };
+        }
+
+        private void expire(long now) {
+            long windowStart = now - FAILURE_WINDOW.toMillis();
+            while (!failures.isEmpty() && failures.peekFirst() <= windowStart)
+                failures.removeFirst();
+        }
+    }
 
-    @Transactional
-    public void handleFailedLoginAttempt(LoginAttempt loginAttempt) {
-        loginAttempt.setAttemptCount(loginAttempt.getAttemptCount() + 1);
-        loginAttempt.setLastAttemptAt(LocalDateTime.now());
+    public void checkNotBlocked(String ip, String userAgent, String email) {
+        AttemptKey key = new AttemptKey(ip, userAgent, email);
+        long now = System.currentTimeMillis();
 
-        int waitSeconds = calculateWaitTime(loginAttempt.getAttemptCount());
-        if (waitSeconds > 0)
-            loginAttempt.setBlockedUntil(LocalDateTime.now().plusSeconds(waitSeconds));
+        AttemptWindow window = attempts.get(key);
+        long blockedUntil = window != null ? window.blockedUntil() : 0;
 
-        loginAttemptRepository.save(loginAttempt);
+        CounterSnapshot clusterFailures = counterStore.get(key.subject().counterKey());
+        blockedUntil = Math.max(blockedUntil, clusterFailures.lastUpdatedMillis() + calculateWaitTime((int) clusterFailures.count()) * 1000L);
+
+        if (blockedUntil > now) {
+            long waitSeconds = (blockedUntil - now) / 1000;
+            throw new ApiException(ApiErrorCode.TOO_MANY_LOGIN_ATTEMPTS, Map.of("Retry-After", String.valueOf(waitSeconds)));
+        }
+    }
+
+    public void handleFailedLoginAttempt(String ip, String userAgent, String email) {
+        AttemptKey key = new AttemptKey(ip, userAgent, email);
+
+        int waitSeconds = attempts.computeIfAbsent(key, k -> new AttemptWindow())
+                .recordFailure(System.currentTimeMillis());
+        expired.remove(key);
+        dirty.add(key);
+        counterStore.increment(key.subject().counterKey(), FAILURE_WINDOW);
 
         throw new ApiException(
                 ApiErrorCode.INVALID_CREDENTIALS,
@@ -34,31 +152,104 @@ public class LoginAttemptService {
         );
     }
 
-    private LoginAttempt createNewLoginAttempt(String ip, String userAgent, String email) {
-        LoginAttempt attempt = new LoginAttempt();
-        attempt.setIp(ip);
-        attempt.setUserAgent(userAgent);
-        attempt.setEmail(email);
-        attempt.setAttemptCount(0);
-        attempt.setLastAttemptAt(LocalDateTime.now());
-        attempt.setBlockedUntil(null);
-        return loginAttemptRepository.save(attempt);
+    public void clearLoginAttempts(String ip, String email) {
+        LoginSubject subject = new LoginSubject(ip, email);
+        counterStore.reset(subject.counterKey());
+
+        attempts.keySet().removeIf(key -> key.subject().equals(subject));
+        dirty.removeIf(key -> key.subject().equals(subject));
+        expired.removeIf(key -> key.subject().equals(subject));
+        // rows may have been written by other nodes, so the delete goes out even when nothing was tracked here
+        cleared.add(subject);
     }
 
-    public LoginAttempt getOrCreateLoginAttempt(String ip, String userAgent, String email) {
-        return loginAttemptRepository
-                .findByIpAndUserAgentAndEmail(ip, userAgent, email)
-                .orElseGet(() -> createNewLoginAttempt(ip, userAgent, email));
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadLoginAttempts() {
+        LocalDateTime windowStart = LocalDateTime.now().minus(FAILURE_WINDOW);
+        List<LoginAttempt> recent = loginAttemptRepository.findByLastAttemptAtAfterOrBlockedUntilAfter(windowStart, LocalDateTime.now());
+
+        // only the latest attempt time is persisted, so restored failures are all placed there
+        for (LoginAttempt attempt : recent) {
+            AttemptWindow window = new AttemptWindow();
+            long lastAttempt = toEpochMillis(attempt.getLastAttemptAt());
+            for (int i = 0; i < Math.min(attempt.getAttemptCount(), MAX_TRACKED_FAILURES); i++)
+                window.failures.addLast(lastAttempt);
+            window.blockedUntil = attempt.getBlockedUntil() != null ? toEpochMillis(attempt.getBlockedUntil()) : 0;
+
+            attempts.putIfAbsent(new AttemptKey(attempt.getIp(), attempt.getUserAgent(), attempt.getEmail()), window);
+        }
+        log.info("Restored {} login attempt windows", recent.size());
     }
 
-    @Transactional
-    public void clearLoginAttempts(String ip, String email) {
-        loginAttemptRepository.deleteAllByIpAndEmail(ip, email);
+    @Scheduled(fixedDelayString = "${security.login-attempts.checkpoint-interval-ms:5000}")
+    public void checkpoint() {
+        long now = System.currentTimeMillis();
+
+        // cleared logins go first, so failures recorded after the clear are upserted after it and survive
+        List<LoginSubject> clearedSubjects = List.copyOf(cleared);
+        cleared.removeAll(clearedSubjects);
+        try {
+            if (!clearedSubjects.isEmpty())
+                jdbcTemplate.batchUpdate(DELETE_ALL_AGENTS, clearedSubjects.stream()
+                        .map(subject -> new Object[]{subject.ip(), subject.email()})
+                        .toList());
+        } catch (DataAccessException e) {
+            cleared.addAll(clearedSubjects);
+            log.warn("Failed to clear {} login attempt subjects, retrying on the next checkpoint", clearedSubjects.size(), e);
+            return;
+        }
+
+        List<AttemptKey> upsertedKeys = new ArrayList<>();
+        List<Object[]> upserts = new ArrayList<>();
+        for (AttemptKey key : List.copyOf(dirty)) {
+            dirty.remove(key);
+            AttemptWindow window = attempts.get(key);
+            if (window != null) {
+                upsertedKeys.add(key);
+                upserts.add(window.toRow(key));
+            }
+        }
+
+        // windows with nothing left to enforce are dropped from memory and the table
+        attempts.forEach((key, window) -> {
+            if (window.isIdle(now) && attempts.remove(key, window))
+                expired.add(key);
+        });
+        List<AttemptKey> deletedKeys = List.copyOf(expired);
+        expired.removeAll(deletedKeys);
+
+        // keys are taken off the pending sets before writing, so a failed write puts them back for the next checkpoint
+        try {
+            if (!upserts.isEmpty())
+                jdbcTemplate.batchUpdate(UPSERT, upserts);
+        } catch (DataAccessException e) {
+            dirty.addAll(upsertedKeys);
+            log.warn("Failed to checkpoint {} login attempt windows, retrying on the next checkpoint", upserts.size(), e);
+        }
+
+        try {
+            if (!deletedKeys.isEmpty())
+                jdbcTemplate.batchUpdate(DELETE, deletedKeys.stream()
+                        .map(key -> new Object[]{key.ip(), key.userAgent(), key.email()})
+                        .toList());
+        } catch (DataAccessException e) {
+            // a key that failed again since is upserted instead
+            deletedKeys.stream().filter(key -> !dirty.contains(key)).forEach(expired::add);
+            log.warn("Failed to delete {} login attempt windows, retrying on the next checkpoint", deletedKeys.size(), e);
+        }
+    }
+
+    private static Timestamp toTimestamp(long epochMillis) {
+        return Timestamp.valueOf(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()));
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 
-    private int calculateWaitTime(int attempts) {
+    private static int calculateWaitTime(int attempts) {
         return switch (attempts) {
-            case 1, 2 -> 0;
+            case 0, 1, 2 -> 0;
             case 3 -> 5; // 5s
             case 4 -> 15; // 15s
             case 5 -> 60; // 1min
@@ -7,6 +7,9 @@ import com.finapp.backend.domain.service.utils.UserUtilService;
 import com.finapp.backend.dto.auth.SessionInfo;
 import com.finapp.backend.exception.ApiErrorCode;
 import com.finapp.backend.exception.ApiException;
+import com.finapp.backend.security.AuthenticatedUser;
+import com.finapp.backend.security.TokenDigest;
+import com.finapp.backend.security.TokenRevocationIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -20,45 +23,49 @@ public class SessionService {
 
     private final UserTokenRepository userTokenRepository;
     private final UserUtilService userUtilService;
+    private final TokenRevocationIndex tokenRevocationIndex;
 
-    public List<SessionInfo> getActiveSessions(String email, String currentAccessToken) {
-        User user = userUtilService.getActiveUserByEmail(email);
-        List<UserToken> tokens = userTokenRepository.findAllByUserAndRevokedFalse(user);
+    public List<SessionInfo> getActiveSessions(AuthenticatedUser principal, String currentAccessToken) {
+        userUtilService.checkUserStatus(principal);
+        String currentAccessTokenHash = TokenDigest.sha256(currentAccessToken);
+        List<UserToken> tokens = userTokenRepository.findAllByUser_IdAndRevokedFalse(principal.id());
         return tokens.stream()
                 .map(token -> new SessionInfo(
                         token.getId().toString(),
                         token.getCreatedAt().toString(),
                         token.getDeviceIp(),
                         token.getDeviceInfo(),
-                        token.getAccessToken().equals(currentAccessToken)
+                        token.getAccessTokenHash().equals(currentAccessTokenHash)
                 ))
                 .toList();
     }
 
     public void revokeCurrentSession(String accessToken) {
-        UserToken userToken = userTokenRepository.findByAccessTokenAndRevokedFalse(accessToken)
+        UserToken userToken = userTokenRepository.findByAccessTokenHashAndRevokedFalse(TokenDigest.sha256(accessToken))
                 .orElseThrow(() -> new ApiException(ApiErrorCode.INVALID_ACCESS_TOKEN));
 
         userToken.setRevoked(true);
         userToken.setUpdatedAt(new Date());
 
         userTokenRepository.save(userToken);
+        tokenRevocationIndex.revoke(userToken.getAccessTokenHash(), userToken.getAccessTokenExpiration());
     }
 
-    public void revokeSpecificSession(UUID sessionId, String email, String currentAccessToken) {
-        User user = userUtilService.getActiveUserByEmail(email);
+    public void revokeSpecificSession(UUID sessionId, AuthenticatedUser principal, String currentAccessToken) {
+        userUtilService.checkUserStatus(principal);
         UserToken userSession = getActiveSessionById(sessionId);
 
-        if (!userSession.getUser().equals(user))
+        if (!userSession.getUser().getId().equals(principal.id()))
             throw new ApiException(ApiErrorCode.FORBIDDEN_ACTION);
 
-        if (userSession.getAccessToken().equals(currentAccessToken))
+        if (userSession.getAccessTokenHash().equals(TokenDigest.sha256(currentAccessToken)))
             throw new ApiException(ApiErrorCode.CANNOT_REVOKE_OWN_SESSION);
 
         userSession.setRevoked(true);
         userSession.setUpdatedAt(new Date());
 
         userTokenRepository.save(userSession);
+        tokenRevocationIndex.revoke(userSession.getAccessTokenHash(), userSession.getAccessTokenExpiration());
     }
 
     public UserToken getActiveSessionById(UUID sessionId) {
@@ -66,22 +73,26 @@ public class SessionService {
                 .orElseThrow(() -> new ApiException(ApiErrorCode.SESSION_NOT_FOUND));
     }
 
-    public void logoutAllSessions(String email,String currentAccessToken) {
-        User user = userUtilService.getActiveUserByEmail(email);
-        List<UserToken> activeTokens = userTokenRepository.findAllByUserAndRevokedFalse(user);
+    public void logoutAllSessions(AuthenticatedUser principal, String currentAccessToken) {
+        userUtilService.checkUserStatus(principal);
+        String currentAccessTokenHash = TokenDigest.sha256(currentAccessToken);
+        List<UserToken> activeTokens = userTokenRepository.findAllByUser_IdAndRevokedFalse(principal.id());
 
         for (UserToken token : activeTokens) {
-            if (!token.getAccessToken().equals(currentAccessToken)) {
+            if (!token.getAccessTokenHash().equals(currentAccessTokenHash)) {
                 token.setRevoked(true);
                 token.setUpdatedAt(new Date());
             }
         }
 
         userTokenRepository.saveAll(activeTokens);
+        activeTokens.stream()
+                .filter(UserToken::isRevoked)
+                .forEach(token -> tokenRevocationIndex.revoke(token.getAccessTokenHash(), token.getAccessTokenExpiration()));
     }
 
     public void revokeAllUserSessions(User user) {
-        List<UserToken> activeTokens = userTokenRepository.findAllByUserAndRevokedFalse(user);
+        List<UserToken> activeTokens = userTokenRepository.findAllByUser_IdAndRevokedFalse(user.getId());
 
         for (UserToken token : activeTokens) {
             token.setRevoked(true);
@@ -89,5 +100,7 @@ public class SessionService {
         }
 
         userTokenRepository.saveAll(activeTokens);
+        activeTokens.forEach(token -> tokenRevocationIndex.revoke(token.getAccessTokenHash(), token.getAccessTokenExpiration()));
+        tokenRevocationIndex.revokeAllIssuedBefore(user.getEmail(), new Date());
     }
 }
@@ -1,6 +1,7 @@
 package com.finapp.backend.domain.service;
 
 import com.finapp.backend.domain.event.PasswordChangedEvent;
+import com.finapp.backend.domain.event.UserUpdatedEvent;
 import com.finapp.backend.domain.model.enums.UserStatus;
 import com.finapp.backend.domain.service.utils.UserUtilService;
 import com.finapp.backend.dto.user.UserResponse;
@@ -8,6 +9,7 @@ import com.finapp.backend.exception.ApiErrorCode;
 import com.finapp.backend.exception.ApiException;
 import com.finapp.backend.domain.model.User;
 import com.finapp.backend.domain.repository.UserRepository;
+import com.finapp.backend.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -25,16 +27,14 @@ public class UserService {
     private final UserUtilService userUtilService;
     private final SessionService sessionService;
 
-    public UserResponse getUserInfo(String email) {
-        User user = userUtilService.getUserByEmail(email);
-        userUtilService.checkUserStatus(user);
+    public UserResponse getUserInfo(AuthenticatedUser principal) {
+        userUtilService.checkUserStatus(principal);
 
-        return new UserResponse(user.getId(), user.getName(), user.getEmail());
+        return new UserResponse(principal.id(), principal.name(), principal.email());
     }
 
-    public void updateUserData(String email, String newName) {
-        User user = userUtilService.getUserByEmail(email);
-        userUtilService.checkUserStatus(user);
+    public void updateUserData(AuthenticatedUser principal, String newName) {
+        User user = userUtilService.getActiveUser(principal);
 
         if (newName != null && !newName.trim().isEmpty())
             updateUserName(user, newName);
@@ -46,22 +46,21 @@ public class UserService {
         updateUserPassword(user, newPassword);
     }
 
-    public void updateUserPassword(String email, String currentPassword, String newPassword) {
-        User user = userUtilService.getUserByEmail(email);
-        userUtilService.checkUserStatus(user);
+    public void updateUserPassword(AuthenticatedUser principal, String currentPassword, String newPassword) {
+        User user = userUtilService.getActiveUser(principal);
         if (!passwordEncoder.matches(currentPassword, user.getPasswordHash()))
             throw new ApiException(ApiErrorCode.INVALID_CREDENTIALS);
 
         updateUserPassword(user, newPassword);
     }
 
-    public void requestAccountDeletion(String email) {
-        User user = userUtilService.getUserByEmail(email);
-        userUtilService.checkUserStatus(user);
+    public void requestAccountDeletion(AuthenticatedUser principal) {
+        User user = userUtilService.getActiveUser(principal);
 
         user.setStatus(UserStatus.DEACTIVATION_REQUESTED);
         user.setDeletionRequestedAt(LocalDateTime.now());
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserUpdatedEvent(user));
 
         sessionService.revokeAllUserSessions(user);
     }
@@ -76,6 +75,7 @@ public class UserService {
 
         user.setName(newName);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserUpdatedEvent(user));
     }
 
     private void updateUserPassword(User user, String newPassword) {
@@ -0,0 +1,173 @@
+package com.finapp.backend.domain.service.imports;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/** Statement CSV with a header row naming the date, amount and description columns. */
+final class CsvStatementParser implements StatementParser {
+
+    private static final Set<String> DATE_COLUMNS = Set.of("date", "data", "posted date", "transaction date", "data lançamento");
+    private static final Set<String> AMOUNT_COLUMNS = Set.of("amount", "valor", "value", "transaction amount");
+    private static final Set<String> DESCRIPTION_COLUMNS = Set.of("description", "descrição", "descricao", "histórico", "historico", "memo", "payee");
+
+    private static final int DATE = 0;
+    private static final int AMOUNT = 1;
+    private static final int DESCRIPTION = 2;
+
+    @Override
+    public void parse(ByteBuffer data, StatementRowHandler handler) {
+        int limit = data.limit();
+        int pos = startAfterBom(data);
+
+        int headerEnd = pos;
+        while (headerEnd < limit && data.get(headerEnd) != '\n')
+            headerEnd++;
+        byte delimiter = detectDelimiter(data, pos, headerEnd);
+        List<String> header = splitHeader(data, pos, headerEnd, delimiter);
+
+        int[] slotOfColumn = new int[header.size()];
+        Arrays.fill(slotOfColumn, -1);
+        int[] columns = {indexOf(header, DATE_COLUMNS), indexOf(header, AMOUNT_COLUMNS), indexOf(header, DESCRIPTION_COLUMNS)};
+        for (int slot = 0; slot < columns.length; slot++) {
+            if (columns[slot] < 0) {
+                handler.error(1, "Header must name a date, an amount and a description column");
+                return;
+            }
+            slotOfColumn[columns[slot]] = slot;
+        }
+
+        int[] starts = new int[3];
+        int[] ends = new int[3];
+        long line = 2;
+        pos = headerEnd + 1;
+
+        while (pos < limit) {
+            long rowLine = line;
+            Arrays.fill(starts, -1);
+            int field = 0;
+            int fieldStart = pos;
+            boolean inQuotes = false;
+            boolean blank = true;
+
+            int i = pos;
+            for (; i < limit; i++) {
+                byte b = data.get(i);
+                if (b == '"') {
+                    // an escaped "" toggles twice and leaves the state unchanged
+                    inQuotes = !inQuotes;
+                    blank = false;
+                } else if (inQuotes) {
+                    if (b == '\n')
+                        line++;
+                } else if (b == delimiter || b == '\n') {
+                    capture(slotOfColumn, field, fieldStart, i, data, starts, ends);
+                    field++;
+                    fieldStart = i + 1;
+                    if (b == '\n')
+                        break;
+                } else if (b != '\r' && b != ' ') {
+                    blank = false;
+                }
+            }
+            if (i >= limit)
+                capture(slotOfColumn, field, fieldStart, limit, data, starts, ends);
+
+            line++;
+            pos = Math.min(i + 1, limit);
+            if (!blank)
+                emit(data, rowLine, starts, ends, pos, handler);
+        }
+    }
+
+    private static void emit(ByteBuffer data, long line, int[] starts, int[] ends, int endOffset, StatementRowHandler handler) {
+        if (starts[DATE] < 0 || starts[AMOUNT] < 0) {
+            handler.error(line, "Row is missing the date or amount column");
+            return;
+        }
+
+        String rawDate = field(data, starts[DATE], ends[DATE]);
+        LocalDate date = StatementValues.parseDate(rawDate);
+        if (date == null) {
+            handler.error(line, "Unrecognized date '" + rawDate + "'");
+            return;
+        }
+
+        String rawAmount = field(data, starts[AMOUNT], ends[AMOUNT]);
+        BigDecimal amount = StatementValues.parseAmount(rawAmount);
+        if (amount == null) {
+            handler.error(line, "Unrecognized amount '" + rawAmount + "'");
+            return;
+        }
+
+        String description = starts[DESCRIPTION] >= 0 ? field(data, starts[DESCRIPTION], ends[DESCRIPTION]) : "";
+        handler.row(new StatementRow(line, date, amount, description.isEmpty() ? null : description, endOffset));
+    }
+
+    private static void capture(int[] slotOfColumn, int field, int start, int end, ByteBuffer data, int[] starts, int[] ends) {
+        if (field >= slotOfColumn.length || slotOfColumn[field] < 0)
+            return;
+        if (end > start && data.get(end - 1) == '\r')
+            end--;
+        starts[slotOfColumn[field]] = start;
+        ends[slotOfColumn[field]] = end;
+    }
+
+    private static String field(ByteBuffer data, int start, int end) {
+        String value = StatementValues.decode(data, start, end);
+        if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"')
+            value = value.substring(1, value.length() - 1).replace("\"\"", "\"").trim();
+        return value;
+    }
+
+    private static int startAfterBom(ByteBuffer data) {
+        if (data.limit() >= 3 && data.get(0) == (byte) 0xEF && data.get(1) == (byte) 0xBB && data.get(2) == (byte) 0xBF)
+            return 3;
+        return 0;
+    }
+
+    private static byte detectDelimiter(ByteBuffer data, int start, int end) {
+        int commas = 0, semicolons = 0, tabs = 0;
+        for (int i = start; i < end; i++) {
+            switch (data.get(i)) {
+                case ',' -> commas++;
+                case ';' -> semicolons++;
+                case '\t' -> tabs++;
+                default -> {
+                }
+            }
+        }
+        if (semicolons > commas && semicolons >= tabs)
+            return ';';
+        if (tabs > commas)
+            return '\t';
+        return ',';
+    }
+
+    private static List<String> splitHeader(ByteBuffer data, int start, int end, byte delimiter) {
+        List<String> names = new ArrayList<>();
+        String header = new String(bytes(data, start, end), StandardCharsets.UTF_8);
+        for (String name : header.split(String.valueOf((char) delimiter), -1))
+            names.add(name.replace("\"", "").trim().toLowerCase());
+        return names;
+    }
+
+    private static byte[] bytes(ByteBuffer data, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        data.get(start, bytes);
+        return bytes;
+    }
+
+    private static int indexOf(List<String> header, Set<String> candidates) {
+        for (int i = 0; i < header.size(); i++) {
+            if (candidates.contains(header.get(i)))
+                return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,77 @@
+package com.finapp.backend.domain.service.imports;
+
+import com.finapp.backend.domain.model.DepositImportError;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Hands parsed rows and row errors to a writer every batchSize rows. */
+public final class ImportBatch implements StatementRowHandler {
+
+    private static final int MAX_MESSAGE_LENGTH = 255;
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(List<StatementRow> rows, List<DepositImportError> errors, long failedRows, int processedOffset);
+    }
+
+    private final int batchSize;
+    private final int maxStoredErrors;
+    private final Writer writer;
+    private final List<StatementRow> rows;
+    private final List<DepositImportError> errors = new ArrayList<>();
+    private long failedRows;
+    private long storedErrors;
+    private int processedOffset;
+
+    public ImportBatch(int batchSize, int maxStoredErrors, Writer writer) {
+        this.batchSize = batchSize;
+        this.maxStoredErrors = maxStoredErrors;
+        this.writer = writer;
+        this.rows = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public void row(StatementRow row) {
+        processedOffset = row.endOffset();
+        if (row.amount().signum() == 0) {
+            error(row.line(), "Amount must not be zero");
+            return;
+        }
+        if (row.date().isAfter(LocalDate.now())) {
+            error(row.line(), "Date cannot be in the future");
+            return;
+        }
+
+        rows.add(row);
+        if (rows.size() + failedRows >= batchSize)
+            flush();
+    }
+
+    // a file of nothing but bad rows must not pile up errors in memory either
+    @Override
+    public void error(long line, String message) {
+        failedRows++;
+        if (storedErrors < maxStoredErrors) {
+            storedErrors++;
+            errors.add(new DepositImportError(line, truncate(message)));
+        }
+        if (rows.size() + failedRows >= batchSize)
+            flush();
+    }
+
+    public void flush() {
+        if (rows.isEmpty() && failedRows == 0)
+            return;
+
+        writer.write(List.copyOf(rows), List.copyOf(errors), failedRows, processedOffset);
+        rows.clear();
+        errors.clear();
+        failedRows = 0;
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_MESSAGE_LENGTH ? value.substring(0, MAX_MESSAGE_LENGTH) : value;
+    }
+}
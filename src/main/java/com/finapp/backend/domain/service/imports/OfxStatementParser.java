@@ -0,0 +1,119 @@
+package com.finapp.backend.domain.service.imports;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/** OFX 1.x (SGML) and 2.x (XML) statements. */
+final class OfxStatementParser implements StatementParser {
+
+    private static final byte[] STMTTRN = ascii("STMTTRN");
+    private static final byte[] TRNAMT = ascii("TRNAMT");
+    private static final byte[] DTPOSTED = ascii("DTPOSTED");
+    private static final byte[] MEMO = ascii("MEMO");
+    private static final byte[] NAME = ascii("NAME");
+
+    @Override
+    public void parse(ByteBuffer data, StatementRowHandler handler) {
+        int limit = data.limit();
+        long line = 1;
+        int i = 0;
+        while (i < limit && data.get(i) != '<') {
+            if (data.get(i) == '\n')
+                line++;
+            i++;
+        }
+
+        boolean inTransaction = false;
+        long transactionLine = 0;
+        int[] amount = new int[2];
+        int[] posted = new int[2];
+        int[] memo = new int[2];
+        int[] name = new int[2];
+
+        while (i < limit) {
+            int tagEnd = i + 1;
+            while (tagEnd < limit && data.get(tagEnd) != '>')
+                tagEnd++;
+            if (tagEnd >= limit)
+                break;
+
+            boolean closing = data.get(i + 1) == '/';
+            int nameStart = closing ? i + 2 : i + 1;
+            long tagLine = line;
+
+            int valueStart = tagEnd + 1;
+            int valueEnd = valueStart;
+            while (valueEnd < limit && data.get(valueEnd) != '<') {
+                if (data.get(valueEnd) == '\n')
+                    line++;
+                valueEnd++;
+            }
+
+            if (StatementValues.equalsIgnoreCase(data, nameStart, tagEnd, STMTTRN)) {
+                if (!closing) {
+                    inTransaction = true;
+                    transactionLine = tagLine;
+                    amount[0] = posted[0] = memo[0] = name[0] = -1;
+                } else if (inTransaction) {
+                    inTransaction = false;
+                    emit(data, transactionLine, amount, posted, memo, name, tagEnd + 1, handler);
+                }
+            } else if (inTransaction && !closing) {
+                int[] target = null;
+                if (StatementValues.equalsIgnoreCase(data, nameStart, tagEnd, TRNAMT))
+                    target = amount;
+                else if (StatementValues.equalsIgnoreCase(data, nameStart, tagEnd, DTPOSTED))
+                    target = posted;
+                else if (StatementValues.equalsIgnoreCase(data, nameStart, tagEnd, MEMO))
+                    target = memo;
+                else if (StatementValues.equalsIgnoreCase(data, nameStart, tagEnd, NAME))
+                    target = name;
+
+                if (target != null) {
+                    target[0] = valueStart;
+                    target[1] = valueEnd;
+                }
+            }
+            i = valueEnd;
+        }
+    }
+
+    private static void emit(ByteBuffer data, long line, int[] amount, int[] posted, int[] memo, int[] name,
+                             int endOffset, StatementRowHandler handler) {
+        if (amount[0] < 0 || posted[0] < 0) {
+            handler.error(line, "Transaction is missing TRNAMT or DTPOSTED");
+            return;
+        }
+
+        // DTPOSTED is YYYYMMDD optionally followed by time and zone
+        String rawDate = StatementValues.decode(data, posted[0], posted[1]);
+        LocalDate date = rawDate.length() >= 8 ? StatementValues.parseDate(rawDate.substring(0, 8)) : null;
+        if (date == null) {
+            handler.error(line, "Unrecognized DTPOSTED '" + rawDate + "'");
+            return;
+        }
+
+        String rawAmount = StatementValues.decode(data, amount[0], amount[1]);
+        BigDecimal value = StatementValues.parseAmount(rawAmount);
+        if (value == null) {
+            handler.error(line, "Unrecognized TRNAMT '" + rawAmount + "'");
+            return;
+        }
+
+        int[] description = memo[0] >= 0 ? memo : name;
+        String text = description[0] >= 0 ? unescape(StatementValues.decode(data, description[0], description[1])) : null;
+        handler.row(new StatementRow(line, date, value, text == null || text.isEmpty() ? null : text, endOffset));
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('&') < 0)
+            return value;
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+    }
+
+    private static byte[] ascii(String tag) {
+        return tag.getBytes(StandardCharsets.US_ASCII);
+    }
+}
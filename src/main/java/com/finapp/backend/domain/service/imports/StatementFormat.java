@@ -0,0 +1,35 @@
+package com.finapp.backend.domain.service.imports;
+
+import com.finapp.backend.exception.ApiErrorCode;
+import com.finapp.backend.exception.ApiException;
+
+public enum StatementFormat {
+    CSV(new CsvStatementParser()),
+    OFX(new OfxStatementParser());
+
+    private final StatementParser parser;
+
+    StatementFormat(StatementParser parser) {
+        this.parser = parser;
+    }
+
+    public StatementParser parser() {
+        return parser;
+    }
+
+    public String extension() {
+        return name().toLowerCase();
+    }
+
+    // banks name their exports freely, the extension is the only reliable hint
+    public static StatementFormat ofFileName(String fileName) {
+        if (fileName != null) {
+            String lower = fileName.toLowerCase();
+            if (lower.endsWith(".csv"))
+                return CSV;
+            if (lower.endsWith(".ofx"))
+                return OFX;
+        }
+        throw new ApiException(ApiErrorCode.INVALID_IMPORT_FILE);
+    }
+}
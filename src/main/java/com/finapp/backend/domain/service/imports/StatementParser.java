@@ -0,0 +1,9 @@
+package com.finapp.backend.domain.service.imports;
+
+import java.nio.ByteBuffer;
+
+/** Parses a statement straight from its mapped bytes. */
+public interface StatementParser {
+
+    void parse(ByteBuffer data, StatementRowHandler handler);
+}
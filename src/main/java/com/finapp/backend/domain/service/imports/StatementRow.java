@@ -0,0 +1,8 @@
+package com.finapp.backend.domain.service.imports;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// amount keeps the statement's sign, endOffset is the byte after the row and drives progress reporting
+public record StatementRow(long line, LocalDate date, BigDecimal amount, String description, int endOffset) {
+}
@@ -0,0 +1,8 @@
+package com.finapp.backend.domain.service.imports;
+
+public interface StatementRowHandler {
+
+    void row(StatementRow row);
+
+    void error(long line, String message);
+}
@@ -0,0 +1,83 @@
+package com.finapp.backend.domain.service.imports;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+// field decoding shared by the parsers, each method returns null when the value cannot be read
+final class StatementValues {
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.BASIC_ISO_DATE
+    );
+
+    private StatementValues() {
+    }
+
+    static String decode(ByteBuffer data, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        data.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8).trim();
+    }
+
+    static LocalDate parseDate(String value) {
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format);
+            } catch (DateTimeParseException ignored) {
+                // try the next layout
+            }
+        }
+        return null;
+    }
+
+    // accepts 1234.56, 1,234.56, 1.234,56, 1234,56 and (12.00) for negatives; the last separator is the decimal one
+    static BigDecimal parseAmount(String value) {
+        StringBuilder digits = new StringBuilder(value.length());
+        boolean negative = false;
+        int lastDot = value.lastIndexOf('.');
+        int lastComma = value.lastIndexOf(',');
+        int decimalSeparator = Math.max(lastDot, lastComma);
+        // a separator seen more than once is grouping thousands, not marking decimals
+        if (decimalSeparator >= 0 && value.indexOf(value.charAt(decimalSeparator)) != decimalSeparator)
+            decimalSeparator = -1;
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9')
+                digits.append(c);
+            else if (c == '-' || c == '(')
+                negative = true;
+            else if (i == decimalSeparator)
+                digits.append('.');
+        }
+
+        if (digits.chars().noneMatch(Character::isDigit))
+            return null;
+        try {
+            BigDecimal amount = new BigDecimal(digits.toString());
+            return negative ? amount.negate() : amount;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static boolean equalsIgnoreCase(ByteBuffer data, int start, int end, byte[] upperCaseAscii) {
+        if (end - start != upperCaseAscii.length)
+            return false;
+        for (int i = 0; i < upperCaseAscii.length; i++) {
+            byte b = data.get(start + i);
+            if (b >= 'a' && b <= 'z')
+                b -= 32;
+            if (b != upperCaseAscii[i])
+                return false;
+        }
+        return true;
+    }
+}
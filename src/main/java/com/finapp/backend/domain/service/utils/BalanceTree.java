@@ -0,0 +1,58 @@
+package com.finapp.backend.domain.service.utils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Node arithmetic of the Fenwick trees behind as-of-date balances. */
+public final class BalanceTree {
+
+    public static final LocalDate ORIGIN = LocalDate.of(1900, 1, 1);
+    public static final int SIZE = 1 << 17; // about 358 years of days, node SIZE covers all of them
+
+    private BalanceTree() {
+    }
+
+    // deposits dated before the origin count from its first day, dates past the end read the whole tree
+    public static int dayOf(LocalDate date) {
+        long day = ChronoUnit.DAYS.between(ORIGIN, date) + 1;
+        return (int) Math.max(1, Math.min(SIZE, day));
+    }
+
+    public static List<Integer> updatePath(int day) {
+        List<Integer> nodes = new ArrayList<>();
+        for (int node = day; node <= SIZE; node += node & -node)
+            nodes.add(node);
+        return nodes;
+    }
+
+    public static List<Integer> queryPath(int day) {
+        List<Integer> nodes = new ArrayList<>();
+        for (int node = day; node > 0; node -= node & -node)
+            nodes.add(node);
+        return nodes;
+    }
+
+    // per-node deltas for a set of daily changes, merged so each node is written once; sorted to keep lock order stable
+    public static Map<Integer, BigDecimal> nodeDeltas(Map<LocalDate, BigDecimal> dailyChanges) {
+        Map<Integer, BigDecimal> nodes = new TreeMap<>();
+        dailyChanges.forEach((date, change) -> {
+            if (change.signum() != 0)
+                updatePath(dayOf(date)).forEach(node -> nodes.merge(node, change, BigDecimal::add));
+        });
+        nodes.values().removeIf(total -> total.signum() == 0);
+        return nodes;
+    }
+
+    // nodes missing from the map have never been written and hold zero
+    public static BigDecimal balanceAt(int day, Map<Integer, BigDecimal> nodes) {
+        BigDecimal balance = BigDecimal.ZERO;
+        for (int node : queryPath(day))
+            balance = balance.add(nodes.getOrDefault(node, BigDecimal.ZERO));
+        return balance;
+    }
+}
@@ -0,0 +1,50 @@
+package com.finapp.backend.domain.service.utils;
+
+import com.finapp.backend.domain.repository.projection.DepositView;
+import com.finapp.backend.dto.deposit.CursorPage;
+import com.finapp.backend.exception.ApiErrorCode;
+import com.finapp.backend.exception.ApiException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/** Opaque position of the last deposit a client has seen in a (date desc, id desc) listing. */
+public record DepositCursor(LocalDate date, UUID id) {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // callers fetch one row more than the page size, its presence is what tells there is a next page
+    public static <T> CursorPage<T> toPage(List<DepositView> rows, int size, Function<DepositView, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<DepositView> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? after(page.get(size - 1)).encode() : null;
+        return new CursorPage<>(page.stream().map(mapper).toList(), nextCursor);
+    }
+
+    public static int pageSize(int requested) {
+        return Math.clamp(requested, 1, MAX_PAGE_SIZE);
+    }
+
+    public static DepositCursor after(DepositView deposit) {
+        return new DepositCursor(deposit.date(), deposit.id());
+    }
+
+    public static DepositCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new DepositCursor(LocalDate.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ApiException(ApiErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    public String encode() {
+        String raw = date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,124 @@
+package com.finapp.backend.domain.service.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.finapp.backend.domain.model.enums.TransactionType;
+import com.finapp.backend.domain.repository.projection.DepositView;
+import com.finapp.backend.dto.deposit.DepositExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/** Writes deposit rows to an output stream one at a time. */
+public final class DepositExportWriter {
+
+    static final int FLUSH_EVERY = 500;
+
+    private static final String CSV_HEADER = "id,date,transactionType,amount,description,fundBoxId,fundBoxName,ownerId,ownerName";
+    private static final JsonFactory JSON_FACTORY = new JsonFactoryBuilder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .rootValueSeparator((String) null)
+            .build();
+
+    private DepositExportWriter() {
+    }
+
+    public static long write(DepositExportFormat format, Iterator<DepositView> rows, OutputStream out) throws IOException {
+        return switch (format) {
+            case CSV -> writeCsv(rows, out);
+            case NDJSON -> writeNdjson(rows, out);
+        };
+    }
+
+    private static long writeCsv(Iterator<DepositView> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        long count = 0;
+        while (rows.hasNext()) {
+            DepositView row = rows.next();
+            writer.write(row.id().toString());
+            writer.write(',');
+            writer.write(row.date().toString());
+            writer.write(',');
+            writer.write(row.transactionType().name());
+            writer.write(',');
+            writer.write(signedAmount(row).toPlainString());
+            writer.write(',');
+            writeCsvField(writer, row.description());
+            writer.write(',');
+            writer.write(row.fundBoxId() != null ? row.fundBoxId().toString() : "");
+            writer.write(',');
+            writeCsvField(writer, row.fundBoxName());
+            writer.write(',');
+            writer.write(row.userId().toString());
+            writer.write(',');
+            writeCsvField(writer, row.userName());
+            writer.write('\n');
+
+            if (++count % FLUSH_EVERY == 0)
+                writer.flush();
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static long writeNdjson(Iterator<DepositView> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            while (rows.hasNext()) {
+                DepositView row = rows.next();
+                generator.writeStartObject();
+                generator.writeStringField("id", row.id().toString());
+                generator.writeStringField("date", row.date().toString());
+                generator.writeStringField("transactionType", row.transactionType().name());
+                generator.writeFieldName("amount");
+                generator.writeNumber(signedAmount(row));
+                generator.writeStringField("description", row.description());
+                generator.writeStringField("fundBoxId", row.fundBoxId() != null ? row.fundBoxId().toString() : null);
+                generator.writeStringField("fundBoxName", row.fundBoxName());
+                generator.writeStringField("ownerId", row.userId().toString());
+                generator.writeStringField("ownerName", row.userName());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+
+                if (++count % FLUSH_EVERY == 0)
+                    generator.flush();
+            }
+        }
+        return count;
+    }
+
+    // same sign convention as DepositResponse
+    private static BigDecimal signedAmount(DepositView row) {
+        return row.transactionType() == TransactionType.EXIT ? row.amount().negate() : row.amount();
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null)
+            return;
+
+        // spreadsheets evaluate cells starting with these as formulas, the quote makes them plain text
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0)
+            value = "'" + value;
+
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
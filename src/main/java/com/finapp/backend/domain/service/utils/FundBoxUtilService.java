@@ -1,5 +1,6 @@
 package com.finapp.backend.domain.service.utils;
 
+import com.finapp.backend.dto.deposit.CursorPage;
 import com.finapp.backend.dto.deposit.DepositResponse;
 import com.finapp.backend.dto.deposit.FundBoxInfo;
 import com.finapp.backend.dto.fundbox.CreateFundBoxRequest;
@@ -10,33 +11,48 @@ import com.finapp.backend.dto.user.InviteResponse;
 import com.finapp.backend.dto.user.UserSummary;
 import com.finapp.backend.exception.ApiErrorCode;
 import com.finapp.backend.exception.ApiException;
-import com.finapp.backend.domain.model.Deposit;
 import com.finapp.backend.domain.model.FundBox;
 import com.finapp.backend.domain.model.FundBoxInvitation;
+import com.finapp.backend.domain.model.FundBoxMember;
 import com.finapp.backend.domain.model.User;
+import com.finapp.backend.domain.model.enums.FundBoxRole;
 import com.finapp.backend.domain.model.enums.TransactionType;
+import com.finapp.backend.domain.repository.FundBoxBalanceRepository;
 import com.finapp.backend.domain.repository.FundBoxInvitationRepository;
 import com.finapp.backend.domain.repository.UserRepository;
 import com.finapp.backend.domain.repository.DepositRepository;
 import com.finapp.backend.domain.repository.FundBoxRepository;
+import com.finapp.backend.domain.repository.projection.DepositView;
+import com.finapp.backend.domain.repository.projection.FundBoxView;
+import com.finapp.backend.domain.repository.projection.InviteView;
+import com.finapp.backend.security.FundBoxMembershipIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class FundBoxUtilService {
 
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
     private final UserRepository userRepository;
     private final FundBoxRepository fundBoxRepository;
     private final DepositRepository depositRepository;
     private final FundBoxInvitationRepository fundBoxInvitationRepository;
-    private final UserUtilService userUtilService;
+    private final FundBoxBalanceRepository fundBoxBalanceRepository;
+    private final FundBoxMembershipIndex membershipIndex;
 
     public boolean fundBoxExists(UUID userId, String name) {
         return fundBoxRepository.existsByOwnerIdAndName(userId, name.trim());
@@ -48,96 +64,129 @@ public class FundBoxUtilService {
         fundBox.setFinancialGoal(request.financialGoal());
         fundBox.setTargetDate(request.targetDate());
         fundBox.setOwner(user);
+
+        FundBoxMember owner = new FundBoxMember();
+        owner.setFundBox(fundBox);
+        owner.setUser(user);
+        owner.setRole(FundBoxRole.OWNER);
+        fundBox.setMembers(new HashSet<>(Set.of(owner)));
         return fundBox;
     }
 
-    public FundBoxResponse buildFundBoxResponse(FundBox fundBox, User user) {
+    public FundBoxResponse buildFundBoxResponse(FundBox fundBox, User user, BigDecimal balance) {
+        return buildFundBoxResponse(fundBox, new OwnerResponse(user.getId(), user.getName()), balance);
+    }
+
+    public FundBoxResponse buildFundBoxResponse(FundBox fundBox, OwnerResponse owner, BigDecimal balance) {
         return new FundBoxResponse(
                 fundBox.getId(),
                 fundBox.getName(),
                 fundBox.getFinancialGoal(),
                 fundBox.getTargetDate(),
-                new OwnerResponse(user.getId(), user.getName())
+                owner,
+                balance,
+                goalProgress(balance, fundBox.getFinancialGoal()),
+                daysRemaining(fundBox.getTargetDate())
         );
     }
 
-    public FundBox getFundBoxById(UUID fundBoxId, User user) {
-        return fundBoxRepository.findByIdAndUserIsOwnerOrCollaborator(fundBoxId, user.getId())
+    public FundBox getFundBoxById(UUID fundBoxId, UUID userId) {
+        checkAccess(fundBoxId, userId);
+        return fundBoxRepository.findByIdAndDeletionRequestedAtIsNull(fundBoxId)
                 .orElseThrow(() -> new ApiException(ApiErrorCode.FUND_BOX_NOT_FOUND));
     }
 
-    public BigDecimal calculateBalance(UUID fundBoxId) {
-        BigDecimal entryTotal = Optional.ofNullable(
-                depositRepository.sumByFundBoxIdAndTransactionType(fundBoxId, TransactionType.ENTRY)
-        ).orElse(BigDecimal.ZERO);
+    // for callers that only need to know the user may act on the box, nothing is loaded
+    public void checkAccess(UUID fundBoxId, UUID userId) {
+        if (!membershipIndex.isMember(userId, fundBoxId))
+            throw new ApiException(ApiErrorCode.FUND_BOX_NOT_FOUND);
+    }
 
-        BigDecimal exitTotal = Optional.ofNullable(
-                depositRepository.sumByFundBoxIdAndTransactionType(fundBoxId, TransactionType.EXIT)
-        ).orElse(BigDecimal.ZERO);
+    public FundBoxView getFundBoxViewById(UUID fundBoxId, UUID userId) {
+        return fundBoxRepository.findViewByIdAndMemberId(fundBoxId, userId)
+                .orElseThrow(() -> new ApiException(ApiErrorCode.FUND_BOX_NOT_FOUND));
+    }
 
-        return entryTotal.subtract(exitTotal);
+    // sum of the box's balance slots, kept up to date by BalanceService
+    public BigDecimal calculateBalance(UUID fundBoxId) {
+        return fundBoxBalanceRepository.sumBalance(fundBoxId.toString());
     }
 
     public Page<DepositResponse> getDepositResponses(UUID fundBoxId, Pageable pageable) {
-        Page<Deposit> depositPage = depositRepository.findByFundBoxId(fundBoxId, pageable);
-
-        return depositPage.map(deposit -> {
-            com.finapp.backend.dto.deposit.FundBoxInfo fundBoxInfo = new FundBoxInfo(
-                    deposit.getFundBox().getId(),
-                    deposit.getFundBox().getName()
-            );
-
-            OwnerResponse ownerInfo = null;
-            if (deposit.getUser() != null) {
-                ownerInfo = new OwnerResponse(
-                        deposit.getUser().getId(),
-                        deposit.getUser().getName()
-                );
-            }
-
-            return new DepositResponse(
-                    deposit.getId(),
-                    deposit.getTransactionType() == TransactionType.EXIT
-                            ? deposit.getAmount().negate()
-                            : deposit.getAmount(),
-                    deposit.getDate(),
-                    deposit.getDescription(),
-                    fundBoxInfo,
-                    deposit.getTransactionType().toString(),
-                    ownerInfo
-            );
-        });
-    }
-
-    public FundBoxInvitation validateInvitationForUser(UUID invitationId, String email) {
+        return depositRepository.findViewsByFundBoxId(fundBoxId, pageable).map(this::toDepositResponse);
+    }
+
+    public CursorPage<DepositResponse> getDepositResponses(UUID fundBoxId, String cursor, int size) {
+        int pageSize = DepositCursor.pageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<DepositView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = depositRepository.findViewsByFundBoxId(fundBoxId, limit);
+        } else {
+            DepositCursor after = DepositCursor.decode(cursor);
+            rows = depositRepository.findViewsByFundBoxIdAfter(fundBoxId, after.date(), after.id(), limit);
+        }
+        return DepositCursor.toPage(rows, pageSize, this::toDepositResponse);
+    }
+
+    public FundBoxInvitation validateInvitationForUser(UUID invitationId, UUID userId) {
         FundBoxInvitation invitation = fundBoxInvitationRepository.findById(invitationId)
                 .orElseThrow(() -> new ApiException(ApiErrorCode.INVITATION_NOT_FOUND));
 
-        User user = userUtilService.getUserByEmail(email);
-        if (!invitation.getInvitee().getId().equals(user.getId())) {
+        if (!invitation.getInvitee().getId().equals(userId)) {
             throw new ApiException(ApiErrorCode.FORBIDDEN_ACTION);
         }
 
         return invitation;
     }
 
-    public InviteResponse toInviteResponse(FundBoxInvitation invite) {
+    public InviteResponse toInviteResponse(InviteView invite) {
         InviteResponse response = new InviteResponse();
-        response.setInviteId(invite.getId());
-        response.setFundBox(new FundBoxSummary(
-                invite.getFundBox().getId(),
-                invite.getFundBox().getName()
-        ));
-        response.setInviter(new UserSummary(
-                invite.getInviter().getId(),
-                invite.getInviter().getName()
-        ));
-        response.setInvitee(new UserSummary(
-                invite.getInvitee().getId(),
-                invite.getInvitee().getName()
-        ));
-        response.setStatus(invite.getStatus().name());
-        response.setInvitationDate(invite.getInvitationDate());
+        response.setInviteId(invite.id());
+        response.setFundBox(new FundBoxSummary(invite.fundBoxId(), invite.fundBoxName()));
+        response.setInviter(new UserSummary(invite.inviterId(), invite.inviterName()));
+        response.setInvitee(new UserSummary(invite.inviteeId(), invite.inviteeName()));
+        response.setStatus(invite.status().name());
+        response.setInvitationDate(invite.invitationDate());
         return response;
     }
+
+    public FundBoxResponse toFundBoxResponse(FundBoxView fundBox) {
+        return new FundBoxResponse(
+                fundBox.id(),
+                fundBox.name(),
+                fundBox.financialGoal(),
+                fundBox.targetDate(),
+                new OwnerResponse(fundBox.ownerId(), fundBox.ownerName()),
+                fundBox.balance(),
+                goalProgress(fundBox.balance(), fundBox.financialGoal()),
+                daysRemaining(fundBox.targetDate())
+        );
+    }
+
+    // percentage of the goal saved so far, not capped so an overshoot stays visible
+    private static BigDecimal goalProgress(BigDecimal balance, BigDecimal financialGoal) {
+        if (financialGoal.signum() <= 0)
+            return BigDecimal.ZERO;
+        return balance.multiply(ONE_HUNDRED).divide(financialGoal, 2, RoundingMode.HALF_UP);
+    }
+
+    private static long daysRemaining(LocalDate targetDate) {
+        return Math.max(0, ChronoUnit.DAYS.between(LocalDate.now(), targetDate));
+    }
+
+    public DepositResponse toDepositResponse(DepositView deposit) {
+        return new DepositResponse(
+                deposit.id(),
+                deposit.transactionType() == TransactionType.EXIT
+                        ? deposit.amount().negate()
+                        : deposit.amount(),
+                deposit.date(),
+                deposit.description(),
+                new FundBoxInfo(deposit.fundBoxId(), deposit.fundBoxName()),
+                deposit.transactionType().toString(),
+                new OwnerResponse(deposit.userId(), deposit.userName())
+        );
+    }
 }
@@ -5,6 +5,7 @@ import com.finapp.backend.domain.model.enums.UserStatus;
 import com.finapp.backend.domain.repository.UserRepository;
 import com.finapp.backend.exception.ApiErrorCode;
 import com.finapp.backend.exception.ApiException;
+import com.finapp.backend.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -16,10 +17,15 @@ public class UserUtilService {
 
     private final UserRepository userRepository;
 
-    public User getActiveUserByEmail(String email) {
-        User user = getUserByEmail(email);
-        checkUserStatus(user);
-        return user;
+    // no query: returns a lazy reference usable for associations and id comparisons
+    public User getActiveUserReference(AuthenticatedUser principal) {
+        checkUserStatus(principal);
+        return userRepository.getReferenceById(principal.id());
+    }
+
+    public User getActiveUser(AuthenticatedUser principal) {
+        checkUserStatus(principal);
+        return getUserById(principal.id());
     }
 
     public User getUserByEmail(String email) {
@@ -33,11 +39,19 @@ public class UserUtilService {
     }
 
     public void checkUserStatus(User user) {
-        if (user.getStatus() == UserStatus.PENDING_VERIFICATION)
+        checkUserStatus(user.getStatus());
+    }
+
+    public void checkUserStatus(AuthenticatedUser principal) {
+        checkUserStatus(principal.status());
+    }
+
+    private void checkUserStatus(UserStatus status) {
+        if (status == UserStatus.PENDING_VERIFICATION)
             throw new ApiException(ApiErrorCode.ACCOUNT_NOT_VERIFIED);
-        if (user.getStatus() == UserStatus.DEACTIVATION_REQUESTED)
+        if (status == UserStatus.DEACTIVATION_REQUESTED)
             throw new ApiException(ApiErrorCode.ACCOUNT_DEACTIVATED);
-        if (user.getStatus() == UserStatus.LOCKED)
+        if (status == UserStatus.LOCKED)
             throw new ApiException(ApiErrorCode.ACCOUNT_LOCKED);
     }
 
@@ -0,0 +1,29 @@
+package com.finapp.backend.dto.deposit;
+
+import com.finapp.backend.exception.ApiErrorCode;
+import com.finapp.backend.exception.ApiException;
+
+import java.time.LocalDate;
+
+public enum BalanceInterval {
+    DAY,
+    WEEK,
+    MONTH;
+
+    // counted from the start each time, so monthly points keep their day of month where it exists
+    public LocalDate step(LocalDate from, int count) {
+        return switch (this) {
+            case DAY -> from.plusDays(count);
+            case WEEK -> from.plusWeeks(count);
+            case MONTH -> from.plusMonths(count);
+        };
+    }
+
+    public static BalanceInterval of(String value) {
+        for (BalanceInterval interval : values()) {
+            if (interval.name().equalsIgnoreCase(value))
+                return interval;
+        }
+        throw new ApiException(ApiErrorCode.INVALID_BALANCE_INTERVAL);
+    }
+}
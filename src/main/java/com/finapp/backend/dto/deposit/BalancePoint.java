@@ -0,0 +1,11 @@
+package com.finapp.backend.dto.deposit;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// balance at the end of the given day
+public record BalancePoint(
+        LocalDate date,
+        BigDecimal balance
+) {
+}
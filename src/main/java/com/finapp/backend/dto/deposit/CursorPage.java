@@ -0,0 +1,10 @@
+package com.finapp.backend.dto.deposit;
+
+import java.util.List;
+
+// nextCursor is null once the last page has been returned
+public record CursorPage<T>(
+        List<T> items,
+        String nextCursor
+) {
+}
@@ -0,0 +1,28 @@
+package com.finapp.backend.dto.deposit;
+
+import com.finapp.backend.domain.model.enums.TransactionType;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// field rules are the single-item ones, checked per operation so one bad item does not reject the batch
+@Data
+public class DepositBatchOperation {
+
+    public enum Action { CREATE, UPDATE, DELETE }
+
+    @NotNull(message = "Action is required")
+    private Action action;
+
+    // required for UPDATE and DELETE
+    private UUID depositId;
+
+    private BigDecimal amount;
+    private LocalDate date;
+    private String description;
+    private TransactionType transactionType;
+    private UUID fundBoxId;
+}
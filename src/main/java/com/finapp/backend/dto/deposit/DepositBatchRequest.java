@@ -0,0 +1,16 @@
+package com.finapp.backend.dto.deposit;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class DepositBatchRequest {
+
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 500, message = "A batch accepts at most 500 operations")
+    private List<@Valid DepositBatchOperation> operations;
+}
@@ -0,0 +1,13 @@
+package com.finapp.backend.dto.deposit;
+
+import java.util.UUID;
+
+// status mirrors what the single-item endpoint would have answered, errorCode is set only for failures
+public record DepositBatchResult(
+        int index,
+        DepositBatchOperation.Action action,
+        UUID depositId,
+        int status,
+        String errorCode
+) {
+}
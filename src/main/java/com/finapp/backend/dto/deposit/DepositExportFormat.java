@@ -0,0 +1,33 @@
+package com.finapp.backend.dto.deposit;
+
+import com.finapp.backend.exception.ApiErrorCode;
+import com.finapp.backend.exception.ApiException;
+
+public enum DepositExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    DepositExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static DepositExportFormat of(String value) {
+        for (DepositExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value))
+                return format;
+        }
+        throw new ApiException(ApiErrorCode.INVALID_EXPORT_FORMAT);
+    }
+}
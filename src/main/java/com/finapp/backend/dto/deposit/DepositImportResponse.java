@@ -0,0 +1,26 @@
+package com.finapp.backend.dto.deposit;
+
+import com.finapp.backend.domain.model.enums.ImportJobStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record DepositImportResponse(
+        UUID id,
+        UUID fundBoxId,
+        String fileName,
+        String format,
+        ImportJobStatus status,
+        int progressPercent,
+        long importedRows,
+        long failedRows,
+        List<RowError> errors,
+        String failureReason,
+        LocalDateTime createdAt,
+        LocalDateTime finishedAt
+) {
+
+    public record RowError(long line, String message) {
+    }
+}
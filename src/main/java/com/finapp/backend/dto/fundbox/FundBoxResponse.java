@@ -9,5 +9,8 @@ public record FundBoxResponse(
         String name,
         BigDecimal financialGoal,
         LocalDate targetDate,
-        OwnerResponse owner
+        OwnerResponse owner,
+        BigDecimal balance,
+        BigDecimal goalProgress,
+        long daysRemaining
 ) {}
@@ -21,6 +21,11 @@ public enum ApiErrorCode {
     VALIDATION_ERROR(400, "VALIDATION_ERROR", "Validation failed", "One or more fields did not pass validation"),
     COLLABORATOR_ALREADY_EXISTS(400, "COLLABORATOR_ALREADY_EXISTS", "Collaborator already added", "The user is already a collaborator of this FundBox."),
     COLLABORATOR_CANNOT_BE_OWNER(400, "COLLABORATOR_CANNOT_BE_OWNER", "Invalid collaborator", "The owner of a FundBox cannot be added as a collaborator."),
+    INVALID_CURSOR(400, "INVALID_CURSOR", "Invalid cursor", "The cursor provided is malformed. Use the nextCursor value returned by the previous page."),
+    INVALID_EXPORT_FORMAT(400, "INVALID_EXPORT_FORMAT", "Invalid export format", "The export format is not supported. Use csv or ndjson."),
+    INVALID_IMPORT_FILE(400, "INVALID_IMPORT_FILE", "Invalid import file", "Upload a non-empty .csv or .ofx bank statement."),
+    INVALID_DATE_RANGE(400, "INVALID_DATE_RANGE", "Invalid date range", "The start date must not be after the end date, and the range may hold at most 366 points."),
+    INVALID_BALANCE_INTERVAL(400, "INVALID_BALANCE_INTERVAL", "Invalid interval", "The interval is not supported. Use day, week or month."),
     CANNOT_LEAVE_AS_OWNER(400, "CANNOT_LEAVE_AS_OWNER", "Cannot Leave As Owner", "You cannot leave a FundBox that you own. This method is intended for FundBox collaborators."),
 
     // 401 - Unauthorized
@@ -51,6 +56,7 @@ public enum ApiErrorCode {
     FUND_BOX_NOT_FOUND(404, "FUND_BOX_NOT_FOUND", "FundBox not found", "Unable to find requested FundBox"),
     USER_NOT_FOUND(404, "USER_NOT_FOUND", "User not found", "The user was not found in the database."),
     INVITATION_NOT_FOUND(404, "INVITATION_NOT_FOUND", "Invitation Not Found", "The invitation with the provided ID could not be found. Please check the invitation ID and try again."),
+    IMPORT_JOB_NOT_FOUND(404, "IMPORT_JOB_NOT_FOUND", "Import job not found", "The requested import job was not found."),
     SESSION_NOT_FOUND(404, "SESSION_NOT_FOUND" , "Session not found" , "The session was not found in the database." ),
 
     // 409 - Conflict
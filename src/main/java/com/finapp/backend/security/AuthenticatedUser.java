@@ -0,0 +1,47 @@
+package com.finapp.backend.security;
+
+import com.finapp.backend.domain.model.User;
+import com.finapp.backend.domain.model.enums.UserStatus;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// immutable on purpose: instances are cached and shared, so credentials must never be erased in place
+public record AuthenticatedUser(
+        UUID id,
+        String email,
+        String name,
+        String passwordHash,
+        UserStatus status
+) implements UserDetails {
+
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER")); // can be adapted in the future
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getName(), user.getPasswordHash(), user.getStatus());
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String getPassword() {
+        return passwordHash;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return status != UserStatus.DEACTIVATION_REQUESTED && status != UserStatus.LOCKED;
+    }
+}
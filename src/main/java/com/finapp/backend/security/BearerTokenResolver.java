@@ -0,0 +1,32 @@
+package com.finapp.backend.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+public class BearerTokenResolver {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String VERIFIED_JWT_ATTRIBUTE = VerifiedJwt.class.getName();
+
+    private final JwtUtil jwtUtil;
+
+    // verifies the bearer token at most once per request, later callers read the cached result
+    public Optional<VerifiedJwt> resolve(HttpServletRequest request) {
+        Object cached = request.getAttribute(VERIFIED_JWT_ATTRIBUTE);
+        if (cached instanceof VerifiedJwt verifiedJwt)
+            return Optional.of(verifiedJwt);
+
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX))
+            return Optional.empty();
+
+        VerifiedJwt verifiedJwt = jwtUtil.verify(authHeader.substring(BEARER_PREFIX.length()));
+        request.setAttribute(VERIFIED_JWT_ATTRIBUTE, verifiedJwt);
+        return Optional.of(verifiedJwt);
+    }
+}
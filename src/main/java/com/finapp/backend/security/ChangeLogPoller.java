@@ -0,0 +1,91 @@
+package com.finapp.backend.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/** Carries node-local cache evictions to the other nodes through a (key, changed_at) change table. */
+@Slf4j
+public class ChangeLogPoller {
+
+    static final long SYNC_OVERLAP_MS = 5_000; // tolerates clock skew between nodes
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final String keyColumn;
+    private final boolean uuidKeys;
+    private final Consumer<String> evict;
+    private final long syncIntervalMs;
+    private final long purgeIntervalMs;
+    private final long retentionMs;
+
+    private volatile long lastSync = System.currentTimeMillis();
+
+    private ChangeLogPoller(JdbcTemplate jdbcTemplate, Environment environment, String propertyPrefix,
+                            String table, String keyColumn, boolean uuidKeys, Consumer<String> evict) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+        this.keyColumn = keyColumn;
+        this.uuidKeys = uuidKeys;
+        this.evict = evict;
+        this.syncIntervalMs = environment.getProperty(propertyPrefix + ".sync-interval-ms", Long.class, 5_000L);
+        this.purgeIntervalMs = environment.getProperty(propertyPrefix + ".purge-interval-ms", Long.class, 600_000L);
+        this.retentionMs = environment.getProperty(propertyPrefix + ".change-retention-ms", Long.class, 3_600_000L);
+    }
+
+    public static ChangeLogPoller ofTextKeys(JdbcTemplate jdbcTemplate, Environment environment, String propertyPrefix,
+                                             String table, String keyColumn, Consumer<String> evict) {
+        return new ChangeLogPoller(jdbcTemplate, environment, propertyPrefix, table, keyColumn, false, evict);
+    }
+
+    // the key column is BINARY(16), keys are handed over and back in their text form
+    public static ChangeLogPoller ofUuidKeys(JdbcTemplate jdbcTemplate, Environment environment, String propertyPrefix,
+                                             String table, String keyColumn, Consumer<String> evict) {
+        return new ChangeLogPoller(jdbcTemplate, environment, propertyPrefix, table, keyColumn, true, evict);
+    }
+
+    public void recordChange(Collection<String> keys) {
+        if (keys.isEmpty())
+            return;
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO " + table + " (" + keyColumn + ", changed_at) VALUES (" + (uuidKeys ? "UUID_TO_BIN(?)" : "?") + ", ?)",
+                keys.stream().map(key -> new Object[]{key, now}).toList()
+        );
+    }
+
+    // changes committed while the node was starting are already reflected, the cache starts empty
+    public void start(TaskScheduler scheduler) {
+        lastSync = System.currentTimeMillis();
+        scheduler.scheduleWithFixedDelay(this::syncChanges, Duration.ofMillis(syncIntervalMs));
+        scheduler.scheduleWithFixedDelay(this::purgeChanges, Duration.ofMillis(purgeIntervalMs));
+    }
+
+    // picks up changes made by other nodes
+    private void syncChanges() {
+        long now = System.currentTimeMillis();
+        List<String> changed = jdbcTemplate.queryForList(
+                "SELECT DISTINCT " + (uuidKeys ? "BIN_TO_UUID(" + keyColumn + ")" : keyColumn) + " FROM " + table + " WHERE changed_at > ?",
+                String.class, new Timestamp(lastSync - SYNC_OVERLAP_MS)
+        );
+        changed.forEach(evict);
+        lastSync = now;
+    }
+
+    private void purgeChanges() {
+        int purged = jdbcTemplate.update(
+                "DELETE FROM " + table + " WHERE changed_at < ?",
+                new Timestamp(System.currentTimeMillis() - retentionMs)
+        );
+        if (purged > 0)
+            log.debug("Purged {} rows from {}", purged, table);
+    }
+}
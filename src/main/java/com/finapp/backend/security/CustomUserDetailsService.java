@@ -1,15 +1,16 @@
 package com.finapp.backend.security;
 
-import com.finapp.backend.domain.model.User;
-import com.finapp.backend.domain.model.enums.UserStatus;
 import com.finapp.backend.domain.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    public static final String USER_PRINCIPALS_CACHE = "userPrincipals";
+
     private final UserRepository userRepository;
 
     @Autowired
@@ -17,19 +18,18 @@ public class CustomUserDetailsService implements UserDetailsService {
         this.userRepository = userRepository;
     }
 
+    // used by the authentication manager to check login passwords, always read from the database
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository
+    public AuthenticatedUser loadUserByUsername(String email) throws UsernameNotFoundException {
+        return userRepository
                 .findByEmail(email)
+                .map(AuthenticatedUser::from)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+    }
 
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getEmail())
-                .password(user.getPasswordHash())
-                .roles("USER") // can be adapted in the future
-                .accountLocked(
-                        user.getStatus() == UserStatus.DEACTIVATION_REQUESTED || user.getStatus() == UserStatus.LOCKED
-                )
-                .build();
+    // for token-authenticated requests; evicted through UserPrincipalCache whenever the user's password, status or name changes
+    @Cacheable(cacheNames = USER_PRINCIPALS_CACHE)
+    public AuthenticatedUser loadPrincipal(String email) throws UsernameNotFoundException {
+        return loadUserByUsername(email);
     }
 }
@@ -0,0 +1,75 @@
+package com.finapp.backend.security;
+
+import com.finapp.backend.domain.model.enums.FundBoxRole;
+import com.finapp.backend.domain.repository.FundBoxMemberRepository;
+import com.finapp.backend.domain.repository.projection.Membership;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/** Node-local view of which fund boxes each user belongs to and with which role. */
+@Component
+public class FundBoxMembershipIndex {
+
+    public static final String FUND_BOX_MEMBERSHIPS_CACHE = "fundBoxMemberships";
+
+    private final FundBoxMemberRepository fundBoxMemberRepository;
+    private final Cache memberships;
+    private final ChangeLogPoller changeLog;
+    private final TaskScheduler taskScheduler;
+
+    public FundBoxMembershipIndex(FundBoxMemberRepository fundBoxMemberRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  CacheManager cacheManager,
+                                  Environment environment,
+                                  TaskScheduler taskScheduler) {
+        this.fundBoxMemberRepository = fundBoxMemberRepository;
+        this.memberships = Objects.requireNonNull(cacheManager.getCache(FUND_BOX_MEMBERSHIPS_CACHE));
+        this.changeLog = ChangeLogPoller.ofUuidKeys(jdbcTemplate, environment, "security.membership-index",
+                "fund_box_membership_change", "user_id", userId -> memberships.evict(UUID.fromString(userId)));
+        this.taskScheduler = taskScheduler;
+    }
+
+    public Optional<FundBoxRole> roleOf(UUID userId, UUID fundBoxId) {
+        return Optional.ofNullable(membershipsOf(userId).get(fundBoxId));
+    }
+
+    public boolean isMember(UUID userId, UUID fundBoxId) {
+        return membershipsOf(userId).containsKey(fundBoxId);
+    }
+
+    public Set<UUID> fundBoxIdsOf(UUID userId) {
+        return membershipsOf(userId).keySet();
+    }
+
+    public void evict(Collection<UUID> userIds) {
+        userIds.forEach(memberships::evict);
+    }
+
+    public void recordChange(Collection<UUID> userIds) {
+        changeLog.recordChange(userIds.stream().map(UUID::toString).toList());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSync() {
+        changeLog.start(taskScheduler);
+    }
+
+    private Map<UUID, FundBoxRole> membershipsOf(UUID userId) {
+        return memberships.get(userId, () -> fundBoxMemberRepository.findMembershipsByUserId(userId).stream()
+                .collect(Collectors.toUnmodifiableMap(Membership::fundBoxId, Membership::role)));
+    }
+}
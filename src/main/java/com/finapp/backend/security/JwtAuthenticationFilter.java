@@ -1,8 +1,6 @@
 package com.finapp.backend.security;
 
 import com.finapp.backend.exception.*;
-import com.finapp.backend.domain.model.UserToken;
-import com.finapp.backend.domain.repository.UserTokenRepository;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -18,15 +16,15 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.io.IOException;
-import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final BearerTokenResolver bearerTokenResolver;
     private final CustomUserDetailsService userDetailsService;
-    private final UserTokenRepository userTokenRepository;
+    private final TokenRevocationIndex tokenRevocationIndex;
     private final HandlerExceptionResolver handlerExceptionResolver;
 
     @Override
@@ -35,20 +33,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain)
             throws ServletException, IOException {
 
-        final String authHeader = request.getHeader("Authorization");
-
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        final String jwt = authHeader.substring(7);
-
         try {
-            final String userEmail = jwtUtil.extractUsername(jwt);
+            final VerifiedJwt jwt = bearerTokenResolver.resolve(request).orElse(null);
+            final String userEmail = jwt != null ? jwt.subject() : null;
+
+            if (jwt != null && !jwt.isAccessToken()) {
+                handlerExceptionResolver.resolveException(request, response, null,
+                        new ApiException(ApiErrorCode.INVALID_ACCESS_TOKEN));
+                return;
+            }
 
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+                UserDetails userDetails = userDetailsService.loadPrincipal(userEmail);
 
                 if (!jwtUtil.isTokenValid(jwt, userDetails)) {
                     handlerExceptionResolver.resolveException(request, response, null,
@@ -56,8 +52,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     return;
                 }
 
-                Optional<UserToken> userTokenOpt = userTokenRepository.findByAccessTokenAndRevokedFalse(jwt);
-                if (userTokenOpt.isEmpty() || jwtUtil.isTokenExpired(jwt)) {
+                // expiration was already enforced while verifying the token
+                if (tokenRevocationIndex.isRevoked(jwt)) {
                     handlerExceptionResolver.resolveException(request, response, null,
                             new ApiException(ApiErrorCode.EXPIRED_SESSION));
                     return;
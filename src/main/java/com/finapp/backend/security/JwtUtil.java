@@ -1,6 +1,7 @@
 package com.finapp.backend.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,18 +13,35 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    private static final long REFRESH_TOKEN_DURATION_MS = 7 * 24 * 60 * 60 * 1000L; // 7 days
+
+    // both token kinds share key and subject, the type claim keeps a refresh token from passing as a bearer token
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+    public static final String ACCESS_TOKEN_TYPE = "access";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
     private final Key secretKey;
     private final long jwtExpirationMs;
+    private final JwtParser jwtParser; // immutable and thread-safe, built once
 
     public JwtUtil(@Value("${jwt.secret}") String secret,
                    @Value("${jwt.expiration-ms:3600000}") long jwtExpirationMs) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.jwtExpirationMs = jwtExpirationMs;
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+    }
+
+    // parses and verifies the signature and expiration once, throwing JwtException on failure
+    public VerifiedJwt verify(String token) {
+        return VerifiedJwt.of(token, extractAllClaims(token));
     }
 
     public String extractUsername(String token) {
@@ -40,50 +58,54 @@ public class JwtUtil {
     }
 
 
-    public String generateToken(UserDetails userDetails) {
+    public VerifiedJwt generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername());
+        claims.put(TOKEN_TYPE_CLAIM, ACCESS_TOKEN_TYPE);
+        return createToken(claims, userDetails.getUsername(), jwtExpirationMs);
     }
 
-    public String generateRefreshToken(UserDetails userDetails) {
+    public VerifiedJwt generateRefreshToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
-
-        long refreshTokenDuration = 7 * 24 * 60 * 60 * 1000; // 7 days
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + refreshTokenDuration))
-                .signWith(secretKey)
-                .compact();
+        claims.put(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE);
+        return createToken(claims, userDetails.getUsername(), REFRESH_TOKEN_DURATION_MS);
     }
 
 
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername());
+        return isTokenValid(verify(token), userDetails);
+    }
+
+    public boolean isTokenValid(VerifiedJwt jwt, UserDetails userDetails) {
+        return jwt.subject() != null && jwt.subject().equals(userDetails.getUsername());
     }
 
     public boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
 
-    private String createToken(Map<String, Object> claims, String subject) {
-        return Jwts.builder()
+    private VerifiedJwt createToken(Map<String, Object> claims, String subject, long durationMs) {
+        // JWT dates have second precision, truncate so the returned dates match what a parser would read back
+        long now = System.currentTimeMillis() / 1000 * 1000;
+        Date issuedAt = new Date(now);
+        Date expiration = new Date((now + durationMs) / 1000 * 1000);
+        // a unique jti keeps two tokens issued in the same second distinct, so their digests never collide
+        String tokenId = UUID.randomUUID().toString();
+
+        String token = Jwts.builder()
                 .setClaims(claims)
+                .setId(tokenId)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
+                .setIssuedAt(issuedAt)
+                .setExpiration(expiration)
                 .signWith(secretKey)
                 .compact();
+
+        return new VerifiedJwt(token, tokenId, subject, issuedAt, expiration, (String) claims.get(TOKEN_TYPE_CLAIM));
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
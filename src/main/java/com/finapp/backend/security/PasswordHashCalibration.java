@@ -0,0 +1,38 @@
+package com.finapp.backend.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+@Slf4j
+public final class PasswordHashCalibration {
+
+    private static final String SAMPLE_PASSWORD = "Calibration-Sample-1";
+    private static final int SAMPLES = 3;
+
+    private PasswordHashCalibration() {
+    }
+
+    // each BCrypt cost step doubles the work, so one measurement at the floor predicts the others
+    public static int bcryptStrength(Duration budget, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        int strength = minStrength;
+        long predictedNanos = bestNanos;
+        while (strength < maxStrength && predictedNanos * 2 <= budget.toNanos()) {
+            strength++;
+            predictedNanos *= 2;
+        }
+
+        log.info("BCrypt cost {} selected, ~{} ms per hash for a {} ms budget",
+                strength, Duration.ofNanos(predictedNanos).toMillis(), budget.toMillis());
+        return strength;
+    }
+}
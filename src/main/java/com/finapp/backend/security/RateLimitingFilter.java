@@ -2,51 +2,46 @@ package com.finapp.backend.security;
 
 import com.finapp.backend.exception.ApiException;
 import com.finapp.backend.exception.ApiErrorCode;
+import com.finapp.backend.security.ratelimit.CounterSnapshot;
+import com.finapp.backend.security.ratelimit.CounterStore;
+import com.finapp.backend.security.ratelimit.GcraRateLimiter;
+import com.finapp.backend.security.ratelimit.RateLimitDecision;
+import com.finapp.backend.security.ratelimit.RateLimitPolicy;
+import com.finapp.backend.security.ratelimit.RateLimitProperties;
+import com.finapp.backend.security.ratelimit.RouteGroup;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.io.IOException;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
+@Slf4j
 public class RateLimitingFilter extends OncePerRequestFilter {
 
-    private static final int MAX_REQUESTS_PER_MINUTE = 5;
-
-    private static class RequestInfo {
-        int count;
-        long timestamp;
-
-        RequestInfo() {
-            this.count = 1;
-            this.timestamp = System.currentTimeMillis();
-        }
-
-        void increment() {
-            this.count++;
-        }
-
-        void reset() {
-            this.count = 1;
-            this.timestamp = System.currentTimeMillis();
-        }
-    }
-
-    private final JwtUtil jwtUtil;
-    private final Map<String, RequestInfo> requestCounts = new ConcurrentHashMap<>();
+    private final BearerTokenResolver bearerTokenResolver;
+    private final CounterStore counterStore;
+    private final Map<RouteGroup, GcraRateLimiter> limiters = new EnumMap<>(RouteGroup.class);
 
     @Autowired
     private HandlerExceptionResolver handlerExceptionResolver;
 
+    public RateLimitingFilter(BearerTokenResolver bearerTokenResolver, CounterStore counterStore, RateLimitProperties properties) {
+        this.bearerTokenResolver = bearerTokenResolver;
+        this.counterStore = counterStore;
+        for (RouteGroup group : RouteGroup.values())
+            limiters.put(group, new GcraRateLimiter(properties.policyFor(group)));
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -54,38 +49,54 @@ public class RateLimitingFilter extends OncePerRequestFilter {
                                     FilterChain filterChain)
             throws ServletException, IOException {
 
-        final String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
+        RouteGroup group = RouteGroup.of(request);
+        String clientKey = resolveClientKey(request);
+        RateLimitDecision decision = applyClusterLimit(group, clientKey, limiters.get(group).tryAcquire(clientKey));
+
+        if (!decision.allowed()) {
+            handlerExceptionResolver.resolveException(request, response, null,
+                    new ApiException(ApiErrorCode.TOO_MANY_REQUESTS, decision.headers()));
             return;
         }
 
-        final String jwt = authHeader.substring(7);
-        String userId;
+        decision.headers().forEach(response::setHeader);
+        filterChain.doFilter(request, response);
+    }
 
+    @Scheduled(fixedDelayString = "${security.rate-limit.sweep-interval-ms:30000}")
+    public void evictIdleClients() {
+        int evicted = limiters.values().stream().mapToInt(GcraRateLimiter::evictIdle).sum();
+        if (evicted > 0)
+            log.debug("Evicted {} idle rate limit keys", evicted);
+    }
+
+    // the local limiter smooths bursts per node, the shared window count holds the limit across nodes
+    private RateLimitDecision applyClusterLimit(RouteGroup group, String clientKey, RateLimitDecision decision) {
+        if (!decision.allowed())
+            return decision;
+
+        RateLimitPolicy policy = decision.policy();
+        long windowMillis = policy.period().toMillis();
+        long now = System.currentTimeMillis();
+        long window = now / windowMillis;
+
+        CounterSnapshot windowCount = counterStore.increment("rate-limit:" + group + ":" + clientKey + ":" + window, policy.period());
+        long windowRemainingNanos = TimeUnit.MILLISECONDS.toNanos((window + 1) * windowMillis - now);
+        return decision.withClusterCount(windowCount.count(), windowRemainingNanos);
+    }
+
+    // authenticated clients are limited per user, anonymous ones (login, register) per address
+    private String resolveClientKey(HttpServletRequest request) {
+        String subject;
         try {
-            userId = jwtUtil.extractUsername(jwt);
+            subject = bearerTokenResolver.resolve(request)
+                    .map(VerifiedJwt::subject)
+                    .orElse(null);
         } catch (Exception e) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        RequestInfo info = requestCounts.compute(userId, (key, existing) -> {
-            long now = System.currentTimeMillis();
-            if (existing == null || now - existing.timestamp > 60_000) {
-                return new RequestInfo();
-            } else {
-                existing.increment();
-                return existing;
-            }
-        });
-
-        if (info.count > MAX_REQUESTS_PER_MINUTE) {
-            handlerExceptionResolver.resolveException(request, response, null, new ApiException(ApiErrorCode.TOO_MANY_REQUESTS));
-            return;
+            subject = null;
         }
 
-
-        filterChain.doFilter(request, response);
+        // the client address as resolved from trusted forwarded headers, see server.forward-headers-strategy
+        return subject != null ? "user:" + subject : "ip:" + request.getRemoteAddr();
     }
 }
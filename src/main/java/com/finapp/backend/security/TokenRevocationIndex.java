@@ -0,0 +1,105 @@
+package com.finapp.backend.security;
+
+import com.finapp.backend.domain.repository.UserTokenRepository;
+import com.finapp.backend.domain.repository.projection.RevokedAccessToken;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Node-local view of revoked access tokens. */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationIndex {
+
+    private final UserTokenRepository userTokenRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${jwt.expiration-ms:3600000}")
+    private long accessTokenExpirationMs;
+
+    // token digest -> access token expiration (epoch millis), entries are dropped once the token expires anyway
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // subject -> tokens issued before this instant (epoch millis) are revoked
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    private volatile Date lastSync = new Date(0);
+
+    public boolean isRevoked(VerifiedJwt jwt) {
+        Long watermark = revokedBefore.get(jwt.subject());
+        if (watermark != null && jwt.issuedAt() != null && jwt.issuedAt().getTime() < watermark)
+            return true;
+
+        return revokedTokens.containsKey(jwt.digest());
+    }
+
+    public void revoke(String accessTokenHash, Date expiration) {
+        revokedTokens.put(accessTokenHash, expiration.getTime());
+    }
+
+    public void revokeReplaced(String accessTokenHash, Date expiration) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update(
+                "INSERT IGNORE INTO revoked_access_token (token_hash, expires_at, revoked_at) VALUES (?, ?, ?)",
+                accessTokenHash, new Timestamp(expiration.getTime()), now
+        );
+        revoke(accessTokenHash, expiration);
+    }
+
+    public void revokeAllIssuedBefore(String subject, Date instant) {
+        // JWT issue dates have second precision, so a token issued in the same second stays valid
+        long watermark = instant.getTime() / 1000 * 1000;
+        revokedBefore.merge(subject, watermark, Math::max);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevokedTokens() {
+        Date now = new Date();
+        List<RevokedAccessToken> tokens = userTokenRepository.findByRevokedTrueAndAccessTokenExpirationAfter(now);
+        tokens.forEach(token -> revoke(token.getAccessTokenHash(), token.getAccessTokenExpiration()));
+        int replaced = loadReplacedTokens(new Date(0), now);
+        lastSync = now;
+
+        log.info("Loaded {} revoked access tokens into the revocation index", tokens.size() + replaced);
+    }
+
+    // picks up revocations made by other nodes
+    @Scheduled(fixedDelayString = "${security.revocation-index.sync-interval-ms:30000}")
+    public void syncRevokedTokens() {
+        Date now = new Date();
+        Date since = new Date(lastSync.getTime() - ChangeLogPoller.SYNC_OVERLAP_MS);
+        userTokenRepository.findByRevokedTrueAndUpdatedAtAfterAndAccessTokenExpirationAfter(since, now)
+                .forEach(token -> revoke(token.getAccessTokenHash(), token.getAccessTokenExpiration()));
+        loadReplacedTokens(since, now);
+        lastSync = now;
+    }
+
+    @Scheduled(fixedDelayString = "${security.revocation-index.purge-interval-ms:600000}")
+    public void purgeExpiredEntries() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiration -> expiration < now);
+        jdbcTemplate.update("DELETE FROM revoked_access_token WHERE expires_at < ?", new Timestamp(now));
+        // once every token issued before the watermark has expired, the watermark is no longer needed
+        revokedBefore.values().removeIf(watermark -> watermark < now - accessTokenExpirationMs);
+    }
+
+    private int loadReplacedTokens(Date since, Date now) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT token_hash, expires_at FROM revoked_access_token WHERE revoked_at > ? AND expires_at > ?",
+                new Timestamp(since.getTime()), new Timestamp(now.getTime())
+        );
+        rows.forEach(row -> revoke((String) row.get("token_hash"), (Date) row.get("expires_at")));
+        return rows.size();
+    }
+}
@@ -0,0 +1,45 @@
+package com.finapp.backend.security;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+
+/** Keeps the principal cache of {@link CustomUserDetailsService} consistent across nodes. */
+@Component
+public class UserPrincipalCache {
+
+    private final Cache principals;
+    private final ChangeLogPoller changeLog;
+    private final TaskScheduler taskScheduler;
+
+    public UserPrincipalCache(JdbcTemplate jdbcTemplate,
+                              CacheManager cacheManager,
+                              Environment environment,
+                              TaskScheduler taskScheduler) {
+        this.principals = Objects.requireNonNull(cacheManager.getCache(CustomUserDetailsService.USER_PRINCIPALS_CACHE));
+        this.changeLog = ChangeLogPoller.ofTextKeys(jdbcTemplate, environment, "security.principal-cache",
+                "user_principal_change", "email", principals::evict);
+        this.taskScheduler = taskScheduler;
+    }
+
+    public void evict(String email) {
+        principals.evict(email);
+    }
+
+    public void recordChange(String email) {
+        changeLog.recordChange(List.of(email));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSync() {
+        changeLog.start(taskScheduler);
+    }
+}
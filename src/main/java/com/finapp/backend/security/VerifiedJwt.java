@@ -0,0 +1,33 @@
+package com.finapp.backend.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+public record VerifiedJwt(
+        String token,
+        String id,
+        String subject,
+        Date issuedAt,
+        Date expiration,
+        String type
+) {
+
+    static VerifiedJwt of(String token, Claims claims) {
+        return new VerifiedJwt(token, claims.getId(), claims.getSubject(), claims.getIssuedAt(), claims.getExpiration(),
+                claims.get(JwtUtil.TOKEN_TYPE_CLAIM, String.class));
+    }
+
+    public boolean isAccessToken() {
+        return JwtUtil.ACCESS_TOKEN_TYPE.equals(type);
+    }
+
+    // tokens issued before the type claim existed carry none, the refresh hash lookup still rejects access tokens among them
+    public boolean isRefreshToken() {
+        return type == null || JwtUtil.REFRESH_TOKEN_TYPE.equals(type);
+    }
+
+    public String digest() {
+        return TokenDigest.sha256(token);
+    }
+}
@@ -0,0 +1,6 @@
+package com.finapp.backend.security.ratelimit;
+
+public record CounterSnapshot(long count, long lastUpdatedMillis) {
+
+    public static final CounterSnapshot EMPTY = new CounterSnapshot(0, 0);
+}
@@ -0,0 +1,13 @@
+package com.finapp.backend.security.ratelimit;
+
+import java.time.Duration;
+
+/** Counters shared by the rate limiter and the login throttle, expiring {@code ttl} after their last increment. */
+public interface CounterStore {
+
+    CounterSnapshot increment(String key, Duration ttl);
+
+    CounterSnapshot get(String key);
+
+    void reset(String key);
+}
@@ -0,0 +1,59 @@
+package com.finapp.backend.security.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/** Generic cell rate algorithm, one lock-free theoretical arrival time per key. */
+public class GcraRateLimiter {
+
+    private final RateLimitPolicy policy;
+    private final long periodNanos;
+    private final long emissionIntervalNanos;
+    private final LongSupplier clock;
+    private final Map<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+
+    public GcraRateLimiter(RateLimitPolicy policy) {
+        this(policy, System::nanoTime);
+    }
+
+    GcraRateLimiter(RateLimitPolicy policy, LongSupplier clock) {
+        this.policy = policy;
+        this.periodNanos = policy.period().toNanos();
+        this.emissionIntervalNanos = periodNanos / policy.limit();
+        this.clock = clock;
+    }
+
+    public RateLimitDecision tryAcquire(String key) {
+        long now = clock.getAsLong();
+        AtomicLong arrival = arrivals.computeIfAbsent(key, k -> new AtomicLong(now));
+
+        while (true) {
+            long tat = arrival.get();
+            // nanoTime values may wrap, so compare through differences only
+            long base = tat - now > 0 ? tat : now;
+            long backlog = base + emissionIntervalNanos - now;
+
+            if (backlog > periodNanos)
+                return new RateLimitDecision(false, policy, 0, base - now, backlog - periodNanos);
+
+            if (arrival.compareAndSet(tat, base + emissionIntervalNanos)) {
+                int remaining = (int) ((periodNanos - backlog) / emissionIntervalNanos);
+                return new RateLimitDecision(true, policy, remaining, backlog, 0);
+            }
+        }
+    }
+
+    // drops keys whose bucket has refilled; a request racing the removal costs that key at most one token
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int before = arrivals.size();
+        arrivals.values().removeIf(arrival -> arrival.get() - now <= 0);
+        return before - arrivals.size();
+    }
+
+    public int size() {
+        return arrivals.size();
+    }
+}
@@ -0,0 +1,156 @@
+package com.finapp.backend.security.ratelimit;
+
+import com.finapp.backend.security.TokenDigest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Cluster-wide counters kept in the shared_counter table. */
+@Component
+@ConditionalOnProperty(name = "security.counter-store.type", havingValue = "jdbc")
+@RequiredArgsConstructor
+@Slf4j
+public class JdbcCounterStore implements CounterStore {
+
+    private static final int REFRESH_CHUNK_SIZE = 500;
+
+    // a row that outlived its ttl restarts from the incoming delta instead of accumulating
+    private static final String UPSERT = """
+            INSERT INTO shared_counter (counter_key, count, updated_at, expires_at) VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                count = IF(expires_at <= VALUES(updated_at), VALUES(count), count + VALUES(count)),
+                updated_at = GREATEST(updated_at, VALUES(updated_at)),
+                expires_at = GREATEST(expires_at, VALUES(expires_at))
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // keyed by the SHA-256 of the logical key, which may embed emails and user agents of any length
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private static final class Counter {
+        final LongAdder pending = new LongAdder();
+        // written by the sync and by requests that restart an expired counter, so updates must not be lost
+        final AtomicLong syncedCount = new AtomicLong();
+        volatile long lastUpdated;
+        volatile long expiresAt;
+
+        void touch(long now, long ttlMillis) {
+            if (expiresAt <= now)
+                syncedCount.set(0);
+            lastUpdated = now;
+            expiresAt = now + ttlMillis;
+        }
+
+        CounterSnapshot snapshot() {
+            return new CounterSnapshot(syncedCount.get() + pending.sum(), lastUpdated);
+        }
+    }
+
+    // unknown keys start from zero, the next sync brings in what other nodes counted
+    @Override
+    public CounterSnapshot increment(String key, Duration ttl) {
+        Counter counter = counters.computeIfAbsent(TokenDigest.sha256(key), k -> new Counter());
+        counter.touch(System.currentTimeMillis(), ttl.toMillis());
+        counter.pending.increment();
+        return counter.snapshot();
+    }
+
+    // unknown keys are loaded synchronously, so a lockout recorded by another node is honoured immediately
+    @Override
+    public CounterSnapshot get(String key) {
+        Counter counter = counters.computeIfAbsent(TokenDigest.sha256(key), this::load);
+        if (counter.expiresAt <= System.currentTimeMillis())
+            return CounterSnapshot.EMPTY;
+        return counter.snapshot();
+    }
+
+    @Override
+    public void reset(String key) {
+        String digest = TokenDigest.sha256(key);
+        counters.remove(digest);
+        jdbcTemplate.update("DELETE FROM shared_counter WHERE counter_key = ?", digest);
+    }
+
+    @Scheduled(fixedDelayString = "${security.counter-store.sync-interval-ms:1000}")
+    public void sync() {
+        long now = System.currentTimeMillis();
+        counters.entrySet().removeIf(e -> e.getValue().expiresAt <= now && e.getValue().pending.sum() == 0);
+
+        List<Object[]> upserts = new ArrayList<>();
+        counters.forEach((digest, counter) -> {
+            long delta = counter.pending.sumThenReset();
+            if (delta > 0) {
+                // keeps the local total steady until the refresh below replaces it with the cluster total
+                counter.syncedCount.addAndGet(delta);
+                upserts.add(new Object[]{digest, delta, counter.lastUpdated, counter.expiresAt});
+            }
+        });
+        if (!upserts.isEmpty())
+            jdbcTemplate.batchUpdate(UPSERT, upserts);
+
+        List<String> keys = new ArrayList<>(counters.keySet());
+        for (int from = 0; from < keys.size(); from += REFRESH_CHUNK_SIZE)
+            refresh(keys.subList(from, Math.min(from + REFRESH_CHUNK_SIZE, keys.size())), now);
+    }
+
+    @Scheduled(fixedDelayString = "${security.counter-store.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        int deleted = jdbcTemplate.update("DELETE FROM shared_counter WHERE expires_at <= ?", System.currentTimeMillis());
+        if (deleted > 0)
+            log.debug("Purged {} expired shared counters", deleted);
+    }
+
+    private void refresh(List<String> digests, long now) {
+        String placeholders = String.join(",", digests.stream().map(d -> "?").toList());
+        Set<String> missing = new HashSet<>(digests);
+
+        jdbcTemplate.query(
+                "SELECT counter_key, count, updated_at, expires_at FROM shared_counter WHERE counter_key IN (" + placeholders + ")",
+                rs -> {
+                    String digest = rs.getString("counter_key");
+                    missing.remove(digest);
+                    Counter counter = counters.get(digest);
+                    if (counter == null)
+                        return;
+                    long expiresAt = rs.getLong("expires_at");
+                    counter.syncedCount.set(expiresAt > now ? rs.getLong("count") : 0);
+                    counter.lastUpdated = Math.max(counter.lastUpdated, rs.getLong("updated_at"));
+                    counter.expiresAt = Math.max(counter.expiresAt, expiresAt);
+                },
+                digests.toArray());
+
+        // deleted elsewhere, e.g. reset by a successful login on another node
+        missing.forEach(digest -> {
+            Counter counter = counters.get(digest);
+            if (counter != null)
+                counter.syncedCount.set(0);
+        });
+    }
+
+    private Counter load(String digest) {
+        Counter counter = new Counter();
+        jdbcTemplate.query(
+                "SELECT count, updated_at, expires_at FROM shared_counter WHERE counter_key = ?",
+                rs -> {
+                    counter.syncedCount.set(rs.getLong("count"));
+                    counter.lastUpdated = rs.getLong("updated_at");
+                    counter.expiresAt = rs.getLong("expires_at");
+                },
+                digest);
+        return counter;
+    }
+}
@@ -0,0 +1,49 @@
+package com.finapp.backend.security.ratelimit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// single-node store, counters are lost on restart
+@Component
+@ConditionalOnProperty(name = "security.counter-store.type", havingValue = "local", matchIfMissing = true)
+public class LocalCounterStore implements CounterStore {
+
+    private record Entry(long count, long lastUpdated, long expiresAt) {
+    }
+
+    private final Map<String, Entry> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public CounterSnapshot increment(String key, Duration ttl) {
+        long now = System.currentTimeMillis();
+        Entry entry = counters.compute(key, (k, existing) -> {
+            long count = existing == null || existing.expiresAt() <= now ? 1 : existing.count() + 1;
+            return new Entry(count, now, now + ttl.toMillis());
+        });
+        return new CounterSnapshot(entry.count(), entry.lastUpdated());
+    }
+
+    @Override
+    public CounterSnapshot get(String key) {
+        Entry entry = counters.get(key);
+        if (entry == null || entry.expiresAt() <= System.currentTimeMillis())
+            return CounterSnapshot.EMPTY;
+        return new CounterSnapshot(entry.count(), entry.lastUpdated());
+    }
+
+    @Override
+    public void reset(String key) {
+        counters.remove(key);
+    }
+
+    @Scheduled(fixedDelayString = "${security.counter-store.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        counters.values().removeIf(entry -> entry.expiresAt() <= now);
+    }
+}
@@ -0,0 +1,40 @@
+package com.finapp.backend.security.ratelimit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public record RateLimitDecision(
+        boolean allowed,
+        RateLimitPolicy policy,
+        int remaining,
+        long resetNanos,
+        long retryAfterNanos
+) {
+
+    // applies the cluster-wide count of the current fixed window on top of this node's decision
+    public RateLimitDecision withClusterCount(long count, long windowRemainingNanos) {
+        if (!allowed)
+            return this;
+        if (count > policy.limit())
+            return new RateLimitDecision(false, policy, 0, windowRemainingNanos, windowRemainingNanos);
+        return new RateLimitDecision(true, policy, (int) Math.min(remaining, policy.limit() - count), resetNanos, 0);
+    }
+
+    // RateLimit-* fields from the IETF draft, plus Retry-After on rejections
+    public Map<String, String> headers() {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("RateLimit-Policy", policy.describe());
+        headers.put("RateLimit-Limit", String.valueOf(policy.limit()));
+        headers.put("RateLimit-Remaining", String.valueOf(remaining));
+        headers.put("RateLimit-Reset", String.valueOf(toSecondsCeil(resetNanos)));
+        if (!allowed)
+            headers.put("Retry-After", String.valueOf(Math.max(1, toSecondsCeil(retryAfterNanos))));
+        return headers;
+    }
+
+    private static long toSecondsCeil(long nanos) {
+        long perSecond = TimeUnit.SECONDS.toNanos(1);
+        return (Math.max(0, nanos) + perSecond - 1) / perSecond;
+    }
+}
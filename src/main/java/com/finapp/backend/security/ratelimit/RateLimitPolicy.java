@@ -0,0 +1,18 @@
+package com.finapp.backend.security.ratelimit;
+
+import java.time.Duration;
+
+public record RateLimitPolicy(int limit, Duration period) {
+
+    public RateLimitPolicy {
+        if (limit <= 0)
+            throw new IllegalArgumentException("Rate limit must be positive");
+        if (period == null || period.isZero() || period.isNegative())
+            throw new IllegalArgumentException("Rate limit period must be positive");
+    }
+
+    // value for the RateLimit-Policy header, e.g. "60;w=60"
+    public String describe() {
+        return limit + ";w=" + period.toSeconds();
+    }
+}
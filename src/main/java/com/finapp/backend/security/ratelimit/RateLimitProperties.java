@@ -0,0 +1,19 @@
+package com.finapp.backend.security.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "security.rate-limit")
+public record RateLimitProperties(
+        RateLimitPolicy auth,
+        RateLimitPolicy reads,
+        RateLimitPolicy writes
+) {
+
+    public RateLimitPolicy policyFor(RouteGroup group) {
+        return switch (group) {
+            case AUTH -> auth;
+            case READ -> reads;
+            case WRITE -> writes;
+        };
+    }
+}
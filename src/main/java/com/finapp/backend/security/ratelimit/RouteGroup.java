@@ -0,0 +1,23 @@
+package com.finapp.backend.security.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+
+public enum RouteGroup {
+    AUTH,
+    READ,
+    WRITE;
+
+    private static final String AUTH_PATH_PREFIX = "/api/v1/auth/";
+
+    public static RouteGroup of(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith(AUTH_PATH_PREFIX))
+            return AUTH;
+
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS)
+            return READ;
+
+        return WRITE;
+    }
+}
@@ -0,0 +1,47 @@
+package com.finapp.backend.task;
+
+import com.finapp.backend.domain.repository.FundBoxBalanceRepository;
+import com.finapp.backend.domain.repository.UserBalanceRepository;
+import com.finapp.backend.domain.service.BalanceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceReconciliationTask {
+
+    private final UserBalanceRepository userBalanceRepository;
+    private final FundBoxBalanceRepository fundBoxBalanceRepository;
+    private final BalanceService balanceService;
+
+    @Scheduled(cron = "0 30 3 * * *") // runs every day at 3:30am, after the user cleanup
+    public void reconcileUserBalances() {
+        // drift found here may be a write still in flight, the rebuild re-reads under a row lock
+        List<String> drifted = userBalanceRepository.findDriftedUserIds();
+        drifted.forEach(userId -> balanceService.rebuildUserBalance(UUID.fromString(userId)));
+
+        int orphans = userBalanceRepository.deleteOrphans();
+        userBalanceRepository.deleteOrphanedTreeNodes();
+
+        if (!drifted.isEmpty() || orphans > 0)
+            log.warn("Reconciled {} user balances and removed {} orphaned ones", drifted.size(), orphans);
+    }
+
+    @Scheduled(cron = "0 45 3 * * *") // runs every day at 3:45am
+    public void reconcileFundBoxBalances() {
+        List<String> drifted = fundBoxBalanceRepository.findDriftedFundBoxIds();
+        drifted.forEach(fundBoxId -> balanceService.rebuildFundBoxBalance(UUID.fromString(fundBoxId)));
+
+        int orphans = fundBoxBalanceRepository.deleteOrphans();
+        fundBoxBalanceRepository.deleteOrphanedTreeNodes();
+
+        if (!drifted.isEmpty() || orphans > 0)
+            log.warn("Reconciled {} fund box balances and removed {} orphaned ones", drifted.size(), orphans);
+    }
+}
@@ -0,0 +1,42 @@
+package com.finapp.backend.task;
+
+import com.finapp.backend.domain.repository.FundBoxRepository;
+import com.finapp.backend.domain.service.FundBoxDeletionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FundBoxDeletionTask {
+
+    private final FundBoxRepository fundBoxRepository;
+    private final FundBoxDeletionService fundBoxDeletionService;
+
+    @Value("${app.fund-box-deletion.grace-ms:30000}")
+    private long graceMs;
+
+    // a box that fails is left marked and retried on the next run
+    @Scheduled(fixedDelayString = "${app.fund-box-deletion.interval-ms:10000}")
+    public void purgePendingFundBoxes() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> pending = fundBoxRepository.findIdsPendingDeletion(
+                now.minus(Duration.ofMillis(graceMs)), now.minus(fundBoxDeletionService.claimTimeout()));
+        for (UUID fundBoxId : pending) {
+            try {
+                if (fundBoxDeletionService.purge(fundBoxId))
+                    log.info("Purged fund box {}", fundBoxId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to purge fund box {}", fundBoxId, e);
+            }
+        }
+    }
+}
@@ -2,12 +2,12 @@ package com.finapp.backend.task;
 
 import com.finapp.backend.domain.repository.UserTokenRepository;
 import com.finapp.backend.domain.model.UserToken;
-import com.finapp.backend.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.Date;
 import java.util.List;
 
 @Component
@@ -16,16 +16,17 @@ import java.util.List;
 public class TokenCleanupTask {
 
     private final UserTokenRepository userTokenRepository;
-    private final JwtUtil jwtUtil;
 
     @Scheduled(cron = "0 0 1 * * *") // 1 am
     public void deleteExpiredOrNonRevokedTokens() {
         List<UserToken> userTokens = userTokenRepository.findByRevokedFalse();
+        Date now = new Date();
 
         int deleted = 0;
 
         for (UserToken userToken : userTokens) {
-            if (jwtUtil.isTokenExpired(userToken.getRefreshToken())) {
+            // the access token may outlive the refresh token it was issued from, the row stays until both expired
+            if (userToken.getRefreshTokenExpiration().before(now) && userToken.getAccessTokenExpiration().before(now)) {
                 userTokenRepository.delete(userToken);
                 deleted++;
                 log.info("Deleted expired token for user ID: {}", userToken.getUser().getId());
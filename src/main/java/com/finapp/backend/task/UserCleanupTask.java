@@ -1,13 +1,23 @@
 package com.finapp.backend.task;
 
 import com.finapp.backend.domain.model.enums.UserStatus;
+import com.finapp.backend.domain.repository.FundBoxRepository;
 import com.finapp.backend.domain.repository.UserRepository;
+import com.finapp.backend.domain.service.FundBoxDeletionService;
+import com.finapp.backend.security.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -15,13 +25,43 @@ import java.time.LocalDateTime;
 public class UserCleanupTask {
 
     private final UserRepository userRepository;
+    private final FundBoxRepository fundBoxRepository;
+    private final FundBoxDeletionService fundBoxDeletionService;
+    private final CacheManager cacheManager;
 
     @Scheduled(cron = "0 0 3 * * *") // runs every day at 3am
     public void deleteInactiveUsers() {
         LocalDateTime threshold = LocalDateTime.now().minusDays(30);
-        int deleted = userRepository.deleteByStatusAndDeletionRequestedAtBefore(UserStatus.DEACTIVATION_REQUESTED, threshold);
+
+        List<UUID> expired = userRepository.findIdsByStatusAndDeletionRequestedAtBefore(UserStatus.DEACTIVATION_REQUESTED, threshold);
+        if (expired.isEmpty())
+            return;
+
+        // owned boxes go first through the chunked purge, the user cascade would otherwise delete them row by row
+        for (UUID fundBoxId : fundBoxRepository.findIdsByOwnerIds(expired)) {
+            try {
+                if (fundBoxDeletionService.purge(fundBoxId))
+                    log.info("Purged fund box {}", fundBoxId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to purge fund box {}", fundBoxId, e);
+            }
+        }
+
+        // owners of boxes that failed or are still being purged elsewhere are left for a later run
+        Set<UUID> stillOwning = new HashSet<>(fundBoxRepository.findOwnerIdsWithFundBoxes(expired));
+        int deleted = 0;
+        for (UUID userId : expired) {
+            if (stillOwning.contains(userId))
+                continue;
+            try {
+                deleted += userRepository.deleteByIdAndStatusAndDeletionRequestedAtBefore(userId, UserStatus.DEACTIVATION_REQUESTED, threshold);
+            } catch (RuntimeException e) {
+                log.warn("Failed to delete user {}", userId, e);
+            }
+        }
 
         if (deleted > 0) {
+            Optional.ofNullable(cacheManager.getCache(CustomUserDetailsService.USER_PRINCIPALS_CACHE)).ifPresent(Cache::clear);
             log.info("Deleted {} users pending deletion for over 30 days", deleted);
         }
     }
@@ -0,0 +1,3 @@
+-- set by the node purging a box, so two nodes (or a request and the background task) never purge the same box;
+-- a claim older than the claim timeout belongs to a node that died mid-purge and may be taken over
+ALTER TABLE fund_box ADD COLUMN purge_started_at DATETIME(6) NULL;
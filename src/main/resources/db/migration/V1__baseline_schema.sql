@@ -0,0 +1,157 @@
+-- schema as previously maintained by Hibernate's ddl update and the legacy SchemaUpgrader steps;
+-- existing databases are baselined at this version instead of running it
+
+CREATE TABLE users (
+    id BINARY(16) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    deletion_requested_at DATETIME(6) NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE fund_box (
+    id BINARY(16) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    financial_goal DECIMAL(38,2) NOT NULL,
+    target_date DATE NOT NULL,
+    owner_id BINARY(16) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_fund_box_owner_name UNIQUE (owner_id, name),
+    CONSTRAINT fk_fund_box_owner FOREIGN KEY (owner_id) REFERENCES users (id)
+);
+
+CREATE TABLE fund_box_collaborators (
+    id BINARY(16) NOT NULL,
+    user_id BINARY(16) NOT NULL,
+    fund_box_id BINARY(16) NOT NULL,
+    joined_at DATE NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_fund_box_collaborators_fund_box_user UNIQUE (fund_box_id, user_id),
+    CONSTRAINT fk_fund_box_collaborators_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_fund_box_collaborators_fund_box FOREIGN KEY (fund_box_id) REFERENCES fund_box (id)
+);
+
+CREATE TABLE fund_box_invitation (
+    id BINARY(16) NOT NULL,
+    fund_box_id BINARY(16) NULL,
+    inviter_id BINARY(16) NULL,
+    invitee_id BINARY(16) NULL,
+    status VARCHAR(32) NULL,
+    invitation_date DATETIME(6) NULL,
+    accepted_date DATETIME(6) NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_fund_box_invitation_fund_box FOREIGN KEY (fund_box_id) REFERENCES fund_box (id),
+    CONSTRAINT fk_fund_box_invitation_inviter FOREIGN KEY (inviter_id) REFERENCES users (id),
+    CONSTRAINT fk_fund_box_invitation_invitee FOREIGN KEY (invitee_id) REFERENCES users (id)
+);
+
+CREATE TABLE deposit (
+    id BINARY(16) NOT NULL,
+    amount DECIMAL(38,2) NOT NULL,
+    date DATE NOT NULL,
+    description VARCHAR(255) NULL,
+    transaction_type VARCHAR(32) NOT NULL,
+    user_id BINARY(16) NOT NULL,
+    fund_box_id BINARY(16) NULL,
+    PRIMARY KEY (id),
+    INDEX idx_deposit_user_date_id (user_id, date, id),
+    INDEX idx_deposit_fund_box_date_id (fund_box_id, date, id),
+    CONSTRAINT fk_deposit_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_deposit_fund_box FOREIGN KEY (fund_box_id) REFERENCES fund_box (id)
+);
+
+CREATE TABLE user_tokens (
+    id BINARY(16) NOT NULL,
+    user_id BINARY(16) NOT NULL,
+    access_token_hash CHAR(64) NOT NULL,
+    refresh_token_hash CHAR(64) NOT NULL,
+    access_token_expiration DATETIME(6) NOT NULL,
+    refresh_token_expiration DATETIME(6) NOT NULL,
+    revoked BIT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    device_info VARCHAR(255) NULL,
+    device_ip VARCHAR(255) NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_tokens_access_token_hash UNIQUE (access_token_hash),
+    CONSTRAINT uk_user_tokens_refresh_token_hash UNIQUE (refresh_token_hash),
+    CONSTRAINT fk_user_tokens_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE login_attempt (
+    id BINARY(16) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    ip VARCHAR(255) NOT NULL,
+    user_agent VARCHAR(255) NOT NULL,
+    attempt_count INT NOT NULL,
+    last_attempt_at DATETIME(6) NOT NULL,
+    blocked_until DATETIME(6) NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_login_attempt_email_ip_user_agent UNIQUE (email, ip, user_agent)
+);
+
+CREATE TABLE password_reset_token (
+    id BINARY(16) NOT NULL,
+    token VARCHAR(255) NULL,
+    email VARCHAR(255) NULL,
+    expires_at DATETIME(6) NULL,
+    used BIT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE user_balance (
+    user_id BINARY(16) NOT NULL,
+    entry_total DECIMAL(38,2) NOT NULL,
+    exit_total DECIMAL(38,2) NOT NULL,
+    deposit_count BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (user_id)
+);
+
+CREATE TABLE fund_box_balance (
+    fund_box_id BINARY(16) NOT NULL,
+    slot INT NOT NULL,
+    entry_total DECIMAL(38,2) NOT NULL,
+    exit_total DECIMAL(38,2) NOT NULL,
+    PRIMARY KEY (fund_box_id, slot)
+);
+
+CREATE TABLE shared_counter (
+    counter_key CHAR(64) NOT NULL,
+    count BIGINT NOT NULL,
+    updated_at BIGINT NOT NULL,
+    expires_at BIGINT NOT NULL,
+    PRIMARY KEY (counter_key),
+    INDEX idx_shared_counter_expires_at (expires_at)
+);
+
+CREATE TABLE deposit_import_job (
+    id BINARY(16) NOT NULL,
+    user_id BINARY(16) NOT NULL,
+    fund_box_id BINARY(16) NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    format VARCHAR(255) NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    total_bytes BIGINT NOT NULL,
+    processed_bytes BIGINT NOT NULL,
+    imported_rows BIGINT NOT NULL,
+    failed_rows BIGINT NOT NULL,
+    failure_reason VARCHAR(255) NULL,
+    created_at DATETIME(6) NOT NULL,
+    finished_at DATETIME(6) NULL,
+    PRIMARY KEY (id),
+    INDEX idx_deposit_import_job_user (user_id)
+);
+
+CREATE TABLE deposit_import_job_error (
+    job_id BINARY(16) NOT NULL,
+    position INT NOT NULL,
+    line_number BIGINT NOT NULL,
+    message VARCHAR(255) NOT NULL,
+    PRIMARY KEY (job_id, position),
+    CONSTRAINT fk_deposit_import_job_error_job FOREIGN KEY (job_id) REFERENCES deposit_import_job (id)
+);
@@ -0,0 +1,44 @@
+-- each index names the repository queries it serves; the covering ones carry every column
+-- the query reads so InnoDB answers from the secondary index without visiting the clustered rows
+
+-- DepositRepository.sumByUserIdAndTransactionType, countByUserId,
+-- UserBalanceRepository.findDriftedUserIds (grouped scan of the whole table)
+CREATE INDEX idx_deposit_user_type_amount ON deposit (user_id, transaction_type, amount);
+
+-- DepositRepository.sumByFundBoxIdAndTransactionType, unsetFundBoxForUserDeposits,
+-- sumByUserIdAndFundBoxIdForUpdate (also narrows its next-key locks to the user's rows of the box),
+-- FundBoxBalanceRepository.findDriftedFundBoxIds
+CREATE INDEX idx_deposit_fund_box_user_type_amount ON deposit (fund_box_id, user_id, transaction_type, amount);
+
+-- FundBoxRepository.findByOwnerIdOrCollaboratorsContaining and the boxes a collaborator belongs to;
+-- the (fund_box_id, user_id) unique key already serves access checks for a given box
+CREATE INDEX idx_fund_box_collaborators_user_fund_box ON fund_box_collaborators (user_id, fund_box_id);
+
+-- FundBoxInvitationRepository.findByInvitee_Id and pending invitations of a user
+CREATE INDEX idx_fund_box_invitation_invitee_status ON fund_box_invitation (invitee_id, status);
+
+-- FundBoxInvitationRepository.findByInviter_Id
+CREATE INDEX idx_fund_box_invitation_inviter ON fund_box_invitation (inviter_id);
+
+-- FundBoxInvitationRepository.findByFundBox_IdAndStatus, existsByFundBoxAndInviteeAndStatus
+CREATE INDEX idx_fund_box_invitation_fund_box_status_invitee ON fund_box_invitation (fund_box_id, status, invitee_id);
+
+-- UserTokenRepository.findAllByUser_IdAndRevokedFalse
+CREATE INDEX idx_user_tokens_user_revoked ON user_tokens (user_id, revoked);
+
+-- UserTokenRepository.findByRevokedTrueAndAccessTokenExpirationAfter, findByRevokedFalse
+CREATE INDEX idx_user_tokens_revoked_access_expiration ON user_tokens (revoked, access_token_expiration);
+
+-- UserTokenRepository.findByRevokedTrueAndUpdatedAtAfterAndAccessTokenExpirationAfter (revocation sync)
+CREATE INDEX idx_user_tokens_revoked_updated_at ON user_tokens (revoked, updated_at);
+
+-- LoginAttemptRepository.findByLastAttemptAtAfterOrBlockedUntilAfter, resolved as an index merge union;
+-- the (email, ip, user_agent) unique key serves the checkpoint upsert and delete
+CREATE INDEX idx_login_attempt_last_attempt_at ON login_attempt (last_attempt_at);
+CREATE INDEX idx_login_attempt_blocked_until ON login_attempt (blocked_until);
+
+-- PasswordResetTokenRepository.findByToken
+CREATE INDEX idx_password_reset_token_token ON password_reset_token (token);
+
+-- UserRepository.deleteByStatusAndDeletionRequestedAtBefore
+CREATE INDEX idx_users_status_deletion_requested_at ON users (status, deletion_requested_at);
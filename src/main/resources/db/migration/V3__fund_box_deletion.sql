@@ -0,0 +1,5 @@
+-- boxes being purged in the background are hidden through this column
+ALTER TABLE fund_box ADD COLUMN deletion_requested_at DATETIME(6) NULL;
+
+-- FundBoxRepository.findIdsPendingDeletion
+CREATE INDEX idx_fund_box_deletion_requested_at ON fund_box (deletion_requested_at);
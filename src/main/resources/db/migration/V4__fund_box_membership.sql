@@ -0,0 +1,13 @@
+-- collaborators become members and the owner becomes one too, so access checks and
+-- listings resolve through a single (user_id, fund_box_id) lookup instead of an OR
+RENAME TABLE fund_box_collaborators TO fund_box_member;
+
+ALTER TABLE fund_box_member ADD COLUMN role VARCHAR(32) NOT NULL DEFAULT 'COLLABORATOR';
+ALTER TABLE fund_box_member ALTER COLUMN role DROP DEFAULT;
+
+INSERT INTO fund_box_member (id, user_id, fund_box_id, role, joined_at)
+SELECT UUID_TO_BIN(UUID()), f.owner_id, f.id, 'OWNER', CURDATE() FROM fund_box f
+ON DUPLICATE KEY UPDATE role = 'OWNER';
+
+-- FundBoxRepository.findViewsByMemberId, findByIdAndMemberId, findAccessByIds, findAccessibleIds
+ALTER TABLE fund_box_member RENAME INDEX idx_fund_box_collaborators_user_fund_box TO idx_fund_box_member_user_fund_box;
@@ -0,0 +1,11 @@
+-- one row per user whose memberships changed, polled by every node to evict its
+-- FundBoxMembershipIndex entries; rows are purged once past every node's sync window
+CREATE TABLE fund_box_membership_change (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BINARY(16) NOT NULL,
+    changed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- FundBoxMembershipIndex.syncChanges and purgeChanges
+CREATE INDEX idx_fund_box_membership_change_changed_at ON fund_box_membership_change (changed_at);
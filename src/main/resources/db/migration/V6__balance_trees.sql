@@ -0,0 +1,44 @@
+-- Fenwick trees over the daily net change (entry - exit) of each user and each fund box.
+-- Day 1 is 1900-01-01 and the tree spans 131072 days; node n holds the net change of the
+-- days (n - lowbit(n), n], so the balance as of any day sums at most 17 nodes
+CREATE TABLE user_balance_tree (
+    user_id BINARY(16) NOT NULL,
+    node INT NOT NULL,
+    total DECIMAL(38,2) NOT NULL,
+    PRIMARY KEY (user_id, node)
+);
+
+-- slotted like fund_box_balance, so writers to one box do not all queue on the upper nodes
+CREATE TABLE fund_box_balance_tree (
+    fund_box_id BINARY(16) NOT NULL,
+    node INT NOT NULL,
+    slot INT NOT NULL,
+    total DECIMAL(38,2) NOT NULL,
+    PRIMARY KEY (fund_box_id, node, slot)
+);
+
+-- each day's change is added to every node on its update path
+INSERT INTO user_balance_tree (user_id, node, total)
+WITH RECURSIVE path (user_id, node, total) AS (
+    SELECT user_id,
+           LEAST(GREATEST(DATEDIFF(date, '1900-01-01') + 1, 1), 131072),
+           SUM(IF(transaction_type = 'ENTRY', amount, -amount))
+    FROM deposit
+    GROUP BY user_id, date
+    UNION ALL
+    SELECT user_id, node + (node & -node), total FROM path WHERE node + (node & -node) <= 131072
+)
+SELECT user_id, node, SUM(total) FROM path GROUP BY user_id, node;
+
+INSERT INTO fund_box_balance_tree (fund_box_id, node, slot, total)
+WITH RECURSIVE path (fund_box_id, node, total) AS (
+    SELECT fund_box_id,
+           LEAST(GREATEST(DATEDIFF(date, '1900-01-01') + 1, 1), 131072),
+           SUM(IF(transaction_type = 'ENTRY', amount, -amount))
+    FROM deposit
+    WHERE fund_box_id IS NOT NULL
+    GROUP BY fund_box_id, date
+    UNION ALL
+    SELECT fund_box_id, node + (node & -node), total FROM path WHERE node + (node & -node) <= 131072
+)
+SELECT fund_box_id, node, 0, SUM(total) FROM path GROUP BY fund_box_id, node;
@@ -0,0 +1,12 @@
+-- access tokens replaced on refresh; user_tokens only keeps the current access hash,
+-- so the replaced one is recorded here for every node's TokenRevocationIndex to pick up
+CREATE TABLE revoked_access_token (
+    token_hash CHAR(64) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    revoked_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (token_hash)
+);
+
+-- TokenRevocationIndex.syncRevokedTokens and purgeExpiredEntries
+CREATE INDEX idx_revoked_access_token_revoked_at ON revoked_access_token (revoked_at);
+CREATE INDEX idx_revoked_access_token_expires_at ON revoked_access_token (expires_at);
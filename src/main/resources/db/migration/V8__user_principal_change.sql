@@ -0,0 +1,11 @@
+-- one row per user whose password, status or name changed, polled by every node to evict
+-- its cached principal; rows are purged once past every node's sync window
+CREATE TABLE user_principal_change (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255) NOT NULL,
+    changed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- UserPrincipalCache.syncChanges and purgeChanges
+CREATE INDEX idx_user_principal_change_changed_at ON user_principal_change (changed_at);
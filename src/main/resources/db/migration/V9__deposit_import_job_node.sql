@@ -0,0 +1,6 @@
+-- uploads live on the disk of the node that accepted them, so each node fails its own
+-- unfinished jobs when it starts; jobs created before this column were all interrupted by the upgrade
+ALTER TABLE deposit_import_job ADD COLUMN node_id VARCHAR(255) NULL;
+
+-- DepositImportJobRepository.findUnfinishedIds
+CREATE INDEX idx_deposit_import_job_node_status ON deposit_import_job (node_id, status);
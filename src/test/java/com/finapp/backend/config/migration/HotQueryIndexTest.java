@@ -0,0 +1,119 @@
+package com.finapp.backend.config.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Needs a scratch MySQL database, which is wiped: FINAPP_TEST_MYSQL_URL, FINAPP_TEST_MYSQL_USER and FINAPP_TEST_MYSQL_PASSWORD. */
+@EnabledIfEnvironmentVariable(named = "FINAPP_TEST_MYSQL_URL", matches = ".+")
+class HotQueryIndexTest {
+
+    private static final int USERS = 50;
+    private static final int DEPOSITS_PER_USER = 40;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getenv("FINAPP_TEST_MYSQL_URL"),
+                System.getenv("FINAPP_TEST_MYSQL_USER"),
+                System.getenv("FINAPP_TEST_MYSQL_PASSWORD"));
+        Flyway flyway = Flyway.configure().dataSource(dataSource).cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // enough rows per user and box that a full scan is never the cheaper plan
+        List<Object[]> deposits = new ArrayList<>();
+        for (int user = 0; user < USERS; user++) {
+            String userId = uuid(user);
+            jdbcTemplate.update("INSERT INTO users (id, email, password_hash, name, status) VALUES (UUID_TO_BIN(?), ?, 'x', 'User', 'ACTIVE')",
+                    userId, "user" + user + "@finapp.test");
+            jdbcTemplate.update("""
+                    INSERT INTO fund_box (id, name, financial_goal, target_date, owner_id) VALUES (UUID_TO_BIN(?), 'Box', 100, '2030-01-01', UUID_TO_BIN(?))
+                    """, uuid(10_000 + user), userId);
+            jdbcTemplate.update("""
+                    INSERT INTO fund_box_member (id, user_id, fund_box_id, role, joined_at) VALUES (UUID_TO_BIN(UUID()), UUID_TO_BIN(?), UUID_TO_BIN(?), 'OWNER', '2024-01-01')
+                    """, userId, uuid(10_000 + user));
+            for (int i = 0; i < DEPOSITS_PER_USER; i++)
+                deposits.add(new Object[]{userId, uuid(10_000 + user), i % 28 + 1, i % 2 == 0 ? "ENTRY" : "EXIT"});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO deposit (id, amount, date, transaction_type, user_id, fund_box_id)
+                VALUES (UUID_TO_BIN(UUID()), 10, MAKEDATE(2024, ?), ?, UUID_TO_BIN(?), UUID_TO_BIN(?))
+                """, deposits.stream().map(row -> new Object[]{row[2], row[3], row[0], row[1]}).toList());
+        jdbcTemplate.execute("ANALYZE TABLE users, fund_box, fund_box_member, deposit, fund_box_invitation, login_attempt");
+    }
+
+    @Test
+    void userDepositPagesFollowTheKeysetIndex() {
+        Map<String, Object> plan = explain("""
+                SELECT id FROM deposit WHERE user_id = UUID_TO_BIN(?)
+                ORDER BY date DESC, id DESC LIMIT 20
+                """, uuid(1));
+        assertEquals("idx_deposit_user_date_id", plan.get("key"));
+        assertNoFilesort(plan);
+    }
+
+    @Test
+    void fundBoxDepositPagesFollowTheKeysetIndex() {
+        Map<String, Object> plan = explain("""
+                SELECT id FROM deposit WHERE fund_box_id = UUID_TO_BIN(?)
+                ORDER BY date DESC, id DESC LIMIT 20
+                """, uuid(10_001));
+        assertEquals("idx_deposit_fund_box_date_id", plan.get("key"));
+        assertNoFilesort(plan);
+    }
+
+    @Test
+    void userTotalsAreAnsweredFromTheCoveringIndex() {
+        Map<String, Object> plan = explain("""
+                SELECT COALESCE(SUM(amount), 0) FROM deposit WHERE user_id = UUID_TO_BIN(?) AND transaction_type = 'ENTRY'
+                """, uuid(1));
+        assertEquals("idx_deposit_user_type_amount", plan.get("key"));
+        assertTrue(String.valueOf(plan.get("Extra")).contains("Using index"), plan.toString());
+    }
+
+    @Test
+    void membershipsAreLookedUpByUser() {
+        Map<String, Object> plan = explain("SELECT fund_box_id, role FROM fund_box_member WHERE user_id = UUID_TO_BIN(?)", uuid(1));
+        assertEquals("idx_fund_box_member_user_fund_box", plan.get("key"));
+    }
+
+    @Test
+    void pendingInvitationsAreLookedUpByInvitee() {
+        Map<String, Object> plan = explain("SELECT id FROM fund_box_invitation WHERE invitee_id = UUID_TO_BIN(?) AND status = 'PENDING'", uuid(1));
+        assertEquals("idx_fund_box_invitation_invitee_status", plan.get("key"));
+    }
+
+    @Test
+    void loginAttemptsAreLookedUpByTheirUniqueKey() {
+        Map<String, Object> plan = explain("SELECT id FROM login_attempt WHERE email = ? AND ip = ? AND user_agent = ?",
+                "user1@finapp.test", "127.0.0.1", "");
+        assertEquals("uk_login_attempt_email_ip_user_agent", plan.get("key"));
+    }
+
+    private static Map<String, Object> explain(String query, Object... args) {
+        return jdbcTemplate.queryForList("EXPLAIN " + query, args).get(0);
+    }
+
+    private static void assertNoFilesort(Map<String, Object> plan) {
+        assertFalse(String.valueOf(plan.get("Extra")).contains("filesort"), plan.toString());
+    }
+
+    private static String uuid(int n) {
+        return String.format("00000000-0000-7000-8000-%012d", n);
+    }
+}
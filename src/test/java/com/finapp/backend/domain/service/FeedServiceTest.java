@@ -0,0 +1,45 @@
+package com.finapp.backend.domain.service;
+
+import com.finapp.backend.domain.service.FeedService.FeedEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FeedServiceTest {
+
+    private static final FeedEntry MAY_3 = entry(3, "00000000-0000-7000-8000-000000000003");
+    private static final FeedEntry MAY_2_HIGH = entry(2, "ffffffff-0000-7000-8000-000000000002");
+    private static final FeedEntry MAY_2_LOW = entry(2, "00000000-0000-7000-8000-000000000002");
+    private static final FeedEntry MAY_1 = entry(1, "00000000-0000-7000-8000-000000000001");
+
+    @Test
+    void mergesRunsNewestFirstComparingIdsAsStoredBytes() {
+        // ffffffff... is negative as a signed long but sorts last as unsigned bytes, so it is the newer of the two
+        List<FeedEntry> merged = FeedService.merge(List.of(List.of(MAY_3, MAY_2_LOW), List.of(MAY_2_HIGH, MAY_1)), 10);
+
+        assertEquals(List.of(MAY_3, MAY_2_HIGH, MAY_2_LOW, MAY_1), merged);
+    }
+
+    // the user's own deposit in one of their boxes comes from both the user run and the box run
+    @Test
+    void keepsEntriesFoundInSeveralRunsOnce() {
+        List<FeedEntry> merged = FeedService.merge(List.of(List.of(MAY_3, MAY_1), List.of(MAY_3, MAY_2_LOW), List.of(MAY_1)), 10);
+
+        assertEquals(List.of(MAY_3, MAY_2_LOW, MAY_1), merged);
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        List<FeedEntry> merged = FeedService.merge(List.of(List.of(MAY_3, MAY_1), List.of(MAY_2_HIGH, MAY_2_LOW), List.of()), 2);
+
+        assertEquals(List.of(MAY_3, MAY_2_HIGH), merged);
+    }
+
+    private static FeedEntry entry(int day, String id) {
+        return new FeedEntry(LocalDate.of(2024, 5, day), UUID.fromString(id));
+    }
+}
@@ -0,0 +1,240 @@
+package com.finapp.backend.domain.service;
+
+import com.finapp.backend.domain.model.Deposit;
+import com.finapp.backend.domain.model.FundBox;
+import com.finapp.backend.domain.model.FundBoxInvitation;
+import com.finapp.backend.domain.model.FundBoxMember;
+import com.finapp.backend.domain.model.User;
+import com.finapp.backend.domain.model.UserToken;
+import com.finapp.backend.domain.model.enums.FundBoxRole;
+import com.finapp.backend.domain.model.enums.InvitationStatus;
+import com.finapp.backend.domain.model.enums.TransactionType;
+import com.finapp.backend.domain.model.enums.UserStatus;
+import com.finapp.backend.domain.service.utils.FundBoxUtilService;
+import com.finapp.backend.domain.service.utils.UserUtilService;
+import com.finapp.backend.security.AuthenticatedUser;
+import com.finapp.backend.security.FundBoxMembershipIndex;
+import com.finapp.backend.security.TokenDigest;
+import com.finapp.backend.security.TokenRevocationIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/** Round trips per authenticated endpoint, counted by Hibernate on H2 in MySQL mode. */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statement-budget;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({UserService.class, SessionService.class, DepositService.class, FundboxService.class, FundBoxInviteService.class,
+        UserUtilService.class, FundBoxUtilService.class})
+class StatementBudgetTest {
+
+    // more rows than fit on a page, so paged lists also run their count query
+    private static final int ROWS = 12;
+    private static final Pageable PAGE = PageRequest.of(0, 5);
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private SessionService sessionService;
+    @Autowired
+    private DepositService depositService;
+    @Autowired
+    private FundboxService fundboxService;
+    @Autowired
+    private FundBoxInviteService fundBoxInviteService;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+    @MockitoBean
+    private TokenRevocationIndex tokenRevocationIndex;
+    @MockitoBean
+    private BalanceService balanceService;
+    @MockitoBean
+    private FundBoxDeletionService fundBoxDeletionService;
+    @MockitoBean
+    private FundBoxMembershipIndex membershipIndex;
+
+    private Statistics statistics;
+    private User user;
+    private AuthenticatedUser principal;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = persistUser("owner@finapp.test", "Owner User");
+        principal = AuthenticatedUser.from(user);
+        // membership lookups are served by the node-local index, not by these queries
+        when(membershipIndex.isMember(any(), any())).thenReturn(true);
+    }
+
+    @Test
+    void userInfoIsServedFromThePrincipal() {
+        assertEquals(0, statementsOf(() -> userService.getUserInfo(principal)));
+    }
+
+    @Test
+    void activeSessionsTakeOneQuery() {
+        for (int i = 0; i < 5; i++)
+            persistToken("access-" + i, "refresh-" + i);
+
+        assertEquals(1, statementsOf(() -> sessionService.getActiveSessions(principal, "access-0")));
+    }
+
+    @Test
+    void depositListsStayWithinBudget() {
+        FundBox fundBox = persistFundBox(user, "Holidays");
+        for (int i = 0; i < ROWS; i++)
+            persistDeposit(i % 2 == 0 ? fundBox : null, LocalDate.of(2024, 1, 1).plusDays(i));
+
+        assertEquals(2, statementsOf(() -> depositService.listUserDeposits(principal, null, PAGE)));
+        assertEquals(1, statementsOf(() -> depositService.scrollUserDeposits(principal, null, null, 5)));
+        assertEquals(1, statementsOf(() -> fundboxService.listFundBoxDeposits(fundBox.getId(), principal, null, 5)));
+    }
+
+    @Test
+    void fundBoxListStaysWithinBudget() {
+        User other = persistUser("other@finapp.test", "Other User");
+        for (int i = 0; i < ROWS; i++) {
+            FundBox fundBox = persistFundBox(i % 2 == 0 ? user : other, "Box " + i);
+            if (i % 2 != 0)
+                persistMember(fundBox, user, FundBoxRole.COLLABORATOR);
+        }
+
+        assertEquals(2, statementsOf(() -> fundboxService.listUserFundBoxes(principal, PAGE)));
+    }
+
+    @Test
+    void inviteListsStayWithinBudget() {
+        for (int i = 0; i < ROWS; i++) {
+            User other = persistUser("invitee" + i + "@finapp.test", "Invitee User");
+            persistInvite(persistFundBox(user, "Sent " + i), user, other);
+            persistInvite(persistFundBox(other, "Received " + i), other, user);
+        }
+
+        assertEquals(2, statementsOf(() -> fundBoxInviteService.getSentInvites(principal, PAGE)));
+        assertEquals(2, statementsOf(() -> fundBoxInviteService.getUserInvites(principal, PAGE)));
+    }
+
+    // the same for a box with one collaborator as for one with many
+    @Test
+    void fundBoxDetailsTakeAFixedNumberOfQueries() {
+        FundBox small = persistFundBox(user, "Small");
+        FundBox large = persistFundBox(user, "Large");
+        for (int i = 0; i < ROWS; i++) {
+            persistDeposit(small, LocalDate.of(2024, 1, 1).plusDays(i));
+            persistDeposit(large, LocalDate.of(2024, 1, 1).plusDays(i));
+
+            User collaborator = persistUser("collaborator" + i + "@finapp.test", "Collaborator User");
+            persistMember(large, collaborator, FundBoxRole.COLLABORATOR);
+            persistInvite(large, user, persistUser("pending" + i + "@finapp.test", "Pending User"));
+            if (i == 0) {
+                persistMember(small, collaborator, FundBoxRole.COLLABORATOR);
+                persistInvite(small, user, collaborator);
+            }
+        }
+
+        assertEquals(5, statementsOf(() -> fundboxService.getFundBoxDetails(small.getId(), principal, PAGE)));
+        assertEquals(5, statementsOf(() -> fundboxService.getFundBoxDetails(large.getId(), principal, PAGE)));
+    }
+
+    // statements issued by the action alone, with nothing left in the persistence context to serve it
+    private long statementsOf(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User persistUser(String email, String name) {
+        User created = new User();
+        created.setEmail(email);
+        created.setName(name);
+        created.setPasswordHash("{bcrypt}hash");
+        created.setStatus(UserStatus.ACTIVE);
+        return entityManager.persist(created);
+    }
+
+    private FundBox persistFundBox(User owner, String name) {
+        FundBox fundBox = new FundBox();
+        fundBox.setName(name);
+        fundBox.setFinancialGoal(new BigDecimal("1000.00"));
+        fundBox.setTargetDate(LocalDate.now().plusYears(1));
+        fundBox.setOwner(owner);
+        fundBox.setMembers(new HashSet<>());
+        entityManager.persist(fundBox);
+        persistMember(fundBox, owner, FundBoxRole.OWNER);
+        return fundBox;
+    }
+
+    private void persistMember(FundBox fundBox, User member, FundBoxRole role) {
+        FundBoxMember membership = new FundBoxMember();
+        membership.setFundBox(fundBox);
+        membership.setUser(member);
+        membership.setRole(role);
+        entityManager.persist(membership);
+    }
+
+    private void persistDeposit(FundBox fundBox, LocalDate date) {
+        Deposit deposit = new Deposit();
+        deposit.setAmount(new BigDecimal("10.00"));
+        deposit.setDate(date);
+        deposit.setDescription("Deposit");
+        deposit.setTransactionType(TransactionType.ENTRY);
+        deposit.setUser(user);
+        deposit.setFundBox(fundBox);
+        entityManager.persist(deposit);
+    }
+
+    private void persistInvite(FundBox fundBox, User inviter, User invitee) {
+        FundBoxInvitation invitation = new FundBoxInvitation();
+        invitation.setFundBox(fundBox);
+        invitation.setInviter(inviter);
+        invitation.setInvitee(invitee);
+        invitation.setStatus(InvitationStatus.PENDING);
+        invitation.setInvitationDate(LocalDateTime.now());
+        entityManager.persist(invitation);
+    }
+
+    private void persistToken(String accessToken, String refreshToken) {
+        Date now = new Date();
+        UserToken token = new UserToken();
+        token.setUser(user);
+        token.setAccessTokenHash(TokenDigest.sha256(accessToken));
+        token.setRefreshTokenHash(TokenDigest.sha256(refreshToken));
+        token.setAccessTokenExpiration(new Date(now.getTime() + 3_600_000));
+        token.setRefreshTokenExpiration(new Date(now.getTime() + 86_400_000));
+        token.setCreatedAt(now);
+        token.setUpdatedAt(now);
+        token.setDeviceIp("127.0.0.1");
+        token.setDeviceInfo("test");
+        entityManager.persist(token);
+    }
+}
@@ -0,0 +1,77 @@
+package com.finapp.backend.domain.service.imports;
+
+import com.finapp.backend.domain.model.DepositImportError;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportBatchTest {
+
+    private record Written(List<StatementRow> rows, List<DepositImportError> errors, long failedRows, int processedOffset) {
+    }
+
+    private final List<Written> writes = new ArrayList<>();
+    private final ImportBatch batch = new ImportBatch(3, 2,
+            (rows, errors, failedRows, offset) -> writes.add(new Written(rows, errors, failedRows, offset)));
+
+    @Test
+    void flushesEveryBatchSizeRowsCountingFailures() {
+        batch.row(row(1, "10.00"));
+        batch.row(row(2, "0"));
+        assertTrue(writes.isEmpty());
+
+        batch.row(row(3, "-5.00"));
+        assertEquals(1, writes.size());
+        assertEquals(2, writes.get(0).rows().size());
+        assertEquals(1, writes.get(0).failedRows());
+        assertEquals(30, writes.get(0).processedOffset());
+
+        batch.row(row(4, "7.00"));
+        batch.flush();
+        assertEquals(2, writes.size());
+        assertEquals(List.of(4L), writes.get(1).rows().stream().map(StatementRow::line).toList());
+        assertEquals(0, writes.get(1).failedRows());
+    }
+
+    @Test
+    void rejectsZeroAmountsAndFutureDates() {
+        batch.row(row(1, "0"));
+        batch.row(new StatementRow(2, LocalDate.now().plusDays(1), BigDecimal.TEN, "later", 20));
+        batch.flush();
+
+        assertEquals(List.of("Amount must not be zero", "Date cannot be in the future"),
+                writes.get(0).errors().stream().map(DepositImportError::getMessage).toList());
+        assertTrue(writes.get(0).rows().isEmpty());
+    }
+
+    // only the first errors of the whole import are kept, later batches report counts alone
+    @Test
+    void capsStoredErrorsButCountsEveryFailure() {
+        for (int line = 1; line <= 7; line++)
+            batch.error(line, "Unreadable row");
+        batch.flush();
+
+        assertEquals(3, writes.size());
+        assertEquals(7, writes.stream().mapToLong(Written::failedRows).sum());
+        assertEquals(List.of(1L, 2L), writes.stream()
+                .flatMap(written -> written.errors().stream())
+                .map(DepositImportError::getLineNumber)
+                .toList());
+    }
+
+    @Test
+    void flushWithNothingPendingWritesNothing() {
+        batch.flush();
+        assertTrue(writes.isEmpty());
+    }
+
+    private static StatementRow row(long line, String amount) {
+        return new StatementRow(line, LocalDate.of(2024, 5, 1), new BigDecimal(amount), "row " + line, (int) line * 10);
+    }
+}
@@ -0,0 +1,99 @@
+package com.finapp.backend.domain.service.imports;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StatementParserTest {
+
+    private final List<StatementRow> rows = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+    private final StatementRowHandler handler = new StatementRowHandler() {
+        @Override
+        public void row(StatementRow row) {
+            rows.add(row);
+        }
+
+        @Override
+        public void error(long line, String message) {
+            errors.add(line + ": " + message);
+        }
+    };
+
+    @Test
+    void parsesCsvColumnsByNameAndSkipsTheRest() {
+        String csv = """
+                Data;Conta;Histórico;Valor
+                01/05/2024;123;"Mercado; centro";-1.234,56
+                02/05/2024;123;Salário;5000,00
+
+                03/05/2024;123;Sem valor;
+                """;
+
+        StatementFormat.CSV.parser().parse(bytes(csv), handler);
+
+        assertEquals(2, rows.size());
+        assertEquals(new StatementRow(2, LocalDate.of(2024, 5, 1), new BigDecimal("-1234.56"), "Mercado; centro", rows.get(0).endOffset()), rows.get(0));
+        assertEquals(new BigDecimal("5000.00"), rows.get(1).amount());
+        assertEquals(List.of("5: Unrecognized amount ''"), errors);
+    }
+
+    @Test
+    void parsesOfxTransactionsOnly() {
+        String ofx = """
+                OFXHEADER:100
+                DATA:OFXSGML
+
+                <OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS>
+                <BANKTRANLIST>
+                <STMTTRN>
+                <TRNTYPE>DEBIT
+                <DTPOSTED>20240501120000[-3:BRT]
+                <TRNAMT>-42.10
+                <FITID>1
+                <NAME>Padaria
+                <MEMO>Cafe &amp; pao
+                </STMTTRN>
+                <STMTTRN>
+                <DTPOSTED>20240502
+                <TRNAMT>100.00
+                <NAME>Pix recebido
+                </STMTTRN>
+                <STMTTRN>
+                <TRNAMT>1.00
+                </STMTTRN>
+                </BANKTRANLIST>
+                <LEDGERBAL><BALAMT>57.90<DTASOF>20240502</LEDGERBAL>
+                </STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>
+                """;
+
+        StatementFormat.OFX.parser().parse(bytes(ofx), handler);
+
+        assertEquals(2, rows.size());
+        assertEquals(LocalDate.of(2024, 5, 1), rows.get(0).date());
+        assertEquals(new BigDecimal("-42.10"), rows.get(0).amount());
+        assertEquals("Cafe & pao", rows.get(0).description());
+        assertEquals("Pix recebido", rows.get(1).description());
+        assertEquals(List.of("19: Transaction is missing TRNAMT or DTPOSTED"), errors);
+    }
+
+    @Test
+    void readsCommonAmountLayouts() {
+        assertEquals(new BigDecimal("1234.56"), StatementValues.parseAmount("1,234.56"));
+        assertEquals(new BigDecimal("-1234.56"), StatementValues.parseAmount("(1.234,56)"));
+        assertEquals(new BigDecimal("1234567"), StatementValues.parseAmount("1,234,567"));
+        assertNull(StatementValues.parseAmount("n/a"));
+    }
+
+    private static ByteBuffer bytes(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,68 @@
+package com.finapp.backend.domain.service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BalanceTreeTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @Test
+    void balanceAtMatchesRunningSumOfDailyChanges() {
+        Random random = new Random(42);
+        Map<LocalDate, BigDecimal> daily = new HashMap<>();
+        Map<Integer, BigDecimal> nodes = new HashMap<>();
+
+        // changes arrive out of date order, as back-dated deposits do
+        for (int i = 0; i < 500; i++) {
+            LocalDate date = START.plusDays(random.nextInt(1500));
+            BigDecimal change = BigDecimal.valueOf(random.nextInt(20_001) - 10_000, 2);
+            daily.merge(date, change, BigDecimal::add);
+            BalanceTree.nodeDeltas(Map.of(date, change)).forEach((node, delta) -> nodes.merge(node, delta, BigDecimal::add));
+        }
+
+        BigDecimal running = BigDecimal.ZERO;
+        for (LocalDate date = START.minusDays(1); date.isBefore(START.plusDays(1500)); date = date.plusDays(1)) {
+            running = running.add(daily.getOrDefault(date, BigDecimal.ZERO));
+            assertEquals(0, running.compareTo(BalanceTree.balanceAt(BalanceTree.dayOf(date), nodes)), date.toString());
+        }
+        assertEquals(0, running.compareTo(nodes.getOrDefault(BalanceTree.SIZE, BigDecimal.ZERO)));
+    }
+
+    @Test
+    void pathsStayLogarithmic() {
+        for (int day : new int[]{1, 2, 45_000, BalanceTree.SIZE - 1, BalanceTree.SIZE}) {
+            assertTrue(BalanceTree.updatePath(day).size() <= 18);
+            assertTrue(BalanceTree.queryPath(day).size() <= 17);
+        }
+    }
+
+    @Test
+    void clampsDatesOutsideTheTree() {
+        assertEquals(1, BalanceTree.dayOf(LocalDate.of(1850, 6, 1)));
+        assertEquals(1, BalanceTree.dayOf(BalanceTree.ORIGIN));
+        assertEquals(BalanceTree.SIZE, BalanceTree.dayOf(LocalDate.of(2400, 1, 1)));
+    }
+
+    @Test
+    void changesThatCancelOutWriteNothing() {
+        LocalDate date = LocalDate.of(2024, 3, 10);
+        assertTrue(BalanceTree.nodeDeltas(Map.of(date, BigDecimal.ZERO)).isEmpty());
+
+        Map<LocalDate, BigDecimal> moved = new HashMap<>();
+        moved.put(date, new BigDecimal("50.00"));
+        moved.put(date.plusDays(1), new BigDecimal("-50.00"));
+        // a deposit moved by a day leaves every node covering both days, the root included, untouched
+        assertTrue(BalanceTree.nodeDeltas(moved).size() < BalanceTree.updatePath(BalanceTree.dayOf(date)).size());
+        assertFalse(BalanceTree.nodeDeltas(moved).containsKey(BalanceTree.SIZE));
+    }
+}
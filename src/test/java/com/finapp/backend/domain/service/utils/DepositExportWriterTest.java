@@ -0,0 +1,113 @@
+package com.finapp.backend.domain.service.utils;
+
+import com.finapp.backend.domain.model.enums.TransactionType;
+import com.finapp.backend.domain.repository.projection.DepositView;
+import com.finapp.backend.dto.deposit.DepositExportFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DepositExportWriterTest {
+
+    private static final UUID DEPOSIT_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    // a row of the streaming test is longer than this in either format
+    private static final int MIN_ROW_BYTES = 60;
+    private static final UUID FUND_BOX_ID = UUID.fromString("00000000-0000-0000-0000-000000000003");
+
+    @Test
+    void writesCsvWithSignedAmountsAndQuotedFields() throws IOException {
+        DepositView row = new DepositView(DEPOSIT_ID, new BigDecimal("12.50"), LocalDate.of(2024, 5, 1),
+                "rent, \"May\"", TransactionType.EXIT, USER_ID, "Ana Lima", FUND_BOX_ID, "House");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        DepositExportWriter.write(DepositExportFormat.CSV, List.of(row).iterator(), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(DEPOSIT_ID + ",2024-05-01,EXIT,-12.50,\"rent, \"\"May\"\"\"," + FUND_BOX_ID + ",House," + USER_ID + ",Ana Lima", lines[1]);
+    }
+
+    @Test
+    void neutralizesFormulasInCsvFields() throws IOException {
+        DepositView row = new DepositView(DEPOSIT_ID, new BigDecimal("12.50"), LocalDate.of(2024, 5, 1),
+                "=HYPERLINK(\"http://evil\")", TransactionType.EXIT, USER_ID, "@Ana", FUND_BOX_ID, "+House");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        DepositExportWriter.write(DepositExportFormat.CSV, List.of(row).iterator(), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(DEPOSIT_ID + ",2024-05-01,EXIT,-12.50,\"'=HYPERLINK(\"\"http://evil\"\")\"," + FUND_BOX_ID + ",'+House," + USER_ID + ",'@Ana", lines[1]);
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() throws IOException {
+        DepositView linked = new DepositView(DEPOSIT_ID, BigDecimal.TEN, LocalDate.of(2024, 5, 1),
+                null, TransactionType.ENTRY, USER_ID, "Ana Lima", FUND_BOX_ID, "House");
+        DepositView unlinked = new DepositView(DEPOSIT_ID, BigDecimal.ONE, LocalDate.of(2024, 4, 1),
+                "coffee", TransactionType.EXIT, USER_ID, "Ana Lima", null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        DepositExportWriter.write(DepositExportFormat.NDJSON, List.of(linked, unlinked).iterator(), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":\"" + DEPOSIT_ID + "\""));
+        assertTrue(lines[1].contains("\"amount\":-1,"));
+        assertTrue(lines[1].contains("\"fundBoxId\":null"));
+    }
+
+    // at most a flush interval's worth of rows (plus one writer buffer) may be pending at any point
+    @Test
+    void streamsRowsWithBoundedBuffering() throws IOException {
+        for (DepositExportFormat format : DepositExportFormat.values()) {
+            CountingOutputStream out = new CountingOutputStream();
+            int total = 1_000_000;
+            Iterator<DepositView> rows = new Iterator<>() {
+                private int produced;
+
+                @Override
+                public boolean hasNext() {
+                    return produced < total;
+                }
+
+                @Override
+                public DepositView next() {
+                    long minimumWritten = (long) (produced - DepositExportWriter.FLUSH_EVERY * 2) * MIN_ROW_BYTES;
+                    if (produced % DepositExportWriter.FLUSH_EVERY == 0)
+                        assertTrue(out.bytes >= minimumWritten, format + " buffered rows instead of streaming them");
+                    produced++;
+                    return new DepositView(DEPOSIT_ID, BigDecimal.ONE, LocalDate.of(2024, 1, 1),
+                            "row", TransactionType.ENTRY, USER_ID, "Ana Lima", null, null);
+                }
+            };
+
+            assertEquals(total, DepositExportWriter.write(format, rows, out));
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
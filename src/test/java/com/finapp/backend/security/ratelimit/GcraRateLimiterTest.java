@@ -0,0 +1,84 @@
+package com.finapp.backend.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GcraRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final GcraRateLimiter limiter = new GcraRateLimiter(new RateLimitPolicy(5, Duration.ofSeconds(10)), clock::get);
+
+    @Test
+    void allowsBurstUpToLimitThenRejects() {
+        for (int i = 4; i >= 0; i--) {
+            RateLimitDecision decision = limiter.tryAcquire("client");
+            assertTrue(decision.allowed());
+            assertEquals(i, decision.remaining());
+        }
+
+        RateLimitDecision rejected = limiter.tryAcquire("client");
+        assertFalse(rejected.allowed());
+        assertEquals("2", rejected.headers().get("Retry-After"));
+        assertEquals("10", rejected.headers().get("RateLimit-Reset"));
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() {
+        for (int i = 0; i < 5; i++)
+            limiter.tryAcquire("client");
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        assertTrue(limiter.tryAcquire("client").allowed());
+        assertFalse(limiter.tryAcquire("client").allowed());
+    }
+
+    @Test
+    void evictsKeysOnceTheirBucketIsFull() {
+        limiter.tryAcquire("idle");
+        limiter.tryAcquire("busy");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        limiter.tryAcquire("busy");
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void grantsExactlyTheLimitUnderContention() throws InterruptedException {
+        GcraRateLimiter contended = new GcraRateLimiter(new RateLimitPolicy(1_000, Duration.ofHours(1)), clock::get);
+        int threads = 64;
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    if (contended.tryAcquire("shared").allowed())
+                        granted.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(1_000, granted.get());
+    }
+}